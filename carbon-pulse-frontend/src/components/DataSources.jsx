@@ -16,11 +16,14 @@ export default function DataSources() {
   useEffect(() => {
     const check = async () => {
       try {
-        const [node, java] = await Promise.all([
-          axios.get('http://localhost:3002/api/v1/health'),
+        // The backend probes the calculator itself; ask for its cached result instead
+        // of adding our own polling to the calculator's load.
+        const [health, java] = await Promise.all([
+          axios.get('http://localhost:8080/api/carbon/health'),
           axios.get('http://localhost:8080/api/carbon/hackathon/live')
         ]);
-        setStatus({ discord: node.status === 200, api: java.status === 200, calculator: node.status === 200 });
+        const calculator = health.data.status === 'OPERATIONAL' || health.data.status === 'DEGRADED';
+        setStatus({ discord: calculator, api: java.status === 200, calculator });
       } catch (e) {
         setStatus({ discord: false, api: false, calculator: false });
       }
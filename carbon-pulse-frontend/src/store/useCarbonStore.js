@@ -19,6 +19,10 @@ const loadLastTimestamp = () => {
   }
 };
 
+// Live updates: an EventSource on /hackathon/stream, or a poll timer when it is unavailable
+let liveStream = null;
+let pollTimer = null;
+
 export const useCarbonStore = create((set, get) => ({
   data: null,
   history: loadHistory(),
@@ -28,40 +32,62 @@ export const useCarbonStore = create((set, get) => ({
   fetchData: async () => {
     try {
       const response = await axios.get(`${import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'}/api/carbon/hackathon/live`);
-      const newData = response.data;
+      get().applyData(response.data);
+    } catch (error) {
+      console.error('Failed to fetch carbon data:', error);
+    }
 
-      set({ data: newData });
+    // Prefer the push stream; fall back to polling every 10 seconds without it
+    if (!get().connectLiveStream()) {
+      clearTimeout(pollTimer);
+      pollTimer = setTimeout(() => get().fetchData(), 10000);
+    }
+  },
 
-      const now = Date.now();
-      const lastMinute = get().lastMinuteTimestamp;
-      const shouldAddPoint = !lastMinute || (now - lastMinute) >= 10000;
+  connectLiveStream: () => {
+    if (liveStream) return true;
+    if (typeof EventSource === 'undefined') return false;
 
-      if (shouldAddPoint) {
-        const currentHistory = get().history;
-        const carbonKg = newData?.carbonImpact?.kilograms || 0;
-        const messageCount = newData?.totalMessages || 0;
+    liveStream = new EventSource(`${import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'}/api/carbon/hackathon/stream`);
+    liveStream.addEventListener('hackathon', (event) => {
+      get().applyData(JSON.parse(event.data));
+    });
+    liveStream.onerror = () => {
+      // EventSource reconnects by itself unless the server refused the stream
+      if (liveStream.readyState === EventSource.CLOSED) {
+        liveStream = null;
+        clearTimeout(pollTimer);
+        pollTimer = setTimeout(() => get().fetchData(), 10000);
+      }
+    };
+    return true;
+  },
+
+  applyData: (newData) => {
+    set({ data: newData });
 
-        const newHistory = [...currentHistory, {
-          carbonKg,
-          messageCount,
-          timestamp: now
-        }];
+    const now = Date.now();
+    const lastMinute = get().lastMinuteTimestamp;
+    const shouldAddPoint = !lastMinute || (now - lastMinute) >= 10000;
 
-        if (newHistory.length > 360) {
-          newHistory.shift();
-        }
+    if (shouldAddPoint) {
+      const currentHistory = get().history;
+      const carbonKg = newData?.carbonImpact?.kilograms || 0;
+      const messageCount = newData?.totalMessages || 0;
 
-        localStorage.setItem('carbonHistory', JSON.stringify(newHistory));
-        localStorage.setItem('lastTimestamp', now.toString());
-        set({ history: newHistory, lastMinuteTimestamp: now });
+      const newHistory = [...currentHistory, {
+        carbonKg,
+        messageCount,
+        timestamp: now
+      }];
+
+      if (newHistory.length > 360) {
+        newHistory.shift();
       }
 
-      // Poll every 10 seconds
-      setTimeout(() => get().fetchData(), 10000);
-    } catch (error) {
-      console.error('Failed to fetch carbon data:', error);
-      // Retry after 10 seconds even on error
-      setTimeout(() => get().fetchData(), 10000);
+      localStorage.setItem('carbonHistory', JSON.stringify(newHistory));
+      localStorage.setItem('lastTimestamp', now.toString());
+      set({ history: newHistory, lastMinuteTimestamp: now });
     }
   },
 
@@ -71,8 +97,8 @@ export const useCarbonStore = create((set, get) => ({
         count,
         isSimulation: true  // Mark as test data
       });
-      // Fetch updated data after simulation
-      setTimeout(() => get().fetchData(), 1000);
+      // The live stream pushes the update; only refresh when polling
+      if (!liveStream) setTimeout(() => get().fetchData(), 1000);
     } catch (error) {
       console.error('Failed to simulate messages:', error);
       throw error;
@@ -83,8 +109,8 @@ export const useCarbonStore = create((set, get) => ({
     try {
       const response = await axios.post(`${import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'}/api/carbon/simulation/reset`);
       console.log('Simulations reset:', response.data);
-      // Fetch updated data after reset
-      setTimeout(() => get().fetchData(), 500);
+      // The live stream pushes the update; only refresh when polling
+      if (!liveStream) setTimeout(() => get().fetchData(), 500);
       return response.data;
     } catch (error) {
       console.error('Failed to reset simulations:', error);
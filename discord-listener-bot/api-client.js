@@ -1,30 +1,50 @@
 import { EventEmitter } from 'events';
+import { BATCH_FRAME_TYPE, encodeBatchFrame } from './batch-frame.js';
 
 export class ApiClient extends EventEmitter {
-  constructor(baseUrl, maxRetries = 3) {
+  /**
+   * @param {string} format - 'json', or 'binary' for compact batch frames
+   */
+  constructor(baseUrl, maxRetries = 3, format = 'json') {
     super();
     this.baseUrl = baseUrl;
     this.maxRetries = maxRetries;
+    this.binary = format === 'binary';
     this.circuitOpen = false;
     this.failureCount = 0;
     this.successCount = 0;
   }
 
-  async sendBatch(count) {
+  /**
+   * Sends batch records ({ source, channel, count, simulation, batchId }) in one bulk request.
+   */
+  async sendBatches(records) {
+    const count = records.reduce((sum, record) => sum + record.count, 0);
+
     if (this.circuitOpen) {
       this.emit('circuit-open', { count });
       return null;
     }
 
+    // Encoded once for all attempts; fetch reuses the keep-alive connection between sends.
+    const body = this.binary ? encodeBatchFrame(records) : JSON.stringify(records);
+    const contentType = this.binary ? BATCH_FRAME_TYPE : 'application/json';
+
     for (let attempt = 1; attempt <= this.maxRetries; attempt++) {
       try {
-        const response = await fetch(`${this.baseUrl}/api/carbon/discord/batch`, {
+        const response = await fetch(`${this.baseUrl}/api/carbon/discord/batches`, {
           method: 'POST',
-          headers: { 'Content-Type': 'application/json' },
-          body: JSON.stringify({ count }),
+          headers: { 'Content-Type': contentType },
+          body,
           signal: AbortSignal.timeout(5000)
         });
 
+        if (response.status === 429) {
+          // Shed by the backend's admission control: not a failure, wait as told.
+          const error = new Error('HTTP 429');
+          error.retryAfterMs = Number(response.headers.get('retry-after') || 1) * 1000;
+          throw error;
+        }
         if (!response.ok) throw new Error(`HTTP ${response.status}`);
 
         const data = await response.json();
@@ -37,11 +57,11 @@ export class ApiClient extends EventEmitter {
         this.emit('retry', { count, attempt, error: error.message, isLastAttempt });
 
         if (isLastAttempt) {
-          this.#onFailure(error);
+          if (error.retryAfterMs === undefined) this.#onFailure(error);
           return null;
         }
 
-        await this.#backoff(attempt);
+        await this.#backoff(attempt, error.retryAfterMs);
       }
     }
   }
@@ -70,8 +90,8 @@ export class ApiClient extends EventEmitter {
     }
   }
 
-  #backoff(attempt) {
-    const delay = Math.min(1000 * Math.pow(2, attempt - 1), 8000);
+  #backoff(attempt, retryAfterMs) {
+    const delay = retryAfterMs ?? Math.min(1000 * Math.pow(2, attempt - 1), 8000);
     return new Promise(resolve => setTimeout(resolve, delay));
   }
 
@@ -0,0 +1,49 @@
+/**
+ * Compact binary encoding of batch records for POST /api/carbon/discord/batches,
+ * decoded by the backend's BatchFrameReader. Big-endian:
+ *
+ *   stream := "CO2B" version:u8 record*
+ *   record := flags:u8 count:i64 [source] [guild] [channel] [batchId]
+ *   string := length:u16 utf8-bytes
+ *   flags  := bit 0 simulation, bits 1-4 source/guild/channel/batchId present
+ */
+export const BATCH_FRAME_TYPE = 'application/x-co2-batch';
+
+const VERSION = 1;
+const SIMULATION = 1;
+const STRING_FIELDS = ['source', 'guild', 'channel', 'batchId'];
+const MAX_STRING_BYTES = 0xffff;
+
+export function encodeBatchFrame(records) {
+  const strings = records.map(record => STRING_FIELDS.map(field =>
+    record[field] == null ? null : Buffer.from(String(record[field]), 'utf8')));
+
+  let size = 5;
+  for (const fields of strings) {
+    size += 9;
+    for (const bytes of fields) {
+      if (bytes === null) continue;
+      if (bytes.length > MAX_STRING_BYTES) throw new RangeError('Batch record field exceeds 65535 bytes');
+      size += 2 + bytes.length;
+    }
+  }
+
+  const frame = Buffer.allocUnsafe(size);
+  let offset = frame.write('CO2B', 0, 'latin1');
+  offset = frame.writeUInt8(VERSION, offset);
+  records.forEach((record, index) => {
+    const fields = strings[index];
+    let flags = record.simulation ? SIMULATION : 0;
+    fields.forEach((bytes, field) => {
+      if (bytes !== null) flags |= 1 << (field + 1);
+    });
+    offset = frame.writeUInt8(flags, offset);
+    offset = frame.writeBigInt64BE(BigInt(record.count), offset);
+    for (const bytes of fields) {
+      if (bytes === null) continue;
+      offset = frame.writeUInt16BE(bytes.length, offset);
+      offset += bytes.copy(frame, offset);
+    }
+  });
+  return frame;
+}
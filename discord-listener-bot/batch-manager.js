@@ -1,4 +1,7 @@
 import { EventEmitter } from 'events';
+import { randomUUID } from 'crypto';
+
+const SOURCE = 'discord-listener-bot';
 
 export class BatchManager extends EventEmitter {
   constructor(apiClient, batchSize = 10, intervalMs = 30000) {
@@ -7,6 +10,10 @@ export class BatchManager extends EventEmitter {
     this.batchSize = batchSize;
     this.intervalMs = intervalMs;
     this.count = 0;
+    this.channelCounts = new Map(); // "guild\u0000channel" -> { guild, channel, count }
+    this.outbox = [];
+    this.sending = null;
+    this.throttledUntil = 0;
     this.timer = null;
     this.isShuttingDown = false;
   }
@@ -16,10 +23,17 @@ export class BatchManager extends EventEmitter {
     this.emit('started', { batchSize: this.batchSize, intervalMs: this.intervalMs });
   }
 
-  increment() {
+  increment(guild, channel) {
     if (this.isShuttingDown) return;
 
     this.count++;
+    const key = `${guild}\u0000${channel}`;
+    const entry = this.channelCounts.get(key);
+    if (entry) {
+      entry.count++;
+    } else {
+      this.channelCounts.set(key, { guild, channel, count: 1 });
+    }
     this.emit('message-counted', { currentCount: this.count });
 
     if (this.count >= this.batchSize) {
@@ -28,17 +42,53 @@ export class BatchManager extends EventEmitter {
   }
 
   async #flush(trigger) {
-    if (this.count === 0) return;
+    if (this.count === 0 && this.outbox.length === 0) return this.sending;
 
     const batchCount = this.count;
     this.count = 0;
+    for (const { guild, channel, count } of this.channelCounts.values()) {
+      this.outbox.push({ source: SOURCE, guild, channel, count, simulation: false, batchId: randomUUID() });
+    }
+    this.channelCounts.clear();
 
-    this.emit('batch-flushing', { count: batchCount, trigger });
-    const result = await this.apiClient.sendBatch(batchCount);
+    this.emit('batch-flushing', { count: batchCount, trigger, pending: this.outbox.length });
+    return this.#drain();
+  }
 
-    if (result) {
-      this.emit('batch-success', { count: batchCount, trigger, result });
-    }
+  // One request in flight at a time; batches flushed meanwhile go out together in the next one.
+  // Records that could not be sent stay in the outbox, batchIds unchanged, for the next flush:
+  // the backend drops a batchId it has already applied, so resending is always safe.
+  // Records the backend throttled go back too, and nothing is sent until its Retry-After.
+  #drain() {
+    if (this.sending) return this.sending;
+
+    this.sending = (async () => {
+      while (this.outbox.length > 0 && Date.now() >= this.throttledUntil) {
+        const records = this.outbox.splice(0, this.outbox.length);
+        const count = records.reduce((sum, record) => sum + record.count, 0);
+        const result = await this.apiClient.sendBatches(records);
+
+        if (result) {
+          const throttled = records.filter((record, index) => result.batches?.[index]?.status === 'throttled');
+          if (throttled.length > 0) {
+            this.outbox.unshift(...throttled);
+            this.throttledUntil = Date.now() + (result.retryAfterSeconds ?? 1) * 1000;
+            this.emit('batch-throttled', {
+              count: throttled.reduce((sum, record) => sum + record.count, 0),
+              batches: throttled.length,
+              retryAfterSeconds: result.retryAfterSeconds
+            });
+          }
+          this.emit('batch-success', { count, batches: records.length, result });
+        } else {
+          this.outbox.unshift(...records);
+          this.emit('batch-requeued', { count, batches: records.length });
+          break;
+        }
+      }
+      this.sending = null;
+    })();
+    return this.sending;
   }
 
   async shutdown() {
@@ -46,6 +96,7 @@ export class BatchManager extends EventEmitter {
     clearInterval(this.timer);
     this.emit('shutting-down', { pendingCount: this.count });
     await this.#flush('shutdown');
+    await this.sending;
     this.emit('shutdown-complete');
   }
 }
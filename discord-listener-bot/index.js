@@ -7,13 +7,14 @@ const config = {
   token: process.env.DISCORD_BOT_TOKEN,
   backendUrl: process.env.BACKEND_URL || 'http://localhost:8080',
   batchSize: parseInt(process.env.BATCH_SIZE || '10'),
-  intervalMs: parseInt(process.env.BATCH_INTERVAL_MS || '30000')
+  intervalMs: parseInt(process.env.BATCH_INTERVAL_MS || '30000'),
+  batchFormat: process.env.BATCH_FORMAT || 'json'
 };
 
 class CarbonListener {
   constructor(config) {
     this.bot = new DiscordBot(config.token);
-    this.api = new ApiClient(config.backendUrl);
+    this.api = new ApiClient(config.backendUrl, 3, config.batchFormat);
     this.batcher = new BatchManager(this.api, config.batchSize, config.intervalMs);
     this.#wireEvents();
   }
@@ -37,8 +38,8 @@ class CarbonListener {
       console.log(`[BOT] Ready as ${username} (${guilds} servers)`);
     });
 
-    this.bot.on('valid-message', ({ author, channel }) => {
-      this.batcher.increment();
+    this.bot.on('valid-message', ({ author, channel, guild }) => {
+      this.batcher.increment(guild, channel);
       console.log(`[MSG] ${author} in #${channel}`);
     });
 
@@ -46,10 +47,24 @@ class CarbonListener {
       console.log(`[BATCH] Sending ${count} messages (trigger: ${trigger})`);
     });
 
-    this.batcher.on('batch-success', ({ count, result }) => {
+    this.batcher.on('batch-success', ({ count, batches, result }) => {
       const total = result.hackathon.totalMessages;
       const carbon = result.hackathon.totalCarbon.kilograms.toFixed(4);
-      console.log(`[SUCCESS] Batch: ${count} | Total: ${total} msgs (${carbon} kg CO₂)`);
+      console.log(`[SUCCESS] Batch: ${count} in ${batches} record(s) | Total: ${total} msgs (${carbon} kg CO₂)`);
+      if (result.rejected > 0) {
+        console.warn(`[BATCH] ${result.rejected} record(s) rejected by backend`);
+      }
+      if (result.duplicates > 0) {
+        console.log(`[BATCH] ${result.duplicates} record(s) already recorded by an earlier attempt`);
+      }
+    });
+
+    this.batcher.on('batch-requeued', ({ count, batches }) => {
+      console.warn(`[BATCH] ${count} messages in ${batches} record(s) kept for the next flush`);
+    });
+
+    this.batcher.on('batch-throttled', ({ count, batches, retryAfterSeconds }) => {
+      console.warn(`[BATCH] ${count} messages in ${batches} record(s) throttled, resending after ${retryAfterSeconds}s`);
     });
 
     this.api.on('retry', ({ count, attempt, error }) => {
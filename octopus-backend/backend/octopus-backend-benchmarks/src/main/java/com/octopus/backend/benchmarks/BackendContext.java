@@ -0,0 +1,45 @@
+package com.octopus.backend.benchmarks;
+
+import com.octopus.backend.OctopusBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the real backend application context (no web server) so benchmarks go through
+ * the same cache proxy and microservice client as production. Properties are passed as command-line
+ * arguments because those override {@code application.properties}.
+ */
+final class BackendContext {
+
+    private BackendContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>();
+        args.add("--co2.persistence.dir=" + tempDir());
+        args.add("--logging.level.root=WARN");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(OctopusBackendApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(args.toArray(String[]::new));
+    }
+
+    static Path tempDir() {
+        try {
+            return Files.createTempDirectory("co2-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
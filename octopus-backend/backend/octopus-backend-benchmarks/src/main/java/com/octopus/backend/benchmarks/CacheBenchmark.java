@@ -0,0 +1,51 @@
+package com.octopus.backend.benchmarks;
+
+import com.octopus.backend.CarbonService;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code carbonCalculations} cache in front of the local engine, through the real
+ * {@code @Cacheable}/{@code @Retryable} proxies: a hit on a hot key versus a miss that
+ * calculates, inserts and (once the cache is full) evicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final long HOT_COUNT = 1_500;
+
+    private ConfigurableApplicationContext context;
+    private CarbonService carbonService;
+    private final AtomicLong nextCount = new AtomicLong(HOT_COUNT);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BackendContext.start("co2.engine.mode=local");
+        carbonService = context.getBean(CarbonService.class);
+        carbonService.calculateDiscordCarbon(HOT_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CarbonCalculationResponse hit() {
+        return carbonService.calculateDiscordCarbon(HOT_COUNT);
+    }
+
+    @Benchmark
+    public CarbonCalculationResponse miss() {
+        return carbonService.calculateDiscordCarbon(nextCount.incrementAndGet() % 10_000_000L);
+    }
+}
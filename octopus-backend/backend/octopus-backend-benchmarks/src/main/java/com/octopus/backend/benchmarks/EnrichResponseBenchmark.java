@@ -0,0 +1,74 @@
+package com.octopus.backend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.CarbonService;
+import com.octopus.backend.client.CircuitBreaker;
+import com.octopus.backend.client.Co2MicroserviceClient;
+import com.octopus.backend.client.RetryBudget;
+import com.octopus.backend.config.CacheConfig;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.observability.TraceIds;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-calculation overhead outside the engine: an uncached, unproxied
+ * {@code calculateDiscordCarbon} (validation, timing, metrics, {@code enrichResponse}),
+ * the {@link TraceIds} id it attaches next to the {@code UUID.randomUUID()} it replaced,
+ * and the bare engine for reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnrichResponseBenchmark {
+
+    private LocalCarbonEngine engine;
+    private CarbonService carbonService;
+    private Co2MicroserviceClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new LocalCarbonEngine(CarbonModel.SWD_V3);
+        BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+        client = new Co2MicroserviceClient("http://127.0.0.1:1/api/v1", 1, 100, 1, 1, 0, 0, 1, new ObjectMapper(), metrics,
+                                          new CircuitBreaker(0.5, 0.8, Long.MAX_VALUE, 10, 10, 0, 1, System::nanoTime),
+                                          new RetryBudget(0, 0));
+        carbonService = new CarbonService(client, engine, new ConcurrentMapCacheManager(CacheConfig.CARBON_CALCULATIONS),
+                                          metrics);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public CarbonCalculationResponse engineOnly() {
+        return engine.calculateDiscord(1_500);
+    }
+
+    @Benchmark
+    public CarbonCalculationResponse calculateAndEnrich() {
+        return carbonService.calculateDiscordCarbon(1_500);
+    }
+
+    @Benchmark
+    public String traceIdUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String traceId() {
+        return TraceIds.next();
+    }
+}
@@ -0,0 +1,44 @@
+package com.octopus.backend.benchmarks;
+
+import com.octopus.backend.PersistenceService;
+import com.octopus.backend.observability.BackendMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PersistenceService.recordBatch} (the journal append that replaced
+ * {@code saveMessageCount}) under each durability mode. With {@code batch} every call
+ * waits for an fsync, so run with {@code -t} > 1 to see group commit amortise it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"batch", "interval", "os"})
+    String durability;
+
+    private PersistenceService persistenceService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        persistenceService = new PersistenceService(BackendContext.tempDir().toString(), durability, 50, 10_000,
+                                                    new BackendMetrics(new SimpleMeterRegistry()));
+        persistenceService.loadMessageCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        persistenceService.close();
+    }
+
+    @Benchmark
+    public void recordBatch() {
+        persistenceService.recordBatch(10);
+    }
+}
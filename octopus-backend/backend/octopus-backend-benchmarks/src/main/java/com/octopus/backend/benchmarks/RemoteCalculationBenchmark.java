@@ -0,0 +1,55 @@
+package com.octopus.backend.benchmarks;
+
+import com.octopus.backend.CarbonService;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code CarbonService.calculateDiscordCarbon} in remote mode on the cache-miss path
+ * (cache proxy, circuit breaker, JDK HTTP client, JSON decoding) against a stub microservice
+ * with a fixed response latency, with and without the calculation coalescer. Run it with
+ * {@code -t} above 1 to see coalescing: a single thread only ever has one call in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RemoteCalculationBenchmark {
+
+    @Param({"0", "1", "5"})
+    long latencyMillis;
+
+    @Param({"0", "2000"})
+    long coalesceWindowMicros;
+
+    private StubCo2Microservice stub;
+    private ConfigurableApplicationContext context;
+    private CarbonService carbonService;
+    private final AtomicLong nextCount = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stub = new StubCo2Microservice(latencyMillis);
+        context = BackendContext.start("co2.engine.mode=remote", "co2.microservice.url=" + stub.baseUrl(),
+                                       "co2.microservice.coalesce.window.micros=" + coalesceWindowMicros);
+        carbonService = context.getBean(CarbonService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public CarbonCalculationResponse calculateDiscordCarbonMiss() {
+        // Every count is new, so every call goes to the microservice.
+        return carbonService.calculateDiscordCarbon(nextCount.incrementAndGet() % 10_000_000L);
+    }
+}
@@ -0,0 +1,82 @@
+package com.octopus.backend.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies: {@link CarbonCalculationResponse} and the
+ * {@code Map.of} payloads built by {@code CarbonController} for {@code /discord/batch}
+ * and {@code /hackathon/live}. The mapper is configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CarbonCalculationResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        CarbonCalculationResponse calculated = new LocalCarbonEngine(CarbonModel.SWD_V3).calculateDiscord(1_500);
+        response = new CarbonCalculationResponse(
+            calculated.activity(), calculated.count(), calculated.carbon(), calculated.equivalents(),
+            calculated.timestamp(), calculated.calculationModel(), calculated.note(),
+            3L, UUID.randomUUID().toString(), false);
+    }
+
+    @Benchmark
+    public byte[] calculationResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] batchPayload() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+            "batch", Map.of(
+                "messages", 10L,
+                "carbon", response.carbon(),
+                "equivalents", response.equivalents(),
+                "isSimulation", false
+            ),
+            "hackathon", Map.of(
+                "totalMessages", 1_500L,
+                "realBotMessages", 1_400L,
+                "simulationMessages", 100L,
+                "totalCarbon", response.carbon(),
+                "totalEquivalents", response.equivalents(),
+                "lastUpdated", Instant.now().toString()
+            )
+        ));
+    }
+
+    @Benchmark
+    public byte[] livePayload() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of(
+            "hackathon", "Octopus Hackathon",
+            "totalMessages", 1_500L,
+            "realBotMessages", 1_400L,
+            "simulationMessages", 100L,
+            "carbonImpact", response.carbon(),
+            "equivalents", response.equivalents(),
+            "lastUpdated", Instant.now().toString()
+        ));
+    }
+}
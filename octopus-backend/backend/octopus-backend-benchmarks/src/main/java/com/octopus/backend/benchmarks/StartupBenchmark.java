@@ -0,0 +1,198 @@
+package com.octopus.backend.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Not a JMH benchmark: starts the backend jar {@code startup.runs} times, each in a fresh
+ * JVM with an empty persistence directory, and measures the time from process launch to
+ * the first 200 from {@code /api/carbon/hackathon/live} plus the resident set size at
+ * that point (from {@code /proc}, so Linux only). Writes {@code startup.result} as JSON
+ * and exits with 1 when the median exceeds {@code startup.max-millis} or
+ * {@code startup.max-rss-mb}, so a build can guard against startup regressions.
+ *
+ * <p>Compare the plain jar with the {@code fast-startup} build by pointing
+ * {@code startup.jar} at {@code target/fast-startup} and passing its JVM options through
+ * {@code startup.jvm-args}.
+ */
+public final class StartupBenchmark {
+
+    private static final String PROBE_PATH = "/api/carbon/hackathon/live";
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Paths.get(System.getProperty("startup.jar",
+                                                "../octopus-backend/target/backend-0.0.1-SNAPSHOT.jar"))
+            .toAbsolutePath().normalize();
+        int runs = Integer.getInteger("startup.runs", 5);
+        List<String> jvmArgs = split(System.getProperty("startup.jvm-args", ""));
+        Path result = Paths.get(System.getProperty("startup.result", "target/startup-result.json"));
+        long maxMillis = Long.getLong("startup.max-millis", 0);
+        long maxRssMb = Long.getLong("startup.max-rss-mb", 0);
+
+        if (!Files.isRegularFile(jar)) {
+            System.err.println("No backend jar at " + jar + "; build it with mvn -f ../octopus-backend package");
+            System.exit(2);
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        List<Run> results = new ArrayList<>(runs);
+        for (int i = 1; i <= runs; i++) {
+            Run run = launch(client, jar, jvmArgs);
+            results.add(run);
+            System.out.printf(Locale.ROOT, "run %d/%d: first request after %d ms, RSS %.1f MB%n",
+                              i, runs, run.millis, run.rssMb());
+        }
+
+        long[] millis = results.stream().mapToLong(Run::millis).sorted().toArray();
+        double[] rss = results.stream().mapToDouble(Run::rssMb).sorted().toArray();
+        long medianMillis = millis[millis.length / 2];
+        double medianRss = rss[rss.length / 2];
+        System.out.printf(Locale.ROOT, "time to first request: median %d ms, min %d ms%n", medianMillis, millis[0]);
+        System.out.printf(Locale.ROOT, "RSS at first request: median %.1f MB, min %.1f MB%n", medianRss, rss[0]);
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        Files.writeString(result, String.format(Locale.ROOT,
+            "{\"jar\":\"%s\",\"jvmArgs\":\"%s\",\"runs\":%d,"
+                + "\"timeToFirstRequestMs\":{\"median\":%d,\"min\":%d,\"samples\":%s},"
+                + "\"rssMb\":{\"median\":%.1f,\"min\":%.1f,\"samples\":%s}}%n",
+            escape(jar.toString()), escape(String.join(" ", jvmArgs)), runs,
+            medianMillis, millis[0], Arrays.toString(millis).replace(" ", ""),
+            medianRss, rss[0], Arrays.toString(rss).replace(" ", "")));
+        System.out.println("Wrote " + result);
+
+        boolean failed = false;
+        if (maxMillis > 0 && medianMillis > maxMillis) {
+            System.err.printf(Locale.ROOT, "Median time to first request %d ms exceeds startup.max-millis=%d%n",
+                              medianMillis, maxMillis);
+            failed = true;
+        }
+        if (maxRssMb > 0 && medianRss > maxRssMb) {
+            System.err.printf(Locale.ROOT, "Median RSS %.1f MB exceeds startup.max-rss-mb=%d%n", medianRss, maxRssMb);
+            failed = true;
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private static Run launch(HttpClient client, Path jar, List<String> jvmArgs) throws Exception {
+        Path dataDir = Files.createTempDirectory("co2-startup");
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.toString(),
+                               "--server.port=" + port,
+                               "--co2.persistence.dir=" + dataDir,
+                               "--co2.health.probe.enabled=false"));
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + PROBE_PATH))
+            .timeout(Duration.ofSeconds(5))
+            .build();
+
+        Run run;
+        long started = System.nanoTime();
+        // The jar's own directory, so relative paths in startup.jvm-args (e.g. the CDS archive) resolve.
+        Process process = new ProcessBuilder(command)
+            .directory(jar.getParent().toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(dataDir.resolve("app.log").toFile())
+            .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + process.exitValue()
+                                                    + ", see " + dataDir.resolve("app.log"));
+                }
+                if (System.nanoTime() - started > START_TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("Backend did not answer within " + START_TIMEOUT);
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet.
+                }
+                Thread.sleep(5);
+            }
+            run = new Run(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), rssKilobytes(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+        delete(dataDir);
+        return run;
+    }
+
+    /**
+     * VmRSS from {@code /proc/<pid>/status}, or -1 where that does not exist.
+     */
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Paths.get("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.substring("VmRSS:".length()).trim().split("\\s+")[0]);
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static List<String> split(String args) {
+        return args.isBlank() ? List.of() : List.of(args.trim().split("\\s+"));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private record Run(long millis, long rssKilobytes) {
+
+        double rssMb() {
+            return rssKilobytes / 1024.0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.octopus.backend.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Minimal stand-in for the Node CO2 microservice: answers every calculation with the same
+ * body after a fixed latency; bulk calls get that body once per count.
+ */
+final class StubCo2Microservice implements AutoCloseable {
+
+    private static final byte[] CALCULATION = ("{\"activity\":\"discord_message\",\"count\":1000,"
+        + "\"carbon\":{\"grams\":0.6793097011200001,\"kilograms\":6.793097011200001E-4},"
+        + "\"equivalents\":{\"carMiles\":0.0016982742528,\"treeDays\":0.0013586194022400002},"
+        + "\"calculationModel\":\"swd\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyNanos;
+
+    StubCo2Microservice(long latencyMillis) throws IOException {
+        this.latencyNanos = latencyMillis * 1_000_000;
+        // Without TCP_NODELAY the separate header and body writes hit delayed ACK (~40ms each).
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/api/v1/calculate/discord", this::calculate);
+        server.createContext("/api/v1/calculate/discord/bulk", this::calculateBulk);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1";
+    }
+
+    private void calculate(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        respond(exchange, CALCULATION);
+    }
+
+    private void calculateBulk(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int counts = body.chars().filter(c -> c == ',').map(c -> 1).sum() + 1;
+        ByteArrayOutputStream results = new ByteArrayOutputStream(counts * (CALCULATION.length + 1) + 16);
+        results.writeBytes("{\"results\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < counts; i++) {
+            if (i > 0) {
+                results.write(',');
+            }
+            results.writeBytes(CALCULATION);
+        }
+        results.writeBytes("]}".getBytes(StandardCharsets.UTF_8));
+        respond(exchange, results.toByteArray());
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
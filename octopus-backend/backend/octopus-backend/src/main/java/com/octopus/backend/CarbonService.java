@@ -1,139 +1,224 @@
 package com.octopus.backend;
 
+import com.octopus.backend.client.Co2MicroserviceClient;
+import com.octopus.backend.config.CacheConfig;
 import com.octopus.backend.dto.*;
+import com.octopus.backend.dto.CarbonCalculationResponse.CarbonMetrics;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+import com.octopus.backend.engine.CarbonEngine;
 import com.octopus.backend.exception.*;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.observability.TraceIds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.*;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import jakarta.annotation.PostConstruct;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class CarbonService {
     
     private static final Logger log = LoggerFactory.getLogger(CarbonService.class);
-    
-    @Value("${co2.microservice.url:http://localhost:3002/api/v1}")
-    private String co2ServiceUrl;
+    private static final int MAX_BACKGROUND_REFRESHES = 16;
     
     @Value("${co2.microservice.timeout.seconds:5}")
     private int timeoutSeconds;
     
-    private final RestTemplate restTemplate;
-    private HttpHeaders standardHeaders;
+    private final Co2MicroserviceClient co2Client;
+    private final CarbonEngine carbonEngine;
+    private final CacheManager cacheManager;
+    private final BackendMetrics metrics;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile CarbonCalculationResponse lastKnownGood;
     
-    public CarbonService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public CarbonService(Co2MicroserviceClient co2Client, CarbonEngine carbonEngine, CacheManager cacheManager,
+                         BackendMetrics metrics) {
+        this.co2Client = co2Client;
+        this.carbonEngine = carbonEngine;
+        this.cacheManager = cacheManager;
+        this.metrics = metrics;
     }
     
     @PostConstruct
     public void init() {
-        this.standardHeaders = createStandardHeaders();
-        log.info("CarbonService initialized. Microservice URL: {}, Timeout: {}s", 
-                 co2ServiceUrl, timeoutSeconds);
+        log.info("CarbonService initialized. Engine: {}, Microservice URL: {}, Timeout: {}s", 
+                 carbonEngine.name(), co2Client.baseUrl(), timeoutSeconds);
     }
     
     /**
-     * Calculates carbon impact for Discord messages with retry logic and caching.
-     * Demonstrates: Resilience, Caching, Validation, Clean Error Handling
+     * Calculates carbon impact for Discord messages with caching.
+     * Concurrent misses for the same count are collapsed into one calculation (sync = true).
+     * Retries and the circuit breaker live in {@link Co2MicroserviceClient}; when the
+     * microservice still cannot answer, the last known good result is served flagged
+     * {@code stale} (cached only for {@code co2.circuit.stale-ttl.seconds}) and refreshed
+     * in the background.
      */
-    @Cacheable(value = "carbonCalculations", key = "#messageCount", unless = "#result == null")
-    @Retryable(
-        retryFor = {ResourceAccessException.class, HttpClientErrorException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000, multiplier = 2.0)
-    )
+    @Cacheable(value = CacheConfig.CARBON_CALCULATIONS, key = "#messageCount", sync = true)
     public CarbonCalculationResponse calculateDiscordCarbon(long messageCount) {
         validateInput(messageCount);
         
         log.debug("Calculating carbon for {} Discord messages", messageCount);
-        Instant startTime = Instant.now();
+        long startTime = System.nanoTime();
+        String traceId = TraceIds.current();
         
         try {
-            DiscordCalculationRequest request = new DiscordCalculationRequest(messageCount);
-            ResponseEntity<CarbonCalculationResponse> response = callMicroservice(
-                "/calculate/discord", 
-                request, 
-                CarbonCalculationResponse.class
-            );
-            
-            Duration duration = Duration.between(startTime, Instant.now());
-            log.info("Carbon calculation completed in {}ms for {} messages", 
-                     duration.toMillis(), messageCount);
-            
-            return enrichResponse(response.getBody(), duration);
-            
-        } catch (HttpClientErrorException e) {
-            throw new ValidationException(
+            return fresh(carbonEngine.calculateDiscord(messageCount), messageCount, startTime, traceId);
+        } catch (RestClientException e) {
+            return staleOrThrow(messageCount, translateFailure(e, messageCount), traceId);
+        }
+    }
+    
+    /**
+     * Non-blocking variant for callers that must not hold a request thread while the
+     * microservice answers. Shares the {@code carbonCalculations} cache with the sync path.
+     */
+    public CompletableFuture<CarbonCalculationResponse> calculateDiscordCarbonAsync(long messageCount) {
+        validateInput(messageCount);
+        
+        Cache cache = cacheManager.getCache(CacheConfig.CARBON_CALCULATIONS);
+        CarbonCalculationResponse cached = cache != null
+            ? cache.get(messageCount, CarbonCalculationResponse.class)
+            : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        long startTime = System.nanoTime();
+        // Completion runs on a client thread, outside the request's logging context.
+        String traceId = TraceIds.current();
+        return carbonEngine.calculateDiscordAsync(messageCount).handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                if (cause instanceof RestClientException restError) {
+                    // Stale answers are not cached here; the background refresh fills the cache.
+                    return staleOrThrow(messageCount, translateFailure(restError, messageCount), traceId);
+                }
+                throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+            }
+            CarbonCalculationResponse enriched = fresh(response, messageCount, startTime, traceId);
+            if (cache != null) {
+                cache.put(messageCount, enriched);
+            }
+            return enriched;
+        });
+    }
+  
+    /**
+     * The CO2 microservice's health as last probed in the background by
+     * {@code HealthProber}; never a request of its own.
+     */
+    public ServiceHealthResponse checkHealth() {
+        return co2Client.lastHealth();
+    }
+    
+    // ==================== PRIVATE HELPER METHODS ====================
+    
+    private ServiceException translateFailure(RestClientException e, long messageCount) {
+        if (e instanceof HttpClientErrorException) {
+            return new ValidationException(
                 String.format("Invalid request for %d messages: %s", messageCount, e.getMessage()), 
                 e
             );
-        } catch (ResourceAccessException e) {
-            throw new ServiceUnavailableException(
+        }
+        if (e instanceof ResourceAccessException) {
+            return new ServiceUnavailableException(
                 "CO2 microservice unavailable. Please try again later.", 
                 e
             );
-        } catch (RestClientException e) {
-            log.error("Unexpected error calculating carbon", e);
-            throw new ServiceException(
-                "Failed to calculate carbon impact. Please contact support.", 
-                e
-            );
         }
+        log.error("Unexpected error calculating carbon", e);
+        return new ServiceException(
+            "Failed to calculate carbon impact. Please contact support.", 
+            e
+        );
     }
-  
-    public ServiceHealthResponse checkHealth() {
-        try {
-            ResponseEntity<?> response = restTemplate.getForEntity(
-                co2ServiceUrl + "/health", 
-                Map.class
-            );
-            
-            boolean isHealthy = response.getStatusCode().is2xxSuccessful() &&
-                               "operational".equals(((Map<?, ?>)response.getBody()).get("status"));
-            
-            return new ServiceHealthResponse(
-                isHealthy ? HealthStatus.OPERATIONAL : HealthStatus.DEGRADED,
-                Instant.now(),
-                "co2-microservice"
-            );
-            
-        } catch (RestClientException e) {
-            log.warn("Health check failed for CO2 microservice: {}", e.getMessage());
-            return new ServiceHealthResponse(
-                HealthStatus.DOWN,
-                Instant.now(),
-                "co2-microservice"
-            );
+    
+    private CarbonCalculationResponse fresh(CarbonCalculationResponse response, long messageCount,
+                                            long startTime, String traceId) {
+        if (response == null) {
+            throw new ServiceException("CO2 microservice returned an empty response");
         }
+        long elapsed = System.nanoTime() - startTime;
+        metrics.recordCalculation(carbonEngine.name(), elapsed);
+        log.debug("Carbon calculation completed in {}ms for {} messages", 
+                  TimeUnit.NANOSECONDS.toMillis(elapsed), messageCount);
+        CarbonCalculationResponse enriched = enrichResponse(response, elapsed, traceId);
+        if (enriched.count() != null && enriched.count() > 0 && enriched.carbon() != null) {
+            lastKnownGood = enriched;
+        }
+        return enriched;
     }
     
-    // ==================== PRIVATE HELPER METHODS ====================
+    /**
+     * Falls back to the last known good result when the microservice is unavailable
+     * (circuit open, unreachable, or failing), scaled to {@code messageCount}: the SWD
+     * model is linear in message count. Invalid requests and a cold start still fail.
+     */
+    private CarbonCalculationResponse staleOrThrow(long messageCount, ServiceException failure, String traceId) {
+        CarbonCalculationResponse lastGood = lastKnownGood;
+        if (failure instanceof ValidationException || lastGood == null) {
+            throw failure;
+        }
+        metrics.recordStaleResponse();
+        log.debug("Serving stale carbon for {} messages: {}", messageCount, failure.getMessage());
+        refreshInBackground(messageCount);
+        
+        double factor = messageCount / (double) lastGood.count();
+        CarbonMetrics carbon = lastGood.carbon();
+        PhysicalEquivalents equivalents = lastGood.equivalents();
+        return new CarbonCalculationResponse(
+            lastGood.activity(),
+            messageCount,
+            new CarbonMetrics(scale(carbon.grams(), factor), scale(carbon.kilograms(), factor)),
+            equivalents == null ? null : new PhysicalEquivalents(scale(equivalents.carMiles(), factor),
+                                                                 scale(equivalents.treeDays(), factor)),
+            lastGood.timestamp(),
+            lastGood.calculationModel(),
+            "CO2 microservice unavailable; scaled from the last known good result for "
+                + lastGood.count() + " messages",
+            null,
+            traceId,
+            true
+        );
+    }
     
-    private HttpHeaders createStandardHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(java.util.List.of(MediaType.APPLICATION_JSON));
-        headers.set("X-Request-Source", "octopus-hackathon-backend");
-        headers.set("X-Request-ID", java.util.UUID.randomUUID().toString());
-        return HttpHeaders.readOnlyHttpHeaders(headers);
+    /**
+     * Recalculates {@code messageCount} off the request path and replaces the cached stale
+     * entry on success. While the circuit is open the attempt is rejected without I/O;
+     * when it is half-open these refreshes are the trial calls.
+     */
+    private void refreshInBackground(long messageCount) {
+        if (refreshing.size() >= MAX_BACKGROUND_REFRESHES || !refreshing.add(messageCount)) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        String traceId = TraceIds.current();
+        carbonEngine.calculateDiscordAsync(messageCount).whenComplete((response, error) -> {
+            refreshing.remove(messageCount);
+            if (error != null || response == null) {
+                return;
+            }
+            CarbonCalculationResponse enriched = fresh(response, messageCount, startTime, traceId);
+            Cache cache = cacheManager.getCache(CacheConfig.CARBON_CALCULATIONS);
+            if (cache != null) {
+                cache.put(messageCount, enriched);
+            }
+        });
     }
     
-    private <T, R> ResponseEntity<R> callMicroservice(String endpoint, T request, Class<R> responseType) {
-        String url = co2ServiceUrl + endpoint;
-        HttpEntity<T> entity = new HttpEntity<>(request, standardHeaders);
-        
-        log.debug("Calling CO2 microservice: {}", url);
-        return restTemplate.exchange(url, HttpMethod.POST, entity, responseType);
+    private static Double scale(Double value, double factor) {
+        return value == null ? null : value * factor;
     }
     
     private void validateInput(long messageCount) {
@@ -147,9 +232,8 @@ public class CarbonService {
         }
     }
     
-    private CarbonCalculationResponse enrichResponse(CarbonCalculationResponse response, Duration processingTime) {
-        if (response == null) return null;
-        
+    private CarbonCalculationResponse enrichResponse(CarbonCalculationResponse response, long processingNanos,
+                                                     String traceId) {
         // Add metadata for observability
         return new CarbonCalculationResponse(
             response.activity(),
@@ -159,18 +243,9 @@ public class CarbonService {
             response.timestamp(),
             response.calculationModel(),
             response.note(),
-            processingTime.toMillis(), // Additional metadata
-            java.util.UUID.randomUUID().toString() // Trace ID
+            TimeUnit.NANOSECONDS.toMillis(processingNanos), // Additional metadata
+            traceId,
+            false
         );
     }
-    
-    // ==================== SUPPORTING CLASSES ====================
-    
-    public record DiscordCalculationRequest(Long count) {
-        public DiscordCalculationRequest {
-            if (count == null || count < 0) {
-                throw new IllegalArgumentException("Count must be non-negative");
-            }
-        }
-    }
 }
\ No newline at end of file
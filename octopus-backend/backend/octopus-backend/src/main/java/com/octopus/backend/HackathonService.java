@@ -0,0 +1,178 @@
+package com.octopus.backend;
+
+import com.octopus.backend.counters.CounterRegistry;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.replication.ReplicatedCounters;
+import com.octopus.backend.timeseries.MessageTimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Owns the hackathon message counters: real bot messages (persisted) and simulation
+ * messages (in memory only), as {@link ReplicatedCounters} totals plus the per-guild/channel/source
+ * breakdown in {@link CounterRegistry} and the rate history in {@link MessageTimeSeries}. Every change bumps {@link #version()} and
+ * notifies the registered change listeners, which is how the live stream learns it has
+ * work to do; the read endpoints compare versions to reuse their snapshots.
+ *
+ * <p>The persisted real total is added when {@link PersistenceService#recover()} completes,
+ * possibly after construction; {@link com.octopus.backend.persistence.RecoveryGate} keeps
+ * the web server closed until then.
+ *
+ * <p>With replication peers configured, the totals include what other instances counted;
+ * the breakdown and rate history stay per instance.
+ */
+@Service
+public class HackathonService {
+
+    private static final Logger log = LoggerFactory.getLogger(HackathonService.class);
+
+    private final PersistenceService persistenceService;
+    private final CounterRegistry counters;
+    private final MessageTimeSeries timeSeries;
+    private final BackendMetrics metrics;
+    private final ReplicatedCounters totals;
+    private final LongAdder version = new LongAdder();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private final CompletableFuture<Void> recovered;
+
+    public HackathonService(PersistenceService persistenceService, CounterRegistry counters,
+                            MessageTimeSeries timeSeries, BackendMetrics metrics, ReplicatedCounters totals) {
+        this.persistenceService = persistenceService;
+        this.counters = counters;
+        this.timeSeries = timeSeries;
+        this.metrics = metrics;
+        this.totals = totals;
+
+        totals.onRealRestored(persistenceService::recordBatch);
+        totals.onRemoteChange(this::changed);
+        // Counts are additive, so the saved total can land after batches that arrive meanwhile.
+        this.recovered = persistenceService.recover().thenAccept(this::restore);
+    }
+
+    /**
+     * Completes once the persisted total has been added to the counters.
+     */
+    public CompletableFuture<Void> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Adds one batch; real batches are persisted first, so a batch that could not be
+     * persisted is not counted either. Returns the new real or simulation total.
+     */
+    public long recordBatch(BatchRecord batch) {
+        long count = batch.count();
+        if (!batch.isSimulation()) {
+            persistenceService.recordBatch(count);
+        }
+        count(batch);
+        if (batch.isSimulation()) {
+            totals.addSimulation(count);
+            timeSeries.record(0, count, 1);
+            metrics.recordIngest(0, count, 1);
+        } else {
+            totals.addReal(count);
+            timeSeries.record(count, 0, 1);
+            metrics.recordIngest(count, 0, 1);
+        }
+        changed();
+        return batch.isSimulation() ? totals.simulation() : totals.real();
+    }
+
+    /**
+     * Applies the batches of a whole bulk request as one update: a single persistence
+     * write, made before anything is counted, and a single change notification.
+     */
+    public void recordBulk(List<BatchRecord> batches) {
+        long realDelta = 0;
+        long simulationDelta = 0;
+        for (BatchRecord batch : batches) {
+            if (batch.isSimulation()) {
+                simulationDelta += batch.count();
+            } else {
+                realDelta += batch.count();
+            }
+        }
+        if (realDelta > 0) {
+            persistenceService.recordBatch(realDelta);
+        }
+        batches.forEach(this::count);
+        if (realDelta > 0) {
+            totals.addReal(realDelta);
+        }
+        if (simulationDelta > 0) {
+            totals.addSimulation(simulationDelta);
+        }
+        if (realDelta > 0 || simulationDelta > 0) {
+            timeSeries.record(realDelta, simulationDelta, batches.size());
+            metrics.recordIngest(realDelta, simulationDelta, batches.size());
+            changed();
+        }
+    }
+
+    /**
+     * Drops all simulation messages, including those counted by other instances so far.
+     * Returns how many were removed; batches recorded concurrently are kept.
+     */
+    public long resetSimulations() {
+        long previous = totals.resetSimulation();
+        counters.resetSimulation();
+        changed();
+        return previous;
+    }
+
+    public long realMessages() {
+        return totals.real();
+    }
+
+    public long simulationMessages() {
+        return totals.simulation();
+    }
+
+    public long totalMessages() {
+        return totals.real() + totals.simulation();
+    }
+
+    /**
+     * Monotonic change counter; equal versions mean equal counters.
+     */
+    public long version() {
+        return version.sum();
+    }
+
+    public void onChange(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    private void restore(long savedCount) {
+        if (savedCount < 0) {
+            log.warn("Ignoring negative persisted total {}", savedCount);
+            savedCount = 0;
+        }
+        totals.addReal(savedCount);
+        // Only the total is persisted; restored messages show up as unknown/unknown/unknown.
+        counters.add(null, null, null, false, savedCount);
+        if (savedCount > 0) {
+            changed();
+        }
+        log.info("Hackathon counters initialized with {} REAL bot messages from previous session", savedCount);
+    }
+
+    private void count(BatchRecord batch) {
+        counters.add(batch.guild(), batch.channel(), batch.source(), batch.isSimulation(), batch.count());
+    }
+
+    private void changed() {
+        version.increment();
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+}
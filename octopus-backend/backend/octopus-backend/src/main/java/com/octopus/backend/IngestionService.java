@@ -0,0 +1,334 @@
+package com.octopus.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.octopus.backend.admission.IngestAdmission;
+import com.octopus.backend.admission.IngestAdmission.Decision;
+import com.octopus.backend.admission.IngestAdmission.Permit;
+import com.octopus.backend.admission.IngestAdmission.Ticket;
+import com.octopus.backend.dedup.BatchIdWindow;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.dto.BulkIngestResponse;
+import com.octopus.backend.dto.BulkIngestResponse.BatchAck;
+import com.octopus.backend.dto.BulkIngestResponse.HackathonTotals;
+import com.octopus.backend.exception.TooManyRequestsException;
+import com.octopus.backend.exception.ValidationException;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.totals.CarbonTotals;
+import com.octopus.backend.totals.CarbonTotals.Totals;
+import com.octopus.backend.wire.BatchFrameReader;
+import com.octopus.backend.wire.BatchFrameReader.MalformedFrameException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk batch ingestion. The request body is a JSON array of {@link BatchRecord}s, NDJSON
+ * (one record per line) or {@link BatchFrameReader binary frames}; all are parsed
+ * incrementally off the request stream.
+ *
+ * <p>Invalid records are rejected individually. Valid ones are summed and applied as a
+ * single aggregate update, answered with the running totals from {@link CarbonTotals}. A malformed
+ * body is rejected as a whole before anything is applied.
+ *
+ * <p>Records may carry a {@code batchId}; one that was already applied within the
+ * {@link BatchIdWindow} is acknowledged as a duplicate and not applied again, so bots can
+ * retry a send whose response they never saw.
+ *
+ * <p>Both endpoints go through {@link IngestAdmission}: a source over its rate has its
+ * batches throttled or deferred, and counts deferred earlier are applied with the
+ * source's next admitted batch.
+ */
+@Service
+public class IngestionService {
+
+    public enum Delivery { APPLIED, DUPLICATE, DEFERRED }
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionService.class);
+    public static final long MAX_BATCH_COUNT = 10_000_000L;
+    private static final int MAX_BATCH_ID_LENGTH = 128;
+
+    private final HackathonService hackathonService;
+    private final CarbonTotals carbonTotals;
+    private final BatchIdWindow batchIds;
+    private final IngestAdmission admission;
+    private final BackendMetrics metrics;
+    private final ObjectReader recordReader;
+    private final int maxRecords;
+
+    public IngestionService(HackathonService hackathonService, CarbonTotals carbonTotals,
+                            BatchIdWindow batchIds, IngestAdmission admission, BackendMetrics metrics,
+                            ObjectMapper objectMapper, @Value("${co2.ingest.max-records:10000}") int maxRecords) {
+        this.hackathonService = hackathonService;
+        this.carbonTotals = carbonTotals;
+        this.batchIds = batchIds;
+        this.admission = admission;
+        this.metrics = metrics;
+        this.recordReader = objectMapper.readerFor(BatchRecord.class);
+        this.maxRecords = maxRecords;
+        admission.onDeferredDue(hackathonService::recordBatch);
+    }
+
+    /**
+     * Applies what is still deferred while the counters and the journal are still open.
+     */
+    @PreDestroy
+    public void close() {
+        admission.close();
+    }
+
+    public BulkIngestResponse ingest(InputStream body) {
+        Parsed parsed = new Parsed();
+        try (MappingIterator<BatchRecord> values = recordReader.readValues(body)) {
+            while (values.hasNextValue()) {
+                parsed.add(values.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed batch record at index " + parsed.records.size() + ": "
+                                          + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new ValidationException("Could not read batch records: " + e.getMessage(), e);
+        }
+        return admitAndApply(parsed);
+    }
+
+    /**
+     * {@link #ingest} for a body of {@link BatchFrameReader binary frames}: the same
+     * validation, admission and acknowledgements, without JSON parsing.
+     */
+    public BulkIngestResponse ingestFrames(InputStream body) {
+        Parsed parsed = new Parsed();
+        BatchFrameReader frames = new BatchFrameReader(body);
+        try {
+            for (BatchRecord record = frames.next(); record != null; record = frames.next()) {
+                parsed.add(record);
+            }
+        } catch (MalformedFrameException e) {
+            throw new ValidationException("Malformed batch frame at index " + parsed.records.size() + ": "
+                                          + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new ValidationException("Could not read batch records: " + e.getMessage(), e);
+        }
+        return admitAndApply(parsed);
+    }
+
+    /**
+     * Admits and applies one batch of the single-batch endpoint, together with whatever
+     * its source had deferred. The batch is validated like a bulk record first, so a
+     * rejected one changes nothing.
+     *
+     * @throws ValidationException      if the batch is invalid
+     * @throws TooManyRequestsException if the source is over its rate and over-limit
+     *                                  batches are rejected
+     */
+    public Delivery deliver(BatchRecord record) {
+        String error = validate(record);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+        Ticket ticket = admission.admit(record.source(), record.isSimulation());
+        if (ticket.decision() == Decision.THROTTLED) {
+            throw new TooManyRequestsException("Batch rate exceeded for source "
+                                               + (record.source() == null ? "unknown" : record.source()),
+                                               ticket.retryAfterSeconds());
+        }
+        // A retried batch is answered like the original, minus applying it again.
+        boolean duplicate = !firstDelivery(record);
+        if (!duplicate && ticket.decision() == Decision.DEFERRED) {
+            admission.defer(record.source(), record.isSimulation(), record.count());
+            return Delivery.DEFERRED;
+        }
+        List<BatchRecord> applied = duplicate ? List.of() : List.of(record);
+        List<BatchRecord> deferredDue = ticket.deferred() > 0
+            ? List.of(deferredBatch(record, ticket.deferred())) : List.of();
+        List<BatchRecord> batches = new ArrayList<>(2);
+        batches.addAll(applied);
+        batches.addAll(deferredDue);
+        try {
+            if (batches.size() == 1) {
+                hackathonService.recordBatch(batches.get(0));
+            } else if (batches.size() > 1) {
+                hackathonService.recordBulk(batches);
+            }
+        } catch (RuntimeException e) {
+            unwind(applied, deferredDue);
+            throw e;
+        }
+        return duplicate ? Delivery.DUPLICATE : Delivery.APPLIED;
+    }
+
+    /**
+     * Whether {@code record} should be applied: it has no batch id, or its id has not been
+     * seen within the dedup window. A {@code true} answer claims the id, so it must be
+     * followed by applying the record, or by releasing the claim if that fails.
+     */
+    public boolean firstDelivery(BatchRecord record) {
+        String batchId = record.batchId();
+        if (batchId == null) {
+            return true;
+        }
+        if (batchId.length() > MAX_BATCH_ID_LENGTH) {
+            throw new ValidationException("batchId exceeds " + MAX_BATCH_ID_LENGTH + " characters");
+        }
+        if (batchIds.firstSeen(batchId)) {
+            return true;
+        }
+        metrics.recordDuplicateBatch();
+        log.debug("Duplicate batch {} ignored", batchId);
+        return false;
+    }
+
+    private BulkIngestResponse apply(List<BatchRecord> records, List<String> errors) {
+        List<BatchAck> acks = new ArrayList<>(records.size());
+        List<BatchRecord> applied = new ArrayList<>();
+        List<BatchRecord> deferredDue = new ArrayList<>();
+        Map<SourceClass, Ticket> tickets = new HashMap<>();
+        int accepted = 0;
+        int duplicates = 0;
+        int throttled = 0;
+        int deferred = 0;
+        long retryAfterSeconds = 0;
+
+        for (int index = 0; index < records.size(); index++) {
+            BatchRecord record = records.get(index);
+            if (errors.get(index) != null) {
+                acks.add(BatchAck.rejected(index, record, errors.get(index)));
+                continue;
+            }
+            // One token per source and class per request, however many batches it carries.
+            Ticket ticket = tickets.computeIfAbsent(new SourceClass(record.source(), record.isSimulation()), key -> {
+                Ticket admitted = admission.admit(key.source(), key.simulation());
+                if (admitted.deferred() > 0) {
+                    deferredDue.add(deferredBatch(record, admitted.deferred()));
+                }
+                return admitted;
+            });
+            if (ticket.decision() == Decision.THROTTLED) {
+                acks.add(BatchAck.throttled(index, record));
+                throttled++;
+                retryAfterSeconds = Math.max(retryAfterSeconds, ticket.retryAfterSeconds());
+                continue;
+            }
+            if (!firstDelivery(record)) {
+                acks.add(BatchAck.duplicate(index, record));
+                duplicates++;
+                continue;
+            }
+            if (ticket.decision() == Decision.DEFERRED) {
+                admission.defer(record.source(), record.isSimulation(), record.count());
+                acks.add(BatchAck.deferred(index, record));
+                deferred++;
+                continue;
+            }
+            applied.add(record);
+            acks.add(BatchAck.accepted(index, record));
+            accepted++;
+        }
+
+        List<BatchRecord> recorded = new ArrayList<>(deferredDue.size() + applied.size());
+        recorded.addAll(deferredDue);
+        recorded.addAll(applied);
+        try {
+            hackathonService.recordBulk(recorded);
+        } catch (RuntimeException e) {
+            unwind(applied, deferredDue);
+            throw e;
+        }
+
+        int rejected = acks.size() - accepted - duplicates - throttled - deferred;
+        long realDelta = recorded.stream().filter(batch -> !batch.isSimulation()).mapToLong(BatchRecord::count).sum();
+        long simulationDelta = recorded.stream().filter(BatchRecord::isSimulation).mapToLong(BatchRecord::count).sum();
+        log.info("Bulk ingest: {} batches accepted, {} rejected, {} duplicate, {} throttled, {} deferred "
+                 + "(+{} real, +{} simulation messages)",
+                 accepted, rejected, duplicates, throttled, deferred, realDelta, simulationDelta);
+
+        return new BulkIngestResponse(accepted, rejected, duplicates, throttled, deferred,
+                                      throttled > 0 ? retryAfterSeconds : null, acks, totals());
+    }
+
+    private BulkIngestResponse admitAndApply(Parsed parsed) {
+        // A request with any real batch competes as real traffic.
+        try (Permit permit = admission.enter(!parsed.anyReal)) {
+            return apply(parsed.records, parsed.errors);
+        }
+    }
+
+    /**
+     * Undoes the bookkeeping of batches that failed to apply: their ids are released so a
+     * retry is applied, and deferred counts go back to their sources.
+     */
+    private void unwind(List<BatchRecord> applied, List<BatchRecord> deferredDue) {
+        for (BatchRecord batch : applied) {
+            if (batch.batchId() != null) {
+                batchIds.forget(batch.batchId());
+            }
+        }
+        for (BatchRecord batch : deferredDue) {
+            admission.defer(batch.source(), batch.isSimulation(), batch.count());
+        }
+    }
+
+    /**
+     * Counts deferred for {@code record}'s source, applied as a batch of their own so
+     * that they do not inflate the record's guild and channel.
+     */
+    private static BatchRecord deferredBatch(BatchRecord record, long count) {
+        return new BatchRecord(record.source(), null, null, count, record.isSimulation(), null);
+    }
+
+    private HackathonTotals totals() {
+        Totals totals = carbonTotals.current();
+        return new HackathonTotals(totals.totalMessages(), totals.real().messages(), totals.simulation().messages(),
+                                   totals.combined().carbon(), totals.combined().equivalents(), Instant.now());
+    }
+
+    private static String validate(BatchRecord record) {
+        if (record == null || record.count() == null) {
+            return "Missing required field: count";
+        }
+        if (record.count() < 0) {
+            return "Message count cannot be negative: " + record.count();
+        }
+        if (record.count() > MAX_BATCH_COUNT) {
+            return String.format("Message count %d exceeds reasonable limit", record.count());
+        }
+        if (record.batchId() != null && record.batchId().length() > MAX_BATCH_ID_LENGTH) {
+            return "batchId exceeds " + MAX_BATCH_ID_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private record SourceClass(String source, boolean simulation) {
+    }
+
+    /**
+     * Records of one request in order, each with its validation error or {@code null}.
+     */
+    private final class Parsed {
+        final List<BatchRecord> records = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        boolean anyReal;
+
+        void add(BatchRecord record) {
+            if (records.size() >= maxRecords) {
+                throw new ValidationException("Bulk request exceeds " + maxRecords + " batch records");
+            }
+            String error = validate(record);
+            records.add(record);
+            errors.add(error);
+            anyReal |= error == null && !record.isSimulation();
+        }
+    }
+}
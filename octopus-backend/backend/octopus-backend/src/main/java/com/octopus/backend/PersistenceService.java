@@ -1,37 +1,143 @@
 package com.octopus.backend;
 
+import com.octopus.backend.exception.ServiceUnavailableException;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.persistence.BatchJournal;
+import com.octopus.backend.persistence.DurabilityMode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Persists the real-bot message total as an append-only journal of batch deltas on top of
+ * a compacted snapshot ({@code carbon-data.txt}). Writes happen on a background
+ * group-commit writer; see {@link BatchJournal}.
+ *
+ * <p>Recovery (loading the snapshot and replaying the journal) starts on first
+ * {@link #recover()}; with {@code co2.persistence.async-recovery} it runs on a background
+ * thread so that it overlaps the rest of startup. Writes wait for it to finish.
+ */
 @Service
 public class PersistenceService {
     private static final Logger log = LoggerFactory.getLogger(PersistenceService.class);
     private static final String DATA_FILE = "carbon-data.txt";
+    private static final String JOURNAL_FILE = "carbon-data.journal";
+
+    private final BatchJournal journal;
+    private final BackendMetrics metrics;
+    private final boolean asyncRecovery;
+    private volatile CompletableFuture<Long> recovery;
+
+    /**
+     * Recovers synchronously, on the thread calling {@link #recover()}.
+     */
+    public PersistenceService(String dataDir, String durability, long fsyncIntervalMs, long snapshotEvery,
+                              BackendMetrics metrics) {
+        this(dataDir, durability, fsyncIntervalMs, snapshotEvery, false, metrics);
+    }
+
+    @Autowired
+    public PersistenceService(
+            @Value("${co2.persistence.dir:.}") String dataDir,
+            @Value("${co2.persistence.durability:interval}") String durability,
+            @Value("${co2.persistence.fsync-interval.ms:50}") long fsyncIntervalMs,
+            @Value("${co2.persistence.snapshot-every:10000}") long snapshotEvery,
+            @Value("${co2.persistence.async-recovery:true}") boolean asyncRecovery,
+            BackendMetrics metrics) {
+        Path dir = Paths.get(dataDir);
+        this.journal = new BatchJournal(
+            dir.resolve(DATA_FILE),
+            dir.resolve(JOURNAL_FILE),
+            DurabilityMode.fromProperty(durability),
+            fsyncIntervalMs,
+            snapshotEvery
+        );
+        this.metrics = metrics;
+        this.asyncRecovery = asyncRecovery;
+    }
+
+    /**
+     * The recovered real message total; recovery starts on the first call. A journal that
+     * cannot be opened is logged and recovered as 0; an unreadable snapshot fails the
+     * future, and with it startup, rather than lose the history it holds.
+     */
+    public synchronized CompletableFuture<Long> recover() {
+        if (recovery == null) {
+            recovery = asyncRecovery
+                ? CompletableFuture.supplyAsync(this::open, runnable -> {
+                    Thread thread = new Thread(runnable, "co2-recovery");
+                    thread.setDaemon(true);
+                    thread.start();
+                })
+                : CompletableFuture.completedFuture(open());
+        }
+        return recovery;
+    }
 
     public long loadMessageCount() {
-        try {
-            if (Files.exists(Paths.get(DATA_FILE))) {
-                String content = Files.readString(Paths.get(DATA_FILE)).trim();
-                long count = Long.parseLong(content);
-                log.info("Loaded previous message count: {}", count);
-                return count;
+        return recover().join();
+    }
+
+    /**
+     * Records a batch of real messages. Returns once the delta is as durable as
+     * {@code co2.persistence.durability} requires; with {@code batch} that means fsynced.
+     * The time until the journal reaches that point is recorded as the write latency.
+     *
+     * @throws ServiceUnavailableException with {@code batch} durability, if the write
+     *                                     failed; the batch must not be acknowledged
+     */
+    public void recordBatch(long messageCount) {
+        CompletableFuture<Long> recovered = recovery;
+        if (recovered == null || !recovered.isDone()) {
+            recover().join();
+        }
+        long started = System.nanoTime();
+        CompletableFuture<Void> written = journal.append(messageCount).whenComplete((ignored, error) -> {
+            metrics.recordPersistenceWrite(System.nanoTime() - started, error == null);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                log.error("Failed to persist batch of {} messages: {}", messageCount, cause.getMessage());
+            }
+        });
+        if (journal.durability() == DurabilityMode.BATCH) {
+            try {
+                written.join();
+            } catch (CompletionException e) {
+                throw new ServiceUnavailableException("Could not persist the batch, retry later", e.getCause());
             }
-        } catch (Exception e) {
-            log.warn("Could not load previous data: {}", e.getMessage());
         }
-        log.info("Starting with fresh message count");
-        return 0;
     }
 
-    public void saveMessageCount(long count) {
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private long open() {
+        long started = System.nanoTime();
         try {
-            Files.writeString(Paths.get(DATA_FILE), String.valueOf(count));
-            log.debug("Saved message count: {}", count);
+            long count = journal.open();
+            log.info("Loaded previous message count: {} in {}ms (durability: {})", count,
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), journal.durability());
+            return count;
+        } catch (IllegalStateException e) {
+            log.error("Refusing to start: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            log.error("Failed to save message count: {}", e.getMessage());
+            log.error("Could not open the journal, messages will NOT be persisted: {}", e.getMessage());
         }
+        log.info("Starting with fresh message count");
+        return 0;
     }
 }
@@ -0,0 +1,84 @@
+package com.octopus.backend.admission;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows latency, additive-increase/multiplicative-decrease: each
+ * request finishing under {@code targetNanos} raises the limit by {@code 1 / limit} (about
+ * one per limit's worth of requests), one finishing over it cuts the limit by
+ * {@code backoff}. Requests already in flight when the limit was cut do not cut it again,
+ * so one slowdown costs one cut rather than one per request. The limit starts at
+ * {@code max} and never goes below 1.
+ *
+ * <p>Every successful {@link #tryAcquire} must be followed by exactly one {@link #release}.
+ */
+public class AdaptiveLimit {
+
+    private final int max;
+    private final long targetNanos;
+    private final double backoff;
+    private final LongSupplier clock;
+
+    // Guarded by this.
+    private double limit;
+    private int inFlight;
+    // Releases still due from requests that were in flight at the last cut.
+    private int inFlightAtCut;
+    private long overTargetAt;
+    private boolean everOverTarget;
+
+    /**
+     * @param clock nanosecond time source, {@code System::nanoTime} outside tests
+     */
+    public AdaptiveLimit(int max, long targetNanos, double backoff, LongSupplier clock) {
+        if (max < 1 || backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Need max >= 1 and 0 < backoff < 1");
+        }
+        this.max = max;
+        this.targetNanos = targetNanos;
+        this.backoff = backoff;
+        this.clock = clock;
+        this.limit = max;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        inFlight--;
+        boolean startedAfterCut = inFlightAtCut == 0;
+        if (!startedAfterCut) {
+            inFlightAtCut--;
+        }
+        if (latencyNanos > targetNanos) {
+            overTargetAt = clock.getAsLong();
+            everOverTarget = true;
+            if (startedAfterCut) {
+                limit = Math.max(1, limit * backoff);
+                inFlightAtCut = inFlight;
+            }
+        } else {
+            limit = Math.min(max, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Whether a request finished over target within the last {@code nanos}.
+     */
+    public synchronized boolean overTargetWithin(long nanos) {
+        return everOverTarget && clock.getAsLong() - overTargetAt < nanos;
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
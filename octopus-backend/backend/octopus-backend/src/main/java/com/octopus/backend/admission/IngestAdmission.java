@@ -0,0 +1,237 @@
+package com.octopus.backend.admission;
+
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.exception.TooManyRequestsException;
+import com.octopus.backend.observability.BackendMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of ingestion, so that one misbehaving sender cannot starve
+ * the others and simulation traffic cannot slow real traffic down.
+ *
+ * <p>Rate: every source has a {@link TokenBucket} per traffic class (real, simulation),
+ * and a request takes one token for each source it carries batches of. Over the rate, a
+ * source's batches are handled as {@link OverLimit} says: rejected, or deferred, i.e.
+ * acknowledged at once and their counts added to the source's next admitted batch (or
+ * applied in the background once the source has a token again, if it sends nothing more).
+ * Deferred counts are held in memory until then. Sources beyond {@code maxSources} share
+ * one bucket per class.
+ *
+ * <p>Concurrency: in-flight ingestion requests are capped per class by an
+ * {@link AdaptiveLimit} following their latency. Simulation requests are also shed while
+ * real requests are finishing over the latency target, so simulation load backs off
+ * before real senders feel it.
+ */
+public class IngestAdmission implements AutoCloseable {
+
+    public enum Decision { ADMITTED, DEFERRED, THROTTLED, SHED }
+
+    public record Rate(double perSecond, int burst) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IngestAdmission.class);
+    // How long after a slow real request simulation requests are still shed.
+    private static final long REAL_CONGESTION_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final String UNKNOWN = "unknown";
+    private static final String OVERFLOW = "other";
+
+    private final boolean enabled;
+    private final OverLimit overLimit;
+    private final Rate realRate;
+    private final Rate simulationRate;
+    private final int maxSources;
+    private final AdaptiveLimit realLimit;
+    private final AdaptiveLimit simulationLimit;
+    private final LongSupplier clock;
+    private final BackendMetrics metrics;
+    private final Map<Key, Source> sources = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "co2-admission");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Consumer<BatchRecord> deferredSink;
+
+    /**
+     * @param enabled when false, everything is admitted and nothing is measured
+     * @param clock   nanosecond time source, {@code System::nanoTime} outside tests
+     */
+    public IngestAdmission(boolean enabled, OverLimit overLimit, Rate realRate, Rate simulationRate,
+                           int maxSources, AdaptiveLimit realLimit, AdaptiveLimit simulationLimit,
+                           LongSupplier clock, BackendMetrics metrics) {
+        this.enabled = enabled;
+        this.overLimit = overLimit;
+        this.realRate = realRate;
+        this.simulationRate = simulationRate;
+        this.maxSources = maxSources;
+        this.realLimit = realLimit;
+        this.simulationLimit = simulationLimit;
+        this.clock = clock;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Takes a concurrency slot for one ingestion request, to be closed when the request is
+     * done; its duration is what adapts the limit.
+     *
+     * @throws TooManyRequestsException if the request is shed
+     */
+    public Permit enter(boolean simulation) {
+        if (!enabled) {
+            return new Permit(null, 0);
+        }
+        AdaptiveLimit limit = simulation ? simulationLimit : realLimit;
+        if ((simulation && realLimit.overTargetWithin(REAL_CONGESTION_NANOS)) || !limit.tryAcquire()) {
+            metrics.recordAdmission(simulation, Decision.SHED);
+            throw new TooManyRequestsException(
+                "Too many " + (simulation ? "simulation" : "real") + " ingestion requests in progress", 1);
+        }
+        return new Permit(limit, clock.getAsLong());
+    }
+
+    /**
+     * Takes a token for {@code source}. An admitted ticket hands over the count deferred
+     * for the source so far, which the caller must apply along with the request.
+     */
+    public Ticket admit(String source, boolean simulation) {
+        if (!enabled) {
+            return new Ticket(Decision.ADMITTED, 0, 0);
+        }
+        Source entry = source(source, simulation);
+        long wait = entry.bucket.tryTake();
+        Decision decision = wait == 0 ? Decision.ADMITTED
+            : overLimit == OverLimit.COALESCE ? Decision.DEFERRED : Decision.THROTTLED;
+        metrics.recordAdmission(simulation, decision);
+        return new Ticket(decision, wait, decision == Decision.ADMITTED ? entry.deferred.getAndSet(0) : 0);
+    }
+
+    /**
+     * Holds {@code count} messages of a {@link Decision#DEFERRED deferred} batch until the
+     * source is admitted again.
+     */
+    public void defer(String source, boolean simulation, long count) {
+        source(source, simulation).deferred.addAndGet(count);
+    }
+
+    /**
+     * Where deferred counts go when their source has a token again but sends nothing; also
+     * receives everything still deferred on {@link #close()}.
+     */
+    public void onDeferredDue(Consumer<BatchRecord> sink) {
+        this.deferredSink = sink;
+        if (enabled && overLimit == OverLimit.COALESCE) {
+            flusher.scheduleWithFixedDelay(() -> flush(false), FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                                           TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public AdaptiveLimit limit(boolean simulation) {
+        return simulation ? simulationLimit : realLimit;
+    }
+
+    public long deferredMessages() {
+        return sources.values().stream().mapToLong(source -> source.deferred.get()).sum();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flush(true);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private Source source(String name, boolean simulation) {
+        Key key = new Key(name == null || name.isBlank() ? UNKNOWN : name, simulation);
+        Source source = sources.get(key);
+        if (source != null) {
+            return source;
+        }
+        if (sources.size() >= maxSources) {
+            key = new Key(OVERFLOW, simulation);
+        }
+        return sources.computeIfAbsent(key, this::newSource);
+    }
+
+    private Source newSource(Key key) {
+        Rate rate = key.simulation() ? simulationRate : realRate;
+        return new Source(new TokenBucket(rate.perSecond(), rate.burst(), clock));
+    }
+
+    private void flush(boolean all) {
+        Consumer<BatchRecord> sink = deferredSink;
+        if (sink == null) {
+            return;
+        }
+        sources.forEach((key, source) -> {
+            if (source.deferred.get() > 0 && (all || source.bucket.tryTake() == 0)) {
+                long count = source.deferred.getAndSet(0);
+                if (count == 0) {
+                    return;
+                }
+                try {
+                    sink.accept(new BatchRecord(key.source(), null, null, count, key.simulation(), null));
+                } catch (RuntimeException e) {
+                    // Keep the counts for the next attempt rather than lose them.
+                    source.deferred.addAndGet(count);
+                    log.warn("Could not apply {} deferred messages of {}: {}", count, key.source(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private record Key(String source, boolean simulation) {
+    }
+
+    private static final class Source {
+        final TokenBucket bucket;
+        final AtomicLong deferred = new AtomicLong();
+
+        Source(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * Outcome of {@link #admit}: {@code retryAfterNanos} is set unless admitted, and
+     * {@code deferred} is the message count to apply for the source along with an admitted
+     * request (0 if none).
+     */
+    public record Ticket(Decision decision, long retryAfterNanos, long deferred) {
+
+        public long retryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        }
+    }
+
+    /**
+     * A concurrency slot; closing it reports the request's duration to the limit.
+     */
+    public final class Permit implements AutoCloseable {
+        private final AdaptiveLimit limit;
+        private final long startedAt;
+
+        private Permit(AdaptiveLimit limit, long startedAt) {
+            this.limit = limit;
+            this.startedAt = startedAt;
+        }
+
+        @Override
+        public void close() {
+            if (limit != null) {
+                limit.release(clock.getAsLong() - startedAt);
+            }
+        }
+    }
+}
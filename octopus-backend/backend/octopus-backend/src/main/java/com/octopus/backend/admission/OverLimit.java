@@ -0,0 +1,22 @@
+package com.octopus.backend.admission;
+
+import java.util.Locale;
+
+/**
+ * What happens to a batch from a source that is over its rate.
+ */
+public enum OverLimit {
+    /** Refuse it: 429 with {@code Retry-After}, or a throttled acknowledgement in a bulk request. */
+    REJECT,
+    /** Acknowledge it now and add its count to the source's next admitted batch. */
+    COALESCE;
+
+    public static OverLimit fromProperty(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown co2.admission.over-limit '" + value + "'. Use reject or coalesce", e);
+        }
+    }
+}
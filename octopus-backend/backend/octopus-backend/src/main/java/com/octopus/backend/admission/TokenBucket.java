@@ -0,0 +1,47 @@
+package com.octopus.backend.admission;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket refilling at {@code ratePerSecond} up to {@code burst} tokens, kept as the
+ * single timestamp of the generic cell rate algorithm: the time at which the bucket would
+ * be full again. Taking a token moves it one interval later; a take that would move it
+ * more than {@code burst} intervals past now is refused, with the wait until it would not.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+
+    // Guarded by this.
+    private long fullAt;
+
+    /**
+     * @param clock nanosecond time source, {@code System::nanoTime} outside tests
+     */
+    public TokenBucket(double ratePerSecond, int burst, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Need a positive rate and a burst of at least 1");
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.clock = clock;
+        this.fullAt = clock.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available. Returns 0 if it was taken, otherwise the
+     * nanoseconds until one will be.
+     */
+    public synchronized long tryTake() {
+        long now = clock.getAsLong();
+        long start = now - fullAt > 0 ? now : fullAt;
+        long wait = start - toleranceNanos - now;
+        if (wait > 0) {
+            return wait;
+        }
+        fullAt = start + intervalNanos;
+        return 0;
+    }
+}
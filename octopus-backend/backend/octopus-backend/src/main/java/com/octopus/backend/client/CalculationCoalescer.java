@@ -0,0 +1,143 @@
+package com.octopus.backend.client;
+
+import com.octopus.backend.dto.CarbonCalculationResponse;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Merges concurrent calculations into bulk calls. The first request opens a window of
+ * {@code windowMicros}; everything submitted until it closes, or until {@code maxBatch}
+ * distinct counts are waiting, goes out as one call, with each distinct count sent once.
+ * Every caller's future is completed with the result for its own count.
+ */
+class CalculationCoalescer implements AutoCloseable {
+
+    /**
+     * The result or failure for one count of a bulk call.
+     */
+    record Item(CarbonCalculationResponse result, RuntimeException error) {
+    }
+
+    private final Function<long[], CompletableFuture<List<Item>>> bulkCall;
+    private final IntConsumer batchObserver;
+    private final long windowMicros;
+    private final int maxBatch;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "co2-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this.
+    private Map<Long, CompletableFuture<CarbonCalculationResponse>> pending = new LinkedHashMap<>();
+    private int requests;
+    private long generation;
+
+    /**
+     * @param bulkCall      sends the counts and returns one item per count, in order
+     * @param batchObserver told the number of requests merged into each dispatched batch
+     */
+    CalculationCoalescer(Function<long[], CompletableFuture<List<Item>>> bulkCall, IntConsumer batchObserver,
+                         long windowMicros, int maxBatch) {
+        this.bulkCall = bulkCall;
+        this.batchObserver = batchObserver;
+        this.windowMicros = windowMicros;
+        this.maxBatch = maxBatch;
+    }
+
+    CompletableFuture<CarbonCalculationResponse> submit(long messageCount) {
+        CompletableFuture<CarbonCalculationResponse> future;
+        Batch full = null;
+        long openedGeneration = -1;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                openedGeneration = generation;
+            }
+            future = pending.computeIfAbsent(messageCount, count -> new CompletableFuture<>());
+            requests++;
+            if (pending.size() >= maxBatch) {
+                full = take();
+                openedGeneration = -1;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (openedGeneration >= 0) {
+            long windowGeneration = openedGeneration;
+            timer.schedule(() -> flush(windowGeneration), windowMicros, TimeUnit.MICROSECONDS);
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void flush(long windowGeneration) {
+        Batch batch;
+        synchronized (this) {
+            // The window's batch may already have gone out because it filled up.
+            if (generation != windowGeneration || pending.isEmpty()) {
+                return;
+            }
+            batch = take();
+        }
+        dispatch(batch);
+    }
+
+    private Batch take() {
+        Batch batch = new Batch(pending, requests);
+        pending = new LinkedHashMap<>();
+        requests = 0;
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(Batch batch) {
+        batchObserver.accept(batch.requests());
+        long[] counts = batch.futures().keySet().stream().mapToLong(Long::longValue).toArray();
+        CompletableFuture<List<Item>> call;
+        try {
+            call = bulkCall.apply(counts);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((items, error) -> {
+            Throwable failure = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            int index = 0;
+            for (CompletableFuture<CarbonCalculationResponse> future : batch.futures().values()) {
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else if (items == null || items.size() != counts.length) {
+                    future.completeExceptionally(new IllegalStateException(
+                        "Bulk call returned " + (items == null ? 0 : items.size()) + " results for "
+                            + counts.length + " counts"));
+                } else {
+                    Item item = items.get(index);
+                    if (item.error() != null) {
+                        future.completeExceptionally(item.error());
+                    } else {
+                        future.complete(item.result());
+                    }
+                }
+                index++;
+            }
+        });
+    }
+
+    private record Batch(Map<Long, CompletableFuture<CarbonCalculationResponse>> futures, int requests) {
+    }
+}
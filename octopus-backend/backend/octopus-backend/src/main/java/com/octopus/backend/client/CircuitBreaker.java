@@ -0,0 +1,141 @@
+package com.octopus.backend.client;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the last {@code windowSize} calls.
+ *
+ * <p>CLOSED: calls pass; once at least {@code minimumCalls} have been recorded and the
+ * failure rate or the slow-call rate reaches its threshold, the breaker opens. OPEN: calls
+ * are rejected without touching the network for {@code openNanos}, after which the next
+ * call moves it to HALF_OPEN. HALF_OPEN: {@code halfOpenCalls} trial calls are let
+ * through; if their rates stay under the thresholds the breaker closes, otherwise it
+ * opens again.
+ *
+ * <p>Every permitted call must be followed by exactly one {@link #record} or
+ * {@link #release}.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    // All guarded by this.
+    private final byte[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    public CircuitBreaker(double failureRateThreshold, double slowCallRateThreshold, long slowCallNanos,
+                          int windowSize, int minimumCalls, long openNanos, int halfOpenCalls,
+                          LongSupplier clock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1
+                || halfOpenCalls > windowSize) {
+            throw new IllegalArgumentException("Need 1 <= minimumCalls, halfOpenCalls <= windowSize");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may go ahead now. Lets the OPEN -> HALF_OPEN transition happen.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Outcome of a permitted call. Results arriving while OPEN (calls that started
+     * before the breaker tripped) are ignored.
+     */
+    public synchronized void record(boolean failed, long elapsedNanos) {
+        if (state == State.OPEN) {
+            return;
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (elapsedNanos >= slowCallNanos ? SLOW : 0));
+        if (recorded == window.length) {
+            byte evicted = window[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (state == State.HALF_OPEN) {
+            if (recorded >= halfOpenCalls) {
+                transition(overThreshold() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= minimumCalls && overThreshold()) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Gives back a permit for a call that ended without a meaningful outcome
+     * (e.g. it was never sent).
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private boolean overThreshold() {
+        return failures >= failureRateThreshold * recorded || slowCalls >= slowCallRateThreshold * recorded;
+    }
+
+    private void transition(State target) {
+        state = target;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (target == State.OPEN) {
+            openedAt = clock.getAsLong();
+        } else if (target == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+        }
+    }
+}
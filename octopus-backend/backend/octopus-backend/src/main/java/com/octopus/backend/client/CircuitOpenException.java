@@ -0,0 +1,16 @@
+package com.octopus.backend.client;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * The call was not attempted because the circuit breaker is open, or because the
+ * {@link HealthProber} has found the service down. A
+ * {@link ResourceAccessException} so that callers treat it like the microservice being
+ * unreachable.
+ */
+public class CircuitOpenException extends ResourceAccessException {
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,425 @@
+package com.octopus.backend.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.client.CalculationCoalescer.Item;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.dto.HealthStatus;
+import com.octopus.backend.dto.ServiceHealthResponse;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.observability.BackendMetrics.Outcome;
+import com.octopus.backend.observability.TraceIds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated client for the CO2 microservice.
+ *
+ * <p>Built on the JDK {@link HttpClient}: HTTP/1.1 connections are kept alive and reused
+ * across requests, connects are bounded by {@code co2.microservice.connect-timeout.ms} and
+ * whole exchanges by {@code co2.microservice.timeout.seconds}. The async methods never
+ * block the caller; the sync variants simply wait on them.
+ *
+ * <p>Failures are reported with the same {@link RestClientException} subtypes
+ * {@code RestTemplate} would throw, so callers keep one error model.
+ *
+ * <p>Every exchange is timed per endpoint and outcome, and carries the caller's trace id
+ * as {@code X-Request-ID}.
+ *
+ * <p>Calculations go through a {@link CircuitBreaker}: while it is open they fail at once
+ * with {@link CircuitOpenException}. Transport errors and 502/503/504 are retried after
+ * {@code co2.microservice.retry.backoff.ms} (without holding a thread), up to
+ * {@code co2.microservice.retry.max-attempts} attempts and only while the
+ * {@link RetryBudget} allows. Client errors are never retried. Health checks bypass both,
+ * so they keep probing a service the breaker has given up on. While the
+ * {@link HealthProber} has the service DOWN, calculations fail the same way as with an
+ * open breaker, without waiting for their own timeouts to find out.
+ *
+ * <p>With {@code co2.microservice.coalesce.window.micros} > 0, concurrent calculations are
+ * merged by a {@link CalculationCoalescer} into one {@code POST /calculate/discord/bulk}
+ * (a single count still uses {@code /calculate/discord}). If the microservice does not
+ * have the bulk endpoint yet, the client falls back to single calls for good.
+ */
+@Component
+public class Co2MicroserviceClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(Co2MicroserviceClient.class);
+    private static final String SOURCE = "octopus-hackathon-backend";
+    private static final String CALCULATE = "/calculate/discord";
+    private static final String CALCULATE_BULK = "/calculate/discord/bulk";
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService callbackExecutor;
+    private final HttpClient httpClient;
+    private final BackendMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final CalculationCoalescer coalescer;
+    private volatile boolean bulkSupported = true;
+    private volatile ServiceHealthResponse health = ServiceHealthResponse.notProbed(HealthProber.SERVICE);
+
+    public Co2MicroserviceClient(
+            @Value("${co2.microservice.url:http://localhost:3002/api/v1}") String baseUrl,
+            @Value("${co2.microservice.timeout.seconds:5}") int timeoutSeconds,
+            @Value("${co2.microservice.connect-timeout.ms:2000}") long connectTimeoutMs,
+            @Value("${co2.microservice.client-threads:4}") int clientThreads,
+            @Value("${co2.microservice.retry.max-attempts:2}") int maxAttempts,
+            @Value("${co2.microservice.retry.backoff.ms:100}") long retryBackoffMs,
+            @Value("${co2.microservice.coalesce.window.micros:0}") long coalesceWindowMicros,
+            @Value("${co2.microservice.coalesce.max-batch:64}") int coalesceMaxBatch,
+            ObjectMapper objectMapper,
+            BackendMetrics metrics,
+            CircuitBreaker circuitBreaker,
+            RetryBudget retryBudget) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = Duration.ofSeconds(timeoutSeconds);
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = retryBudget;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        metrics.bindCircuitBreaker(circuitBreaker);
+        metrics.bindHealth(this);
+        this.coalescer = coalesceWindowMicros > 0
+            ? new CalculationCoalescer(this::calculateDiscordBulkAsync, metrics::recordCoalescedBatch,
+                                       coalesceWindowMicros, coalesceMaxBatch)
+            : null;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.callbackExecutor = Executors.newFixedThreadPool(clientThreads, runnable -> {
+            Thread thread = new Thread(runnable, "co2-client-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .executor(callbackExecutor)
+            .build();
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public CompletableFuture<CarbonCalculationResponse> calculateDiscordAsync(long messageCount) {
+        if (coalescer != null && bulkSupported) {
+            return coalescer.submit(messageCount);
+        }
+        return calculateDiscordSingleAsync(messageCount);
+    }
+
+    public CarbonCalculationResponse calculateDiscord(long messageCount) {
+        return await(calculateDiscordAsync(messageCount));
+    }
+
+    public CompletableFuture<HealthPayload> healthAsync() {
+        HttpRequest request = requestBuilder("/health").GET().build();
+        return exchange("/health", request, HealthPayload.class, false);
+    }
+
+    public HealthPayload health() {
+        return await(healthAsync());
+    }
+
+    /**
+     * The latest published probe result; not probed yet if no {@link HealthProber} runs.
+     */
+    public ServiceHealthResponse lastHealth() {
+        return health;
+    }
+
+    public void updateHealth(ServiceHealthResponse health) {
+        this.health = health;
+    }
+
+    @Override
+    public void close() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+        callbackExecutor.shutdownNow();
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private CompletableFuture<CarbonCalculationResponse> calculateDiscordSingleAsync(long messageCount) {
+        return postAsync(CALCULATE, new DiscordCalculationRequest(messageCount), CarbonCalculationResponse.class);
+    }
+
+    /**
+     * One item per count, in order. Per-count validation errors come back as
+     * {@link HttpClientErrorException}s, as they would from the single endpoint.
+     */
+    private CompletableFuture<List<Item>> calculateDiscordBulkAsync(long[] counts) {
+        if (counts.length == 1 || !bulkSupported) {
+            return calculateIndividually(counts);
+        }
+        return postAsync(CALCULATE_BULK, new DiscordBulkRequest(counts), DiscordBulkResponse.class)
+            .thenApply(response -> decodeBulk(counts, response))
+            .exceptionallyCompose(error -> {
+                Throwable cause = unwrap(error);
+                if (cause instanceof HttpClientErrorException clientError
+                        && clientError.getStatusCode().value() == 404) {
+                    bulkSupported = false;
+                    log.warn("CO2 microservice has no {} endpoint; falling back to single calculations",
+                             CALCULATE_BULK);
+                    return calculateIndividually(counts);
+                }
+                return CompletableFuture.failedFuture(cause);
+            });
+    }
+
+    private CompletableFuture<List<Item>> calculateIndividually(long[] counts) {
+        List<CompletableFuture<Item>> calls = new ArrayList<>(counts.length);
+        for (long count : counts) {
+            calls.add(calculateDiscordSingleAsync(count).handle((result, error) -> error == null
+                ? new Item(result, null)
+                : new Item(null, asRuntime(unwrap(error)))));
+        }
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> calls.stream().map(CompletableFuture::join).toList());
+    }
+
+    private List<Item> decodeBulk(long[] counts, DiscordBulkResponse response) {
+        if (response == null || response.results() == null || response.results().size() != counts.length) {
+            throw new RestClientException("CO2 microservice returned a malformed bulk response");
+        }
+        List<Item> items = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            JsonNode result = response.results().get(i);
+            if (result.hasNonNull("error")) {
+                String message = result.get("error").asText();
+                items.add(new Item(null, HttpClientErrorException.create(
+                    HttpStatusCode.valueOf(400), "count " + counts[i] + ": " + message, new HttpHeaders(),
+                    message.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8)));
+                continue;
+            }
+            try {
+                items.add(new Item(objectMapper.treeToValue(result, CarbonCalculationResponse.class), null));
+            } catch (IOException e) {
+                items.add(new Item(null, new RestClientException("Could not decode bulk result " + i, e)));
+            }
+        }
+        return items;
+    }
+
+    private static RuntimeException asRuntime(Throwable error) {
+        return error instanceof RuntimeException runtime ? runtime : new RestClientException(error.getMessage(), error);
+    }
+
+    private <T, R> CompletableFuture<R> postAsync(String endpoint, T body, Class<R> responseType) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RestClientException("Could not encode request", e));
+        }
+        HttpRequest request = requestBuilder(endpoint)
+            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+            .build();
+        retryBudget.deposit();
+        return attempt(endpoint, request, responseType, 1);
+    }
+
+    private <R> CompletableFuture<R> attempt(String endpoint, HttpRequest request, Class<R> responseType,
+                                             int attemptNumber) {
+        if (health.status() == HealthStatus.DOWN) {
+            metrics.recordCircuitRejection(endpoint, "health");
+            return CompletableFuture.failedFuture(new CircuitOpenException(
+                "CO2 microservice is down according to its health probe; " + request.method() + " " + endpoint
+                    + " not attempted"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            metrics.recordCircuitRejection(endpoint, "circuit");
+            return CompletableFuture.failedFuture(new CircuitOpenException(
+                "CO2 microservice circuit is open; " + request.method() + " " + endpoint + " not attempted"));
+        }
+        return exchange(endpoint, request, responseType, true).exceptionallyCompose(error -> {
+            Throwable cause = unwrap(error);
+            if (attemptNumber >= maxAttempts || !isRetryable(cause)) {
+                return CompletableFuture.failedFuture(cause);
+            }
+            if (!retryBudget.tryWithdraw()) {
+                metrics.recordRetry(endpoint, false);
+                return CompletableFuture.failedFuture(cause);
+            }
+            metrics.recordRetry(endpoint, true);
+            log.debug("Retrying {} after: {}", endpoint, cause.getMessage());
+            Executor delayed = CompletableFuture.delayedExecutor(retryBackoffMs, TimeUnit.MILLISECONDS,
+                                                                 callbackExecutor);
+            return CompletableFuture.supplyAsync(() -> attemptNumber + 1, delayed)
+                .thenCompose(next -> attempt(endpoint, request, responseType, next));
+        });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof CircuitOpenException) {
+            return false;
+        }
+        if (error instanceof HttpServerErrorException serverError) {
+            int status = serverError.getStatusCode().value();
+            return status == 502 || status == 503 || status == 504;
+        }
+        return error instanceof ResourceAccessException;
+    }
+
+    private HttpRequest.Builder requestBuilder(String endpoint) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+            .timeout(requestTimeout)
+            .header(HttpHeaders.ACCEPT, "application/json")
+            .header("X-Request-Source", SOURCE)
+            .header(TraceIds.HEADER, TraceIds.current());
+    }
+
+    /**
+     * One HTTP exchange. {@code guarded} exchanges hold a circuit breaker permit and report
+     * their outcome to it; client errors count as successes there, since the service did
+     * answer.
+     */
+    private <R> CompletableFuture<R> exchange(String endpoint, HttpRequest request, Class<R> responseType,
+                                              boolean guarded) {
+        log.debug("Calling CO2 microservice: {} {}", request.method(), request.uri());
+        long started = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> sent;
+        try {
+            sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            if (guarded) {
+                circuitBreaker.release();
+            }
+            return CompletableFuture.failedFuture(translate(request, e));
+        }
+        return sent
+            .handle((response, error) -> {
+                Outcome outcome = Outcome.ERROR;
+                try {
+                    if (error != null) {
+                        RuntimeException failure = translate(request, unwrap(error));
+                        outcome = failure instanceof ResourceAccessException ? Outcome.IO_ERROR : Outcome.ERROR;
+                        throw failure;
+                    }
+                    int status = response.statusCode();
+                    if (status >= 400) {
+                        outcome = status >= 500 ? Outcome.SERVER_ERROR : Outcome.CLIENT_ERROR;
+                    }
+                    R decoded = decode(request, response, responseType);
+                    outcome = Outcome.SUCCESS;
+                    return decoded;
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    metrics.recordDownstream(endpoint, outcome, elapsed);
+                    if (guarded) {
+                        circuitBreaker.record(outcome != Outcome.SUCCESS && outcome != Outcome.CLIENT_ERROR, elapsed);
+                    }
+                }
+            });
+    }
+
+    private <R> R decode(HttpRequest request, HttpResponse<byte[]> response, Class<R> responseType) {
+        int status = response.statusCode();
+        if (status >= 400) {
+            HttpStatusCode code = HttpStatusCode.valueOf(status);
+            String statusText = request.method() + " " + request.uri().getPath();
+            if (code.is4xxClientError()) {
+                throw HttpClientErrorException.create(code, statusText, new HttpHeaders(),
+                                                      response.body(), StandardCharsets.UTF_8);
+            }
+            throw HttpServerErrorException.create(code, statusText, new HttpHeaders(),
+                                                  response.body(), StandardCharsets.UTF_8);
+        }
+        try {
+            return response.body().length == 0 ? null : objectMapper.readValue(response.body(), responseType);
+        } catch (IOException e) {
+            throw new RestClientException("Could not decode response from " + request.uri(), e);
+        }
+    }
+
+    private static RuntimeException translate(HttpRequest request, Throwable error) {
+        if (error instanceof RestClientException restError) {
+            return restError;
+        }
+        if (error instanceof IOException ioError) {
+            return new ResourceAccessException(
+                "I/O error on " + request.method() + " request for \"" + request.uri() + "\": " + ioError.getMessage(),
+                ioError);
+        }
+        return new RestClientException("Request to " + request.uri() + " failed", error);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Waits interruptibly so that an interrupted caller stops waiting straight away and
+     * cancels the request.
+     */
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for the CO2 microservice", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RestClientException("CO2 microservice call failed", cause);
+        }
+    }
+
+    public record DiscordCalculationRequest(Long count) {
+        public DiscordCalculationRequest {
+            if (count == null || count < 0) {
+                throw new IllegalArgumentException("Count must be non-negative");
+            }
+        }
+    }
+
+    public record DiscordBulkRequest(long[] counts) {
+    }
+
+    public record DiscordBulkResponse(List<JsonNode> results) {
+    }
+
+    public record HealthPayload(String status, String service, String timestamp) {
+        public boolean isOperational() {
+            return "operational".equals(status);
+        }
+    }
+}
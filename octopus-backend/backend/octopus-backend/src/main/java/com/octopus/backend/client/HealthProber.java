@@ -0,0 +1,159 @@
+package com.octopus.backend.client;
+
+import com.octopus.backend.client.Co2MicroserviceClient.HealthPayload;
+import com.octopus.backend.dto.HealthStatus;
+import com.octopus.backend.dto.ServiceHealthResponse;
+import com.octopus.backend.dto.ServiceHealthResponse.Transition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes the CO2 microservice's {@code /health} in the background and publishes the
+ * result to {@link Co2MicroserviceClient#updateHealth}, so that health reads are a field
+ * read and calculations fail fast while the service is known to be down.
+ *
+ * <p>A probe answering {@code operational} within {@code degraded-latency.ms} is
+ * OPERATIONAL; a slower one, one reporting another status, or a single failed probe is
+ * DEGRADED; {@code failures-to-down} failed probes in a row are DOWN. Probes run every
+ * {@code interval.healthy.ms} while OPERATIONAL and every {@code interval.unhealthy.ms}
+ * otherwise, so that a recovery is noticed quickly while a healthy service is left alone.
+ */
+@Component
+public class HealthProber {
+
+    private static final Logger log = LoggerFactory.getLogger(HealthProber.class);
+    static final String SERVICE = "co2-microservice";
+
+    private final Co2MicroserviceClient client;
+    private final boolean enabled;
+    private final long healthyIntervalMs;
+    private final long unhealthyIntervalMs;
+    private final long degradedLatencyMs;
+    private final int failuresToDown;
+    private final int historySize;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "co2-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this.
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+    private HealthStatus status = HealthStatus.UNKNOWN;
+    private Instant since;
+    private int consecutiveFailures;
+
+    public HealthProber(Co2MicroserviceClient client,
+                        @Value("${co2.health.probe.enabled:true}") boolean enabled,
+                        @Value("${co2.health.interval.healthy.ms:15000}") long healthyIntervalMs,
+                        @Value("${co2.health.interval.unhealthy.ms:1000}") long unhealthyIntervalMs,
+                        @Value("${co2.health.degraded-latency.ms:500}") long degradedLatencyMs,
+                        @Value("${co2.health.failures-to-down:2}") int failuresToDown,
+                        @Value("${co2.health.history-size:20}") int historySize) {
+        this.client = client;
+        this.enabled = enabled;
+        this.healthyIntervalMs = healthyIntervalMs;
+        this.unhealthyIntervalMs = unhealthyIntervalMs;
+        this.degradedLatencyMs = degradedLatencyMs;
+        this.failuresToDown = failuresToDown;
+        this.historySize = historySize;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            ticker.execute(this::tick);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Probes once and publishes the result, which the returned future completes with.
+     */
+    public CompletableFuture<ServiceHealthResponse> probe() {
+        long started = System.nanoTime();
+        CompletableFuture<HealthPayload> sent;
+        try {
+            sent = client.healthAsync();
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((payload, error) -> {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            ServiceHealthResponse health = record(payload, error, latencyMs);
+            client.updateHealth(health);
+            return health;
+        });
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void tick() {
+        probe().whenComplete((health, error) -> {
+            long delay = health != null && health.status() == HealthStatus.OPERATIONAL
+                ? healthyIntervalMs : unhealthyIntervalMs;
+            try {
+                ticker.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // Shut down.
+            }
+        });
+    }
+
+    private synchronized ServiceHealthResponse record(HealthPayload payload, Throwable error, long latencyMs) {
+        HealthStatus next;
+        String detail;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            consecutiveFailures++;
+            next = consecutiveFailures >= failuresToDown ? HealthStatus.DOWN : HealthStatus.DEGRADED;
+            detail = "probe failed: " + cause.getMessage();
+        } else {
+            consecutiveFailures = 0;
+            if (payload == null || !payload.isOperational()) {
+                next = HealthStatus.DEGRADED;
+                detail = "reported status " + (payload == null ? null : payload.status());
+            } else if (latencyMs > degradedLatencyMs) {
+                next = HealthStatus.DEGRADED;
+                detail = "answered in " + latencyMs + "ms";
+            } else {
+                next = HealthStatus.OPERATIONAL;
+                detail = null;
+            }
+        }
+
+        Instant now = Instant.now();
+        if (next != status) {
+            transitions.addLast(new Transition(status, next, now, detail));
+            while (transitions.size() > historySize) {
+                transitions.removeFirst();
+            }
+            if (next == HealthStatus.OPERATIONAL) {
+                log.info("CO2 microservice is {} (was {})", next, status);
+            } else {
+                log.warn("CO2 microservice is {} (was {}): {}", next, status, detail);
+            }
+            status = next;
+            since = now;
+        }
+        return new ServiceHealthResponse(status, now, SERVICE, latencyMs, detail, since, List.copyOf(transitions));
+    }
+}
@@ -0,0 +1,35 @@
+package com.octopus.backend.client;
+
+/**
+ * Caps retries at a fraction of first attempts, so that a failing microservice sees at
+ * most {@code 1 + ratio} times the normal request rate instead of {@code maxAttempts}
+ * times. Every first attempt deposits {@code ratio} tokens, every retry withdraws one;
+ * the balance is capped at {@code reserve}, which is also the starting balance.
+ */
+public class RetryBudget {
+
+    // Whole tokens are 1000 units, so ratios like 0.1 add up exactly.
+    private static final long UNIT = 1000;
+
+    private final long deposit;
+    private final long reserve;
+    private long balance;
+
+    public RetryBudget(double ratio, int reserve) {
+        this.deposit = Math.round(ratio * UNIT);
+        this.reserve = reserve * UNIT;
+        this.balance = this.reserve;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(reserve, balance + deposit);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance < UNIT) {
+            return false;
+        }
+        balance -= UNIT;
+        return true;
+    }
+}
@@ -1,17 +1,85 @@
 package com.octopus.backend.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String CARBON_CALCULATIONS = "carbonCalculations";
+
+    /**
+     * Bounded, expiring Caffeine cache. Stats are recorded so that actuator publishes
+     * hit/miss/eviction metrics; combined with {@code @Cacheable(sync = true)} concurrent
+     * misses on one key share a single load. Stale fallback results expire after
+     * {@code co2.circuit.stale-ttl.seconds} so that they are recalculated once the
+     * microservice is back.
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${co2.cache.maximum-size:10000}") long maximumSize,
+            @Value("${co2.cache.expire-after-write.seconds:600}") long expireAfterWriteSeconds,
+            @Value("${co2.circuit.stale-ttl.seconds:5}") long staleTtlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new StaleAwareExpiry(Duration.ofSeconds(expireAfterWriteSeconds).toNanos(),
+                                              Duration.ofSeconds(staleTtlSeconds).toNanos()))
+            .recordStats());
+        cacheManager.setAllowNullValues(false);
+        // Fixed cache names: no caches are created on the fly and all get bound to metrics.
+        cacheManager.setCacheNames(List.of(CARBON_CALCULATIONS));
+        return cacheManager;
+    }
+
+    /**
+     * Hit ratio of the calculation cache since startup, next to the raw {@code cache.gets}
+     * counters actuator already publishes.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("carbonCalculations");
+    public MeterBinder carbonCacheHitRatio(CacheManager cacheManager) {
+        return registry -> {
+            if (cacheManager.getCache(CARBON_CALCULATIONS) instanceof CaffeineCache cache) {
+                Gauge.builder("cache.hit.ratio", cache, c -> c.getNativeCache().stats().hitRate())
+                    .description("Fraction of cache lookups that were hits")
+                    .tag("cache", CARBON_CALCULATIONS)
+                    .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Expire-after-write with a shorter lifetime for stale results.
+     */
+    private record StaleAwareExpiry(long freshNanos, long staleNanos) implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof CarbonCalculationResponse response && response.stale() ? staleNanos : freshNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.octopus.backend.config;
+
+import com.octopus.backend.client.Co2MicroserviceClient;
+import com.octopus.backend.engine.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CarbonEngineConfig {
+
+    @Bean
+    public CarbonModel carbonModel() {
+        return CarbonModel.SWD_V3;
+    }
+
+    @Bean
+    public CarbonEngine carbonEngine(
+            @Value("${co2.engine.mode:local}") String mode,
+            CarbonModel carbonModel,
+            Co2MicroserviceClient co2Client) {
+        LocalCarbonEngine local = new LocalCarbonEngine(carbonModel);
+        return switch (CarbonEngineMode.fromProperty(mode)) {
+            case LOCAL -> local;
+            case REMOTE -> new RemoteCarbonEngine(co2Client);
+            case LOCAL_WITH_REMOTE_VERIFICATION ->
+                new VerifyingCarbonEngine(local, new RemoteCarbonEngine(co2Client));
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.octopus.backend.config;
+
+import com.octopus.backend.admission.AdaptiveLimit;
+import com.octopus.backend.admission.IngestAdmission;
+import com.octopus.backend.admission.IngestAdmission.Rate;
+import com.octopus.backend.admission.OverLimit;
+import com.octopus.backend.dedup.BatchIdWindow;
+import com.octopus.backend.observability.BackendMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class IngestConfig {
+
+    /**
+     * Batch ids seen in the last {@code window.minutes}; memory is fixed by the slice
+     * count and per-slice capacity, not by traffic.
+     */
+    @Bean
+    public BatchIdWindow batchIdWindow(
+            @Value("${co2.ingest.dedup.window.minutes:15}") long windowMinutes,
+            @Value("${co2.ingest.dedup.slices:4}") int slices,
+            @Value("${co2.ingest.dedup.max-ids-per-slice:65536}") int maxIdsPerSlice,
+            BackendMetrics metrics) {
+        BatchIdWindow window = new BatchIdWindow(TimeUnit.MINUTES.toNanos(windowMinutes), slices, maxIdsPerSlice,
+                                                 System::nanoTime);
+        metrics.bindBatchIdWindow(window);
+        return window;
+    }
+
+    /**
+     * Per-source token buckets and per-class adaptive concurrency limits in front of both
+     * ingestion endpoints.
+     */
+    @Bean
+    public IngestAdmission ingestAdmission(
+            @Value("${co2.admission.enabled:true}") boolean enabled,
+            @Value("${co2.admission.over-limit:reject}") String overLimit,
+            @Value("${co2.admission.real.rate:50}") double realRate,
+            @Value("${co2.admission.real.burst:100}") int realBurst,
+            @Value("${co2.admission.simulation.rate:5}") double simulationRate,
+            @Value("${co2.admission.simulation.burst:10}") int simulationBurst,
+            @Value("${co2.admission.max-sources:1000}") int maxSources,
+            @Value("${co2.admission.real.max-concurrency:64}") int realMaxConcurrency,
+            @Value("${co2.admission.simulation.max-concurrency:8}") int simulationMaxConcurrency,
+            @Value("${co2.admission.latency-target.ms:1000}") long latencyTargetMs,
+            @Value("${co2.admission.backoff:0.75}") double backoff,
+            BackendMetrics metrics) {
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMs);
+        IngestAdmission admission = new IngestAdmission(
+            enabled, OverLimit.fromProperty(overLimit),
+            new Rate(realRate, realBurst), new Rate(simulationRate, simulationBurst), maxSources,
+            new AdaptiveLimit(realMaxConcurrency, targetNanos, backoff, System::nanoTime),
+            new AdaptiveLimit(simulationMaxConcurrency, targetNanos, backoff, System::nanoTime),
+            System::nanoTime, metrics);
+        metrics.bindIngestAdmission(admission);
+        return admission;
+    }
+}
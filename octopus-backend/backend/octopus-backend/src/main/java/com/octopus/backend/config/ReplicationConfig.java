@@ -0,0 +1,63 @@
+package com.octopus.backend.config;
+
+import com.octopus.backend.replication.ReplicatedCounters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+@Configuration
+public class ReplicationConfig {
+
+    /**
+     * Condition for the replication beans: peers are configured. A single instance has no
+     * gossip endpoint, client or files.
+     */
+    public static final String ENABLED = "'${co2.replication.peers:}'.trim().length() > 0";
+
+    private static final String NODE_ID_FILE = "node-id";
+    private static final String STATE_FILE = "replicas.txt";
+    private static final String SINGLE_NODE_ID = "local";
+
+    /**
+     * Counters for this node. With peers and without {@code co2.replication.node-id}, the
+     * id is generated once and kept in the persistence directory, since it must stay the
+     * same across restarts and differ between instances.
+     */
+    @Bean
+    public ReplicatedCounters replicatedCounters(
+            @Value("${co2.persistence.dir:.}") String dataDir,
+            @Value("${co2.replication.peers:}") String peers,
+            @Value("${co2.replication.node-id:}") String nodeId,
+            @Value("${co2.replication.max-restore:1000000}") long maxRestore) {
+        if (peers.isBlank()) {
+            return new ReplicatedCounters(nodeId.isBlank() ? SINGLE_NODE_ID : nodeId.trim(), null, maxRestore);
+        }
+        Path dir = Paths.get(dataDir);
+        String id = nodeId.isBlank() ? storedNodeId(dir.resolve(NODE_ID_FILE)) : nodeId.trim();
+        return new ReplicatedCounters(id, dir.resolve(STATE_FILE), maxRestore);
+    }
+
+    private static String storedNodeId(Path file) {
+        try {
+            if (Files.exists(file)) {
+                String stored = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (!stored.isEmpty()) {
+                    return stored;
+                }
+            }
+            String generated = UUID.randomUUID().toString().substring(0, 8);
+            Files.writeString(file, generated + System.lineSeparator(), StandardCharsets.UTF_8);
+            return generated;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read or create node id in " + file, e);
+        }
+    }
+}
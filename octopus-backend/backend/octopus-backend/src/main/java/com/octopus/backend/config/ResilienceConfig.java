@@ -0,0 +1,37 @@
+package com.octopus.backend.config;
+
+import com.octopus.backend.client.CircuitBreaker;
+import com.octopus.backend.client.RetryBudget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * Breaker for CO2 microservice calculations; rates are given in percent.
+     */
+    @Bean
+    public CircuitBreaker co2CircuitBreaker(
+            @Value("${co2.circuit.failure-rate-threshold:50}") double failureRatePercent,
+            @Value("${co2.circuit.slow-call-rate-threshold:80}") double slowCallRatePercent,
+            @Value("${co2.circuit.slow-call.ms:2000}") long slowCallMs,
+            @Value("${co2.circuit.window-size:20}") int windowSize,
+            @Value("${co2.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${co2.circuit.open.ms:10000}") long openMs,
+            @Value("${co2.circuit.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker(failureRatePercent / 100, slowCallRatePercent / 100,
+                                  TimeUnit.MILLISECONDS.toNanos(slowCallMs), windowSize, minimumCalls,
+                                  TimeUnit.MILLISECONDS.toNanos(openMs), halfOpenCalls, System::nanoTime);
+    }
+
+    @Bean
+    public RetryBudget co2RetryBudget(
+            @Value("${co2.microservice.retry.budget-ratio:0.1}") double ratio,
+            @Value("${co2.microservice.retry.budget-reserve:10}") int reserve) {
+        return new RetryBudget(ratio, reserve);
+    }
+}
@@ -0,0 +1,102 @@
+package com.octopus.backend.controller;
+
+import com.octopus.backend.CarbonService;
+import com.octopus.backend.counters.CounterRegistry;
+import com.octopus.backend.counters.CounterRegistry.Entry;
+import com.octopus.backend.counters.CounterRegistry.Totals;
+import com.octopus.backend.counters.Dimension;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.exception.ValidationException;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-guild, per-channel and per-source breakdowns of the hackathon counters.
+ */
+@RestController
+@RequestMapping("/api/carbon/breakdown")
+@CrossOrigin(origins = "*")
+public class BreakdownController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final CounterRegistry counters;
+    private final CarbonService carbonService;
+
+    public BreakdownController(CounterRegistry counters, CarbonService carbonService) {
+        this.counters = counters;
+        this.carbonService = carbonService;
+    }
+
+    /**
+     * Messages and carbon for one guild/channel/source combination; omitted parameters
+     * match everything.
+     */
+    @GetMapping
+    public Map<String, Object> getBreakdown(@RequestParam(required = false) String guild,
+                                            @RequestParam(required = false) String channel,
+                                            @RequestParam(required = false) String source) {
+        Totals totals = counters.totals(guild, channel, source);
+        CarbonCalculationResponse calculation = carbonService.calculateDiscordCarbon(totals.totalMessages());
+
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("guild", guild);
+        filters.put("channel", channel);
+        filters.put("source", source);
+
+        return Map.of(
+            "filters", filters,
+            "totalMessages", totals.totalMessages(),
+            "realBotMessages", totals.realMessages(),
+            "simulationMessages", totals.simulationMessages(),
+            "carbon", calculation.carbon(),
+            "equivalents", calculation.equivalents(),
+            "generatedAt", Instant.now().toString()
+        );
+    }
+
+    /**
+     * The {@code limit} guilds, channels or sources with the most messages. {@code simulation}
+     * restricts the ranking to real ({@code false}) or simulation ({@code true}) messages.
+     */
+    @GetMapping("/top")
+    public Map<String, Object> getTop(@RequestParam(defaultValue = "guild") String dimension,
+                                      @RequestParam(defaultValue = "10") int limit,
+                                      @RequestParam(required = false) Boolean simulation) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        Dimension parsed;
+        try {
+            parsed = Dimension.fromProperty(dimension);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage(), e);
+        }
+
+        List<Map<String, Object>> entries = counters.top(parsed, limit, simulation).stream()
+            .map(this::toEntry)
+            .toList();
+
+        return Map.of(
+            "dimension", parsed.name().toLowerCase(),
+            "entries", entries,
+            "cardinality", counters.cardinality(),
+            "maxCardinality", counters.maxCardinality(),
+            "overflowedBatches", counters.overflowedBatches(),
+            "generatedAt", Instant.now().toString()
+        );
+    }
+
+    private Map<String, Object> toEntry(Entry entry) {
+        CarbonCalculationResponse calculation = carbonService.calculateDiscordCarbon(entry.messages());
+        return Map.of(
+            "name", entry.name(),
+            "messages", entry.messages(),
+            "carbon", calculation.carbon()
+        );
+    }
+}
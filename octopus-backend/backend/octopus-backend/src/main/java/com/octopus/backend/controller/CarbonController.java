@@ -1,12 +1,33 @@
 package com.octopus.backend.controller;
 
 import com.octopus.backend.CarbonService;
-import com.octopus.backend.PersistenceService;
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.IngestionService;
+import com.octopus.backend.IngestionService.Delivery;
+import com.octopus.backend.admission.IngestAdmission;
+import com.octopus.backend.admission.IngestAdmission.Permit;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.dto.BulkIngestResponse;
 import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.dto.ServiceHealthResponse;
+import com.octopus.backend.exception.TooManyRequestsException;
+import com.octopus.backend.snapshot.JsonSnapshot;
+import com.octopus.backend.snapshot.SnapshotPublisher;
+import com.octopus.backend.stream.HackathonStream;
+import com.octopus.backend.totals.CarbonTotals;
+import com.octopus.backend.totals.CarbonTotals.Carbon;
+import com.octopus.backend.totals.CarbonTotals.Totals;
+import com.octopus.backend.wire.BatchFrameReader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,144 +39,197 @@ public class CarbonController {
 
     private static final Logger log = LoggerFactory.getLogger(CarbonController.class);
     private final CarbonService carbonService;
-    private final PersistenceService persistenceService;
-    private final AtomicLong realBotMessages;     
-    private final AtomicLong simulationMessages;   
-    public CarbonController(CarbonService carbonService, PersistenceService persistenceService) {
-        this.carbonService = carbonService;
-        this.persistenceService = persistenceService;
-
-      
-        long savedCount = persistenceService.loadMessageCount();
-        this.realBotMessages = new AtomicLong(savedCount);
-        this.simulationMessages = new AtomicLong(0);
+    private final HackathonService hackathonService;
+    private final CarbonTotals carbonTotals;
+    private final IngestionService ingestionService;
+    private final IngestAdmission admission;
+    private final HackathonStream hackathonStream;
+    private final SnapshotPublisher snapshots;
+    private final JsonSnapshot globalContext;
 
-        log.info("CarbonController initialized with {} REAL bot messages from previous session", savedCount);
+    public CarbonController(CarbonService carbonService, HackathonService hackathonService,
+                            CarbonTotals carbonTotals, IngestionService ingestionService, IngestAdmission admission,
+                            HackathonStream hackathonStream, SnapshotPublisher snapshots) {
+        this.carbonService = carbonService;
+        this.hackathonService = hackathonService;
+        this.carbonTotals = carbonTotals;
+        this.ingestionService = ingestionService;
+        this.admission = admission;
+        this.hackathonStream = hackathonStream;
+        this.snapshots = snapshots;
+        this.globalContext = snapshots.fixed("global-context", globalContextBody());
     }
     
     @PostMapping("/discord/batch")
-    public Map<String, Object> recordDiscordBatch(@RequestBody Map<String, Object> request) {
-        long messageCount = ((Number) request.get("count")).longValue();
-        boolean isSimulation = request.containsKey("isSimulation")
-            ? (Boolean) request.get("isSimulation")
-            : false; 
-
-        long newTotal;
-        if (isSimulation) {
-           
-            newTotal = simulationMessages.addAndGet(messageCount);
-            log.info("Simulation: added {} messages (simulation total: {})", messageCount, newTotal);
-        } else {
-           
-            newTotal = realBotMessages.addAndGet(messageCount);
-            persistenceService.saveMessageCount(newTotal);
-            log.info("Real bot data: added {} messages (real total: {})", messageCount, newTotal);
-        }
+    public Map<String, Object> recordDiscordBatch(@RequestBody BatchRecord request) {
+        boolean isSimulation = request.isSimulation();
 
-        CarbonCalculationResponse batchCalculation = carbonService.calculateDiscordCarbon(messageCount);
+        // The permit covers the batch's calculation too: its latency is what adapts the limit.
+        try (Permit permit = admission.enter(isSimulation)) {
+            // Validates the batch before anything is counted.
+            Delivery delivery = ingestionService.deliver(request);
+            long messageCount = request.count();
+            switch (delivery) {
+                case DUPLICATE -> log.info("Duplicate batch {} of {} messages acknowledged, not applied",
+                                           request.batchId(), messageCount);
+                case DEFERRED -> {
+                    log.info("Source {} over its rate: {} messages deferred to its next batch",
+                             request.source(), messageCount);
+                    return Map.of(
+                        "batch", Map.of(
+                            "messages", messageCount,
+                            "isSimulation", isSimulation,
+                            "duplicate", false,
+                            "deferred", true
+                        )
+                    );
+                }
+                case APPLIED -> {
+                    if (isSimulation) {
+                        log.info("Simulation: added {} messages (simulation total: {})",
+                                 messageCount, hackathonService.simulationMessages());
+                    } else {
+                        log.info("Real bot data: added {} messages (real total: {})",
+                                 messageCount, hackathonService.realMessages());
+                    }
+                }
+            }
+            boolean duplicate = delivery == Delivery.DUPLICATE;
 
-        long combinedTotal = realBotMessages.get() + simulationMessages.get();
-        CarbonCalculationResponse totalCalculation = carbonService.calculateDiscordCarbon(combinedTotal);
+            // Only the batch needs a calculation; the totals are a memory read.
+            CarbonCalculationResponse batchCalculation = carbonService.calculateDiscordCarbon(messageCount);
+            Totals totals = carbonTotals.current();
 
-        return Map.of(
-            "batch", Map.of(
-                "messages", messageCount,
-                "carbon", batchCalculation.carbon(),
-                "equivalents", batchCalculation.equivalents(),
-                "isSimulation", isSimulation
-            ),
-            "hackathon", Map.of(
-                "totalMessages", combinedTotal,
-                "realBotMessages", realBotMessages.get(),
-                "simulationMessages", simulationMessages.get(),
-                "totalCarbon", totalCalculation.carbon(),
-                "totalEquivalents", totalCalculation.equivalents(),
-                "lastUpdated", Instant.now().toString()
-            )
-        );
+            return Map.of(
+                "batch", Map.of(
+                    "messages", messageCount,
+                    "carbon", batchCalculation.carbon(),
+                    "equivalents", batchCalculation.equivalents(),
+                    "isSimulation", isSimulation,
+                    "duplicate", duplicate,
+                    "deferred", false
+                ),
+                "hackathon", Map.of(
+                    "totalMessages", totals.totalMessages(),
+                    "realBotMessages", totals.real().messages(),
+                    "simulationMessages", totals.simulation().messages(),
+                    "totalCarbon", totals.combined().carbon(),
+                    "totalEquivalents", totals.combined().equivalents(),
+                    "stale", batchCalculation.stale(),
+                    "lastUpdated", Instant.now().toString()
+                )
+            );
+        }
     }
     
     
-    @GetMapping("/hackathon/live")
-    public Map<String, Object> getHackathonLiveData() {
-        long realMessages = realBotMessages.get();
-        long simMessages = simulationMessages.get();
-        long combinedTotal = realMessages + simMessages;
+    /**
+     * Bulk variant of {@code /discord/batch}: a JSON array or NDJSON stream of batch
+     * records, applied as one update and acknowledged per record. Records throttled by
+     * rate limiting come with a {@code Retry-After} for the whole response.
+     */
+    @PostMapping(value = "/discord/batches",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkIngestResponse> recordDiscordBatches(InputStream body) {
+        return bulkResponse(ingestionService.ingest(body));
+    }
 
-        if (combinedTotal == 0) {
-            return Map.of(
-                "hackathon", "Octopus Hackathon",
-                "totalMessages", 0,
-                "realBotMessages", 0,
-                "simulationMessages", 0,
-                "carbonImpact", Map.of("kilograms", 0, "grams", 0),
-                "equivalents", Map.of("carMiles", 0, "treeDays", 0),
-                "lastUpdated", Instant.now().toString(),
-                "message", "No data yet. Send your first batch!"
-            );
+    /**
+     * {@code /discord/batches} with a body of binary batch frames, for bots sending at
+     * volume; acknowledged in the same JSON as the other formats.
+     */
+    @PostMapping(value = "/discord/batches", consumes = BatchFrameReader.MEDIA_TYPE)
+    public ResponseEntity<BulkIngestResponse> recordDiscordBatchFrames(InputStream body) {
+        return bulkResponse(ingestionService.ingestFrames(body));
+    }
+
+    private static ResponseEntity<BulkIngestResponse> bulkResponse(BulkIngestResponse response) {
+        if (response.retryAfterSeconds() == null) {
+            return ResponseEntity.ok(response);
         }
+        return ResponseEntity.ok()
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(response.retryAfterSeconds()))
+            .body(response);
+    }
 
-        CarbonCalculationResponse calculation = carbonService.calculateDiscordCarbon(combinedTotal);
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.retryAfterSeconds()))
+            .body(Map.of(
+                "error", "Too Many Requests",
+                "message", e.getMessage(),
+                "retryAfterSeconds", e.retryAfterSeconds()
+            ));
+    }
+    
+    
+    /**
+     * Read endpoints serve pre-serialized snapshots: the same bytes until the counters
+     * change, with an ETag so that unchanged polls get a bodiless 304.
+     */
+    @GetMapping("/hackathon/live")
+    public ResponseEntity<byte[]> getHackathonLiveData(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return snapshots.live().toResponse(acceptEncoding);
+    }
 
-        return Map.of(
-            "hackathon", "Octopus Hackathon",
-            "totalMessages", combinedTotal,
-            "realBotMessages", realMessages,
-            "simulationMessages", simMessages,
-            "carbonImpact", calculation.carbon(),
-            "equivalents", calculation.equivalents(),
-            "lastUpdated", Instant.now().toString()
-        );
+    /**
+     * Push alternative to polling {@code /hackathon/live}: one {@code hackathon} event per
+     * change (rate-limited), carrying the same payload.
+     */
+    @GetMapping(value = "/hackathon/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamHackathonLiveData() {
+        return hackathonStream.subscribe();
     }
     
   
     @GetMapping("/hackathon/public")
-    public Map<String, Object> getPublicHackathonData() {
-        long currentTotal = realBotMessages.get() + simulationMessages.get();
-        CarbonCalculationResponse calculation = carbonService.calculateDiscordCarbon(currentTotal);
-
-        return Map.of(
-            "event", "Octopus Hackathon",
-            "description", "Live digital carbon footprint of our hackathon",
-            "metrics", Map.of(
-                "discordMessages", currentTotal,
-                "carbonKg", calculation.carbon().kilograms(),
-                "equivalentCarMiles", calculation.equivalents().carMiles()
-            ),
-            "impactStatement", formatImpactStatement(currentTotal, calculation),
-            "viewLiveDashboard", "https://your-dashboard-url.here",
-            "generatedAt", Instant.now().toString()
-        );
+    public ResponseEntity<byte[]> getPublicHackathonData(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return snapshots.publicSummary().toResponse(acceptEncoding);
     }
 
    
     @PostMapping("/simulation/reset")
     public Map<String, Object> resetSimulations() {
-        long previousSimCount = simulationMessages.getAndSet(0);
-        long realMessages = realBotMessages.get();
+        long previousSimCount = hackathonService.resetSimulations();
+        Carbon real = carbonTotals.current().real();
 
         log.info("Reset simulations: removed {} simulation messages, {} real messages remain",
-                 previousSimCount, realMessages);
-
-        CarbonCalculationResponse calculation = carbonService.calculateDiscordCarbon(realMessages);
+                 previousSimCount, real.messages());
 
         return Map.of(
             "success", true,
             "removedSimulations", previousSimCount,
-            "remainingRealMessages", realMessages,
-            "currentCarbon", calculation.carbon(),
+            "remainingRealMessages", real.messages(),
+            "currentCarbon", real.carbon(),
             "message", "Simulation data reset successfully"
         );
     }
     
     
     @GetMapping("/calculate/single")
-    public CarbonCalculationResponse calculateSingle(@RequestParam(defaultValue = "1500") long messages) {
-        return carbonService.calculateDiscordCarbon(messages);
+    public CompletableFuture<CarbonCalculationResponse> calculateSingle(@RequestParam(defaultValue = "1500") long messages) {
+        return carbonService.calculateDiscordCarbonAsync(messages);
     }
  
+    /**
+     * CO2 microservice health as last probed in the background; polling this never
+     * reaches the microservice.
+     */
+    @GetMapping("/health")
+    public ServiceHealthResponse getMicroserviceHealth() {
+        return carbonService.checkHealth();
+    }
+
     @GetMapping("/global-context")
-    public Map<String, Object> getGlobalContext() {
+    public ResponseEntity<byte[]> getGlobalContext(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return globalContext.toResponse(acceptEncoding);
+    }
+
+    private static Map<String, Object> globalContextBody() {
         return Map.of(
             "articles", java.util.List.of(
                 Map.of(
@@ -213,14 +287,4 @@ public class CarbonController {
             "totalArticles", 5
         );
     }
-
-    private String formatImpactStatement(long messages, CarbonCalculationResponse calculation) {
-        double kgCO2 = calculation.carbon().kilograms();
-        double miles = calculation.equivalents().carMiles();
-
-        return String.format(
-            "Our %d Discord messages generated %.3f kg CO₂, equivalent to driving %.1f miles.",
-            messages, kgCO2, miles
-        );
-    }
 }
@@ -0,0 +1,63 @@
+package com.octopus.backend.controller;
+
+import com.octopus.backend.config.ReplicationConfig;
+import com.octopus.backend.exception.ForbiddenException;
+import com.octopus.backend.exception.ValidationException;
+import com.octopus.backend.replication.GossipClient;
+import com.octopus.backend.replication.GossipMessage;
+import com.octopus.backend.replication.ReplicatedCounters;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Instance-to-instance endpoints for the replicated counters: the gossip exchange, and
+ * this node's view of every node's counts for checking convergence. Only mapped when peers
+ * are configured, and every request must carry the shared secret in
+ * {@value GossipClient#SECRET_HEADER}.
+ */
+@RestController
+@ConditionalOnExpression(ReplicationConfig.ENABLED)
+@RequestMapping("/api/internal/replication")
+public class ReplicationController {
+
+    private final ReplicatedCounters counters;
+    private final GossipClient gossipClient;
+
+    public ReplicationController(ReplicatedCounters counters, GossipClient gossipClient) {
+        this.counters = counters;
+        this.gossipClient = gossipClient;
+    }
+
+    @PostMapping("/gossip")
+    public GossipMessage gossip(@RequestHeader(value = GossipClient.SECRET_HEADER, required = false) String secret,
+                                @RequestBody GossipMessage request) {
+        authorize(secret);
+        try {
+            return counters.receive(request);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public Map<String, Object> state(@RequestHeader(value = GossipClient.SECRET_HEADER, required = false) String secret) {
+        authorize(secret);
+        return Map.of(
+            "node", counters.nodeId(),
+            "peers", gossipClient.peers(),
+            "realBotMessages", counters.real(),
+            "simulationMessages", counters.simulation(),
+            "nodes", counters.nodes()
+        );
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void authorize(String secret) {
+        if (!gossipClient.authorizes(secret)) {
+            throw new ForbiddenException("Missing or wrong " + GossipClient.SECRET_HEADER);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.octopus.backend.controller;
+
+import com.octopus.backend.dto.ScenarioSweepRequest;
+import com.octopus.backend.dto.ScenarioSweepResponse;
+import com.octopus.backend.exception.ValidationException;
+import com.octopus.backend.scenario.ScenarioBatch;
+import com.octopus.backend.scenario.ScenarioEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * What-if sweeps over activity mixes (Discord messages, video calls, data transfer,
+ * green or grey hosting), evaluated in-process in one request rather than one
+ * calculation per scenario.
+ */
+@RestController
+@RequestMapping("/api/carbon/scenarios")
+@CrossOrigin(origins = "*")
+public class ScenarioController {
+
+    private static final int DEFAULT_BINS = 20;
+    private static final int MAX_BINS = 100;
+
+    private final ScenarioEngine engine;
+    private final int maxScenarios;
+
+    public ScenarioController(ScenarioEngine engine,
+                              @Value("${co2.scenario.max-scenarios:100000}") int maxScenarios) {
+        this.engine = engine;
+        this.maxScenarios = maxScenarios;
+    }
+
+    @PostMapping
+    public ScenarioSweepResponse sweep(@RequestBody ScenarioSweepRequest request) {
+        int bins = request.histogramBins() == null ? DEFAULT_BINS : request.histogramBins();
+        if (bins < 1 || bins > MAX_BINS) {
+            throw new ValidationException("histogramBins must be between 1 and " + MAX_BINS);
+        }
+        ScenarioBatch batch = ScenarioBatch.of(request.scenarios(), engine.model().greenHosting(), maxScenarios);
+        return engine.evaluate(batch, bins);
+    }
+}
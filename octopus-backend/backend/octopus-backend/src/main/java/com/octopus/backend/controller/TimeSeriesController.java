@@ -0,0 +1,104 @@
+package com.octopus.backend.controller;
+
+import com.octopus.backend.CarbonService;
+import com.octopus.backend.exception.ValidationException;
+import com.octopus.backend.timeseries.MessageTimeSeries;
+import com.octopus.backend.timeseries.MessageTimeSeries.Window;
+import com.octopus.backend.timeseries.Resolution;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Message rate and carbon over time, from the in-memory {@link MessageTimeSeries}.
+ */
+@RestController
+@RequestMapping("/api/carbon/timeseries")
+@CrossOrigin(origins = "*")
+public class TimeSeriesController {
+
+    private static final int DEFAULT_BUCKETS = 60;
+    // The SWD model is linear in message count, so one cached calculation gives the
+    // per-message factor for every bucket.
+    private static final long REFERENCE_MESSAGES = 1_000_000L;
+
+    private final MessageTimeSeries timeSeries;
+    private final CarbonService carbonService;
+
+    public TimeSeriesController(MessageTimeSeries timeSeries, CarbonService carbonService) {
+        this.timeSeries = timeSeries;
+        this.carbonService = carbonService;
+    }
+
+    /**
+     * Buckets at {@code resolution} (1s, 1m or 1h) covering {@code [from, to]}. Without
+     * {@code from}, the range is the {@code window} (e.g. 15m, 6h) ending at {@code to},
+     * which defaults to now; without either, the last 60 buckets.
+     */
+    @GetMapping
+    public Map<String, Object> getTimeSeries(@RequestParam(defaultValue = "1m") String resolution,
+                                             @RequestParam(required = false) String window,
+                                             @RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to) {
+        Window series;
+        try {
+            Resolution parsed = Resolution.fromProperty(resolution);
+            Instant end = to == null ? Instant.now() : Instant.parse(to);
+            Instant start;
+            if (from != null) {
+                start = Instant.parse(from);
+            } else {
+                Duration span = window == null
+                    ? parsed.width().multipliedBy(DEFAULT_BUCKETS)
+                    : DurationStyle.detectAndParse(window);
+                // [end - span, end] would touch one bucket too many.
+                start = end.minus(span).plus(parsed.width());
+            }
+            series = timeSeries.query(parsed, start, end);
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw new ValidationException(e.getMessage(), e);
+        }
+
+        double gramsPerMessage = carbonService.calculateDiscordCarbon(REFERENCE_MESSAGES).carbon().grams()
+            / REFERENCE_MESSAGES;
+        Duration bucketWidth = series.resolution().width();
+        Duration span = bucketWidth.multipliedBy(series.buckets());
+
+        List<Map<String, Object>> points = new ArrayList<>(series.buckets());
+        for (int i = 0; i < series.buckets(); i++) {
+            points.add(Map.of(
+                "t", series.bucketStart(i).toString(),
+                "messages", series.messages(i),
+                "realBotMessages", series.realMessages(i),
+                "simulationMessages", series.simulationMessages(i),
+                "batches", series.batches(i),
+                "grams", series.messages(i) * gramsPerMessage
+            ));
+        }
+
+        long total = series.totalMessages();
+        long[] percentiles = series.percentiles(0.5, 0.9, 0.99, 1.0);
+        return Map.of(
+            "resolution", series.resolution().label(),
+            "from", series.start().toString(),
+            "to", series.start().plus(span).toString(),
+            "totalMessages", total,
+            "totalGrams", total * gramsPerMessage,
+            "messagesPerSecond", total / (double) span.toSeconds(),
+            "messagesPerBucket", Map.of(
+                "p50", percentiles[0],
+                "p90", percentiles[1],
+                "p99", percentiles[2],
+                "max", percentiles[3]
+            ),
+            "retention", timeSeries.retention(series.resolution()).toString(),
+            "points", points
+        );
+    }
+}
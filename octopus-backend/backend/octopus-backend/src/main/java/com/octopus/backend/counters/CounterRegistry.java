@@ -0,0 +1,173 @@
+package com.octopus.backend.counters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Message counters broken down by guild, channel, source and real/simulation.
+ *
+ * <p>Each combination is one {@link LongAdder} cell, keyed by the dimension values'
+ * symbol ids packed into a single {@code long}: 21 bits per dimension plus a simulation
+ * bit. Recording a batch for a known combination is three symbol lookups, a probe of a
+ * primitive-keyed table and a striped add; no locks, no boxing, no string building.
+ *
+ * <p>At most {@code co2.counters.max-cardinality} combinations are tracked. Batches for
+ * further combinations are counted under {@code other/other/other} so totals stay exact.
+ */
+@Component
+public class CounterRegistry {
+
+    private static final int ID_BITS = 21;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int CHANNEL_SHIFT = ID_BITS;
+    private static final int SOURCE_SHIFT = 2 * ID_BITS;
+    private static final long SIMULATION_BIT = 1L << 63;
+
+    private final SymbolTable guilds;
+    private final SymbolTable channels;
+    private final SymbolTable sources;
+    private final LongAdderMap cells;
+    private final int maxCardinality;
+    private final LongAdder overflowedBatches = new LongAdder();
+
+    public CounterRegistry(
+            @Value("${co2.counters.max-cardinality:10000}") int maxCardinality,
+            @Value("${co2.counters.max-names:10000}") int maxNames) {
+        if (maxNames >= ID_MASK - SymbolTable.OTHER) {
+            throw new IllegalArgumentException("co2.counters.max-names must be below " + (ID_MASK - SymbolTable.OTHER));
+        }
+        this.guilds = new SymbolTable(maxNames);
+        this.channels = new SymbolTable(maxNames);
+        this.sources = new SymbolTable(maxNames);
+        this.cells = new LongAdderMap(maxCardinality + 2);
+        this.maxCardinality = maxCardinality;
+    }
+
+    public void add(String guild, String channel, String source, boolean simulation, long count) {
+        long key = pack(guilds.id(guild), channels.id(channel), sources.id(source), simulation);
+        LongAdder cell = cells.get(key);
+        if (cell == null) {
+            cell = createCell(key, simulation);
+        }
+        cell.add(count);
+    }
+
+    /**
+     * Zeroes every simulation cell. Subtracting the observed sum (rather than resetting)
+     * keeps batches that land concurrently.
+     */
+    public void resetSimulation() {
+        cells.forEach((key, cell) -> {
+            if (isSimulation(key)) {
+                cell.add(-cell.sum());
+            }
+        });
+    }
+
+    /**
+     * Largest {@code limit} values of {@code dimension} by message count, optionally
+     * restricted to real ({@code false}) or simulation ({@code true}) messages.
+     */
+    public List<Entry> top(Dimension dimension, int limit, Boolean simulation) {
+        Map<Integer, long[]> sums = new HashMap<>();
+        cells.forEach((key, cell) -> {
+            if (simulation == null || isSimulation(key) == simulation) {
+                sums.computeIfAbsent(idOf(key, dimension), id -> new long[1])[0] += cell.sum();
+            }
+        });
+        SymbolTable symbols = symbols(dimension);
+        List<Entry> entries = new ArrayList<>(sums.size());
+        sums.forEach((id, sum) -> {
+            if (sum[0] > 0) {
+                entries.add(new Entry(symbols.name(id), sum[0]));
+            }
+        });
+        entries.sort(Comparator.comparingLong(Entry::messages).reversed().thenComparing(Entry::name));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    /**
+     * Messages matching every given dimension value; {@code null} matches anything.
+     */
+    public Totals totals(String guild, String channel, String source) {
+        int guildId = guild == null ? -1 : guilds.find(guild);
+        int channelId = channel == null ? -1 : channels.find(channel);
+        int sourceId = source == null ? -1 : sources.find(source);
+        if (guildId == 0 || channelId == 0 || sourceId == 0) {
+            return new Totals(0, 0);
+        }
+        long[] sums = new long[2];
+        cells.forEach((key, cell) -> {
+            if ((guildId < 0 || idOf(key, Dimension.GUILD) == guildId)
+                && (channelId < 0 || idOf(key, Dimension.CHANNEL) == channelId)
+                && (sourceId < 0 || idOf(key, Dimension.SOURCE) == sourceId)) {
+                sums[isSimulation(key) ? 1 : 0] += cell.sum();
+            }
+        });
+        return new Totals(sums[0], sums[1]);
+    }
+
+    public int cardinality() {
+        return cells.size();
+    }
+
+    public int maxCardinality() {
+        return maxCardinality;
+    }
+
+    public long overflowedBatches() {
+        return overflowedBatches.sum();
+    }
+
+    public record Entry(String name, long messages) {}
+
+    public record Totals(long realMessages, long simulationMessages) {
+        public long totalMessages() {
+            return realMessages + simulationMessages;
+        }
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private LongAdder createCell(long key, boolean simulation) {
+        if (cells.size() < maxCardinality) {
+            return cells.getOrCreate(key);
+        }
+        overflowedBatches.increment();
+        long overflowKey = pack(SymbolTable.OTHER, SymbolTable.OTHER, SymbolTable.OTHER, simulation);
+        LongAdder overflow = cells.get(overflowKey);
+        return overflow != null ? overflow : cells.getOrCreate(overflowKey);
+    }
+
+    private static long pack(int guildId, int channelId, int sourceId, boolean simulation) {
+        long key = guildId | ((long) channelId << CHANNEL_SHIFT) | ((long) sourceId << SOURCE_SHIFT);
+        return simulation ? key | SIMULATION_BIT : key;
+    }
+
+    private static int idOf(long key, Dimension dimension) {
+        return switch (dimension) {
+            case GUILD -> (int) (key & ID_MASK);
+            case CHANNEL -> (int) ((key >>> CHANNEL_SHIFT) & ID_MASK);
+            case SOURCE -> (int) ((key >>> SOURCE_SHIFT) & ID_MASK);
+        };
+    }
+
+    private static boolean isSimulation(long key) {
+        return (key & SIMULATION_BIT) != 0;
+    }
+
+    private SymbolTable symbols(Dimension dimension) {
+        return switch (dimension) {
+            case GUILD -> guilds;
+            case CHANNEL -> channels;
+            case SOURCE -> sources;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.octopus.backend.counters;
+
+import java.util.Locale;
+
+/**
+ * Dimensions message counters are broken down by.
+ */
+public enum Dimension {
+    GUILD, CHANNEL, SOURCE;
+
+    public static Dimension fromProperty(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown dimension '" + value + "'. Use guild, channel or source", e);
+        }
+    }
+}
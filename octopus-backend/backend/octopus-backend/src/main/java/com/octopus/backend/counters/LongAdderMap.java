@@ -0,0 +1,115 @@
+package com.octopus.backend.counters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-addressing (linear probing) map from non-zero {@code long} keys to {@link LongAdder}
+ * cells. Lookups are lock-free and allocation-free; inserts take a lock and are expected
+ * to be rare, since the key space is bounded by the registry's cardinality cap.
+ *
+ * <p>A cell, once created, lives in every later table, so increments made through a cell
+ * obtained from a table that has since been resized are never lost.
+ */
+final class LongAdderMap {
+
+    private static final long EMPTY = 0L;
+
+    private volatile Table table;
+    private volatile int size;
+
+    LongAdderMap(int expectedEntries) {
+        this.table = new Table(tableSizeFor(expectedEntries));
+    }
+
+    LongAdder get(long key) {
+        Table current = table;
+        int index = current.indexFor(key);
+        while (true) {
+            long slotKey = current.keys.get(index);
+            if (slotKey == key) {
+                return current.cells[index];
+            }
+            if (slotKey == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & current.mask;
+        }
+    }
+
+    synchronized LongAdder getOrCreate(long key) {
+        LongAdder existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if ((size + 1) * 2 > table.cells.length) {
+            table = resized(table);
+        }
+        LongAdder cell = new LongAdder();
+        table.insert(key, cell);
+        size++;
+        return cell;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(CellVisitor visitor) {
+        Table current = table;
+        for (int i = 0; i < current.cells.length; i++) {
+            long key = current.keys.get(i);
+            if (key != EMPTY) {
+                visitor.visit(key, current.cells[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface CellVisitor {
+        void visit(long key, LongAdder cell);
+    }
+
+    private static Table resized(Table old) {
+        Table grown = new Table(old.cells.length * 2);
+        for (int i = 0; i < old.cells.length; i++) {
+            long key = old.keys.get(i);
+            if (key != EMPTY) {
+                grown.insert(key, old.cells[i]);
+            }
+        }
+        return grown;
+    }
+
+    private static int tableSizeFor(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedEntries * 2 - 1)) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static final class Table {
+        final AtomicLongArray keys;
+        final LongAdder[] cells;
+        final int mask;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.cells = new LongAdder[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int indexFor(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        void insert(long key, LongAdder cell) {
+            int index = indexFor(key);
+            while (keys.get(index) != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            cells[index] = cell;
+            // Volatile key write publishes the cell to lock-free readers that match the key.
+            keys.set(index, key);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.octopus.backend.counters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns dimension values (guild, channel and source names) to small positive ints.
+ * Lookups of known names are a single map read with no allocation. Once {@code capacity}
+ * names are known, new ones map to {@link #OTHER}.
+ */
+final class SymbolTable {
+
+    static final int UNKNOWN = 1;
+    static final int OTHER = 2;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> names;
+    private int next = OTHER + 1;
+
+    SymbolTable(int capacity) {
+        this.names = new AtomicReferenceArray<>(capacity + OTHER + 1);
+        names.set(UNKNOWN, "unknown");
+        names.set(OTHER, "other");
+        ids.put("unknown", UNKNOWN);
+        ids.put("other", OTHER);
+    }
+
+    int id(String name) {
+        if (name == null || name.isBlank()) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(name);
+        return id != null ? id : register(name);
+    }
+
+    /**
+     * Id of a known name without registering it; 0 when unknown.
+     */
+    int find(String name) {
+        if (name == null || name.isBlank()) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(name);
+        return id != null ? id : 0;
+    }
+
+    String name(int id) {
+        return names.get(id);
+    }
+
+    private synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (next >= names.length()) {
+            return OTHER;
+        }
+        int id = next++;
+        // Name first, so anyone who can see the id can resolve it.
+        names.set(id, name);
+        ids.put(name, id);
+        return id;
+    }
+}
@@ -0,0 +1,205 @@
+package com.octopus.backend.dedup;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the batch ids seen in the last {@code window}, in fixed memory, so that a bot
+ * retrying a request that had in fact succeeded is not counted twice.
+ *
+ * <p>Ids are kept as 64-bit fingerprints in a ring of {@code slices} open-addressing
+ * tables, each covering {@code window / (slices - 1)}. Inserts go to the newest table;
+ * when its time is up, or it holds {@code maxIdsPerSlice} ids, the oldest table is
+ * cleared and becomes the newest. An id is therefore remembered for at least the window
+ * unless ids arrive fast enough to fill a table early, which shortens the window (see
+ * {@link #earlyRotations()}) rather than growing memory. A lookup probes each table once,
+ * so the cost per batch is constant.
+ *
+ * <p>Two distinct ids collide with probability about 2<sup>-64</sup> per pair, which
+ * would drop the later batch as a duplicate.
+ */
+public final class BatchIdWindow {
+
+    private static final long EMPTY = 0L;
+
+    private final long sliceNanos;
+    private final int maxIdsPerSlice;
+    private final LongSupplier clock;
+    private final long[][] tables;
+    private final int[] sizes;
+    private final int mask;
+
+    // Guarded by this.
+    private int newest;
+    private long newestStartedAt;
+    private long earlyRotations;
+
+    /**
+     * @param clock nanosecond time source, {@code System::nanoTime} outside tests
+     */
+    public BatchIdWindow(long windowNanos, int slices, int maxIdsPerSlice, LongSupplier clock) {
+        if (slices < 2) {
+            throw new IllegalArgumentException("At least 2 slices are needed, got " + slices);
+        }
+        this.sliceNanos = Math.max(1, windowNanos / (slices - 1));
+        this.maxIdsPerSlice = maxIdsPerSlice;
+        this.clock = clock;
+        int tableSize = Integer.highestOneBit(Math.max(8, maxIdsPerSlice * 2 - 1)) << 1;
+        this.tables = new long[slices][tableSize];
+        this.sizes = new int[slices];
+        this.mask = tableSize - 1;
+        this.newestStartedAt = clock.getAsLong();
+    }
+
+    /**
+     * Records {@code batchId} and returns whether it is new, i.e. whether the batch should
+     * be applied. Concurrent calls with the same id return {@code true} exactly once.
+     */
+    public boolean firstSeen(String batchId) {
+        long fingerprint = fingerprint(batchId);
+        synchronized (this) {
+            advance(clock.getAsLong());
+            for (long[] table : tables) {
+                if (contains(table, fingerprint)) {
+                    return false;
+                }
+            }
+            if (sizes[newest] >= maxIdsPerSlice) {
+                rotate();
+                newestStartedAt = clock.getAsLong();
+                earlyRotations++;
+            }
+            insert(tables[newest], fingerprint);
+            sizes[newest]++;
+            return true;
+        }
+    }
+
+    /**
+     * Forgets {@code batchId}, claimed by {@link #firstSeen} for a batch that then failed
+     * to apply, so that its retry is applied rather than taken for a duplicate.
+     */
+    public synchronized void forget(String batchId) {
+        long fingerprint = fingerprint(batchId);
+        for (int i = 0; i < tables.length; i++) {
+            if (remove(tables[i], fingerprint)) {
+                sizes[i]--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ids currently remembered.
+     */
+    public synchronized int size() {
+        return Arrays.stream(sizes).sum();
+    }
+
+    /**
+     * Times a slice filled up before its time was over, each of which cut the window short.
+     */
+    public synchronized long earlyRotations() {
+        return earlyRotations;
+    }
+
+    /**
+     * Bytes held by the tables, independent of how many ids are remembered.
+     */
+    public long footprintBytes() {
+        return (long) tables.length * tables[0].length * Long.BYTES;
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void advance(long now) {
+        long elapsed = now - newestStartedAt;
+        if (elapsed < sliceNanos) {
+            return;
+        }
+        long elapsedSlices = elapsed / sliceNanos;
+        for (long i = 0; i < Math.min(elapsedSlices, tables.length); i++) {
+            rotate();
+        }
+        newestStartedAt += elapsedSlices * sliceNanos;
+    }
+
+    private void rotate() {
+        newest = (newest + 1) % tables.length;
+        Arrays.fill(tables[newest], EMPTY);
+        sizes[newest] = 0;
+    }
+
+    private boolean contains(long[] table, long fingerprint) {
+        int index = indexFor(fingerprint);
+        while (true) {
+            long slot = table[index];
+            if (slot == fingerprint) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void insert(long[] table, long fingerprint) {
+        int index = indexFor(fingerprint);
+        while (table[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        table[index] = fingerprint;
+    }
+
+    /**
+     * Removes {@code fingerprint} by shifting later entries of its probe run back into the
+     * hole, so lookups never need tombstones.
+     */
+    private boolean remove(long[] table, long fingerprint) {
+        int hole = indexFor(fingerprint);
+        while (table[hole] != fingerprint) {
+            if (table[hole] == EMPTY) {
+                return false;
+            }
+            hole = (hole + 1) & mask;
+        }
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long slot = table[index];
+            if (slot == EMPTY) {
+                break;
+            }
+            // Movable unless its home lies cyclically between the hole and here.
+            if (((index - indexFor(slot)) & mask) >= ((index - hole) & mask)) {
+                table[hole] = slot;
+                hole = index;
+            }
+        }
+        table[hole] = EMPTY;
+        return true;
+    }
+
+    private int indexFor(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer so that
+     * every bit of the id affects the table index. Never {@link #EMPTY}.
+     */
+    static long fingerprint(String batchId) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < batchId.length(); i++) {
+            hash ^= batchId.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+}
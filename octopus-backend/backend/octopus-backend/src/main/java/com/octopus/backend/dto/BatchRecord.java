@@ -0,0 +1,22 @@
+package com.octopus.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One batch of counted messages as reported by a bot. Only {@code count} is required;
+ * {@code isSimulation} is accepted as an alias of {@code simulation} for the single-batch
+ * endpoint's original request shape.
+ */
+public record BatchRecord(
+    @JsonProperty("source") String source,
+    @JsonProperty("guild") String guild,
+    @JsonProperty("channel") String channel,
+    @JsonProperty("count") Long count,
+    @JsonProperty("simulation") @JsonAlias("isSimulation") Boolean simulation,
+    @JsonProperty("batchId") String batchId
+) {
+    public boolean isSimulation() {
+        return Boolean.TRUE.equals(simulation);
+    }
+}
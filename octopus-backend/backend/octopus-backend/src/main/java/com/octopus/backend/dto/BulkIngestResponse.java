@@ -0,0 +1,84 @@
+package com.octopus.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.octopus.backend.dto.CarbonCalculationResponse.CarbonMetrics;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+
+import java.time.Instant;
+import java.util.List;
+
+public record BulkIngestResponse(
+    @JsonProperty("accepted") int accepted,
+    @JsonProperty("rejected") int rejected,
+    @JsonProperty("duplicates") int duplicates,
+    @JsonProperty("throttled") int throttled,
+    @JsonProperty("deferred") int deferred,
+    @JsonProperty("retryAfterSeconds") @JsonInclude(JsonInclude.Include.NON_NULL) Long retryAfterSeconds,
+    @JsonProperty("batches") List<BatchAck> batches,
+    @JsonProperty("hackathon") HackathonTotals hackathon
+) {
+    /**
+     * Acknowledgement for the record at {@code index} of the request, in request order.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BatchAck(
+        @JsonProperty("index") int index,
+        @JsonProperty("batchId") String batchId,
+        @JsonProperty("status") Status status,
+        @JsonProperty("count") Long count,
+        @JsonProperty("error") String error
+    ) {
+        public static BatchAck accepted(int index, BatchRecord record) {
+            return new BatchAck(index, record.batchId(), Status.ACCEPTED, record.count(), null);
+        }
+
+        /**
+         * A batch whose id was already applied, typically a bot retry of a request that
+         * succeeded; it is acknowledged so the sender stops retrying, but not applied again.
+         */
+        public static BatchAck duplicate(int index, BatchRecord record) {
+            return new BatchAck(index, record.batchId(), Status.DUPLICATE, record.count(), null);
+        }
+
+        /**
+         * A batch from a source over its rate, not applied; the sender should resend it,
+         * same batch id, after {@code retryAfterSeconds}.
+         */
+        public static BatchAck throttled(int index, BatchRecord record) {
+            return new BatchAck(index, record.batchId(), Status.THROTTLED, record.count(), null);
+        }
+
+        /**
+         * A batch from a source over its rate whose count will be applied with the
+         * source's next admitted batch; the sender need not resend it.
+         */
+        public static BatchAck deferred(int index, BatchRecord record) {
+            return new BatchAck(index, record.batchId(), Status.DEFERRED, record.count(), null);
+        }
+
+        public static BatchAck rejected(int index, BatchRecord record, String error) {
+            if (record == null) {
+                return new BatchAck(index, null, Status.REJECTED, null, error);
+            }
+            return new BatchAck(index, record.batchId(), Status.REJECTED, record.count(), error);
+        }
+    }
+
+    public enum Status {
+        @JsonProperty("accepted") ACCEPTED,
+        @JsonProperty("rejected") REJECTED,
+        @JsonProperty("duplicate") DUPLICATE,
+        @JsonProperty("throttled") THROTTLED,
+        @JsonProperty("deferred") DEFERRED
+    }
+
+    public record HackathonTotals(
+        @JsonProperty("totalMessages") long totalMessages,
+        @JsonProperty("realBotMessages") long realBotMessages,
+        @JsonProperty("simulationMessages") long simulationMessages,
+        @JsonProperty("totalCarbon") CarbonMetrics totalCarbon,
+        @JsonProperty("totalEquivalents") PhysicalEquivalents totalEquivalents,
+        @JsonProperty("lastUpdated") Instant lastUpdated
+    ) {}
+}
@@ -12,7 +12,8 @@ public record CarbonCalculationResponse(
     @JsonProperty("calculationModel") String calculationModel,
     @JsonProperty("note") String note,
     @JsonProperty("processingTimeMs") Long processingTimeMs,
-    @JsonProperty("traceId") String traceId
+    @JsonProperty("traceId") String traceId,
+    @JsonProperty("stale") boolean stale
 ) {
     public CarbonCalculationResponse(
         String activity, Long count, CarbonMetrics carbon,
@@ -20,7 +21,7 @@ public record CarbonCalculationResponse(
         String calculationModel, String note
     ) {
         this(activity, count, carbon, equivalents, timestamp,
-             calculationModel, note, null, null);
+             calculationModel, note, null, null, false);
     }
 
     public record CarbonMetrics(
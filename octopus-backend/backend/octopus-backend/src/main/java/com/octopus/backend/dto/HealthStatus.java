@@ -1,5 +1,7 @@
 package com.octopus.backend.dto;
 
 public enum HealthStatus {
-    OPERATIONAL, DEGRADED, DOWN
+    OPERATIONAL, DEGRADED, DOWN,
+    /** Not probed yet. */
+    UNKNOWN
 }
@@ -0,0 +1,23 @@
+package com.octopus.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * A what-if sweep: many activity mixes evaluated together. Omitted activities count as
+ * zero; omitted {@code greenHosting} uses the model's default.
+ */
+public record ScenarioSweepRequest(
+    @JsonProperty("scenarios") List<ActivityMix> scenarios,
+    @JsonProperty("histogramBins") Integer histogramBins
+) {
+    public record ActivityMix(
+        @JsonProperty("label") String label,
+        @JsonProperty("messages") Long messages,
+        @JsonProperty("callMinutes") Double callMinutes,
+        @JsonProperty("participants") Long participants,
+        @JsonProperty("dataBytes") Double dataBytes,
+        @JsonProperty("greenHosting") Boolean greenHosting
+    ) {}
+}
@@ -0,0 +1,56 @@
+package com.octopus.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+
+import java.util.List;
+
+/**
+ * Aggregates of a {@link ScenarioSweepRequest}; per-scenario carbon is in grams.
+ */
+public record ScenarioSweepResponse(
+    @JsonProperty("scenarios") int scenarios,
+    @JsonProperty("grams") Distribution grams,
+    @JsonProperty("meanEquivalents") PhysicalEquivalents meanEquivalents,
+    @JsonProperty("activityShare") ActivityShare activityShare,
+    @JsonProperty("histogram") List<Bin> histogram,
+    @JsonProperty("lowest") ScenarioRef lowest,
+    @JsonProperty("highest") ScenarioRef highest,
+    @JsonProperty("calculationModel") String calculationModel,
+    @JsonProperty("processingTimeMs") long processingTimeMs
+) {
+    public record Distribution(
+        @JsonProperty("min") double min,
+        @JsonProperty("mean") double mean,
+        @JsonProperty("p50") double p50,
+        @JsonProperty("p90") double p90,
+        @JsonProperty("p99") double p99,
+        @JsonProperty("max") double max
+    ) {}
+
+    /**
+     * Fraction of the sweep's total carbon from each activity.
+     */
+    public record ActivityShare(
+        @JsonProperty("discordMessages") double discordMessages,
+        @JsonProperty("videoCalls") double videoCalls,
+        @JsonProperty("dataTransfer") double dataTransfer
+    ) {}
+
+    /**
+     * Scenarios with {@code lowerGrams <= grams < upperGrams}; the last bin includes its upper bound.
+     */
+    public record Bin(
+        @JsonProperty("lowerGrams") double lowerGrams,
+        @JsonProperty("upperGrams") double upperGrams,
+        @JsonProperty("count") int count
+    ) {}
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ScenarioRef(
+        @JsonProperty("index") int index,
+        @JsonProperty("label") String label,
+        @JsonProperty("grams") double grams
+    ) {}
+}
@@ -1,9 +1,29 @@
 package com.octopus.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
+import java.util.List;
 
+/**
+ * Latest health probe of a downstream service: its status since {@code since}, what the
+ * probe saw ({@code latencyMs}, {@code detail}), and the most recent status changes,
+ * oldest first.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ServiceHealthResponse(
     HealthStatus status,
     Instant checkedAt,
-    String service
-) {}
+    String service,
+    Long latencyMs,
+    String detail,
+    Instant since,
+    List<Transition> transitions
+) {
+    public static ServiceHealthResponse notProbed(String service) {
+        return new ServiceHealthResponse(HealthStatus.UNKNOWN, null, service, null, "not probed yet", null, List.of());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Transition(HealthStatus from, HealthStatus to, Instant at, String detail) {}
+}
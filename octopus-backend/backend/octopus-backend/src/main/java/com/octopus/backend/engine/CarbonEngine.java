@@ -0,0 +1,31 @@
+package com.octopus.backend.engine;
+
+import com.octopus.backend.dto.CarbonCalculationResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Strategy for turning an activity count into a carbon estimate.
+ * Implementations may compute in-process or delegate to the CO2 microservice.
+ */
+public interface CarbonEngine {
+
+    CarbonCalculationResponse calculateDiscord(long messageCount);
+
+    /**
+     * Non-blocking variant. Engines that do I/O override this; in-process engines
+     * complete immediately on the calling thread.
+     */
+    default CompletableFuture<CarbonCalculationResponse> calculateDiscordAsync(long messageCount) {
+        try {
+            return CompletableFuture.completedFuture(calculateDiscord(messageCount));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Short identifier used in logs and startup output.
+     */
+    String name();
+}
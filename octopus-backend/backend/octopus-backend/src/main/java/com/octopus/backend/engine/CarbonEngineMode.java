@@ -0,0 +1,20 @@
+package com.octopus.backend.engine;
+
+import java.util.Locale;
+
+/**
+ * Values accepted by {@code co2.engine.mode}.
+ */
+public enum CarbonEngineMode {
+    LOCAL, REMOTE, LOCAL_WITH_REMOTE_VERIFICATION;
+
+    public static CarbonEngineMode fromProperty(String value) {
+        String normalized = value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown co2.engine.mode '" + value + "'. Use local, remote or local-with-remote-verification", e);
+        }
+    }
+}
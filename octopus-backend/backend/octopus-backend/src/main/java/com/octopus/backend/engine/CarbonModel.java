@@ -0,0 +1,92 @@
+package com.octopus.backend.engine;
+
+/**
+ * Versioned constants of the Sustainable Web Design model as used by
+ * {@code src/calculator.js}. Bump {@link #version} whenever a constant changes so
+ * that results stay traceable through {@code calculationModel}.
+ */
+public record CarbonModel(
+    String id,
+    String version,
+    long bytesPerDiscordMessage,
+    long bytesPerVideoMinutePerUser,
+    double kwhPerGb,
+    double endUserDeviceShare,
+    double networkShare,
+    double productionShare,
+    double dataCenterShare,
+    double globalGridIntensity,
+    double renewablesGridIntensity,
+    double kgCo2PerCarMile,
+    double treeDaysPerKgCo2,
+    boolean greenHosting
+) {
+
+    private static final double GIGABYTE = 1000.0 * 1000.0 * 1000.0;
+
+    /**
+     * SWD v3 exactly as shipped in {@code @tgwf/co2} 0.17.0, with the calculator.js
+     * byte estimates and equivalence factors.
+     */
+    public static final CarbonModel SWD_V3 = new CarbonModel(
+        "swd",
+        "v3-co2js-0.17.0",
+        2 * 1024,               // BYTES_PER_DISCORD_MESSAGE
+        3 * 1024 * 1024,        // BYTES_PER_ZOOM_MINUTE_PER_USER
+        0.81,                   // KWH_PER_GB
+        0.52,                   // END_USER_DEVICE_ENERGY
+        0.14,                   // NETWORK_ENERGY
+        0.19,                   // PRODUCTION_ENERGY
+        0.15,                   // DATACENTER_ENERGY
+        472.94,                 // average-intensities WORLD (g/kWh)
+        50,                     // RENEWABLES_GRID_INTENSITY (g/kWh)
+        0.4,                    // KG_CO2_PER_CAR_MILE
+        0.5,                    // TREE_DAYS_PER_KG_CO2
+        true                    // GREEN_HOSTING
+    );
+
+    /**
+     * Value reported in {@code calculationModel}, e.g. {@code swd@v3-co2js-0.17.0}.
+     */
+    public String label() {
+        return id + "@" + version;
+    }
+
+    /**
+     * Grams of CO2e for the given transfer. Mirrors {@code SustainableWebDesign.perByte}
+     * operation-for-operation (including summation order) so results are bit-identical
+     * to the JavaScript engine.
+     */
+    public double gramsForBytes(double bytes, boolean green) {
+        if (bytes < 1) {
+            bytes = 0;
+        }
+        double energy = bytes / GIGABYTE * kwhPerGb;
+        double dataCenterIntensity = green ? renewablesGridIntensity : globalGridIntensity;
+
+        double device = energy * endUserDeviceShare * globalGridIntensity;
+        double network = energy * networkShare * globalGridIntensity;
+        double production = energy * productionShare * globalGridIntensity;
+        double dataCenter = energy * dataCenterShare * dataCenterIntensity;
+        return device + network + production + dataCenter;
+    }
+
+    public double discordBytes(long messageCount) {
+        return (double) messageCount * bytesPerDiscordMessage;
+    }
+
+    /**
+     * Bytes of a video call, in {@code calculator.js} operation order.
+     */
+    public double videoCallBytes(double minutes, long participants) {
+        return minutes * participants * bytesPerVideoMinutePerUser;
+    }
+
+    public double carMiles(double kilograms) {
+        return kilograms / kgCo2PerCarMile;
+    }
+
+    public double treeDays(double kilograms) {
+        return kilograms / treeDaysPerKgCo2;
+    }
+}
@@ -0,0 +1,48 @@
+package com.octopus.backend.engine;
+
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.dto.CarbonCalculationResponse.CarbonMetrics;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+
+import java.time.Instant;
+
+/**
+ * In-process port of {@code CarbonCalculator.calculateForDiscord}. No I/O, no shared
+ * state: safe to call from any thread and keeps working when the microservice is down.
+ */
+public class LocalCarbonEngine implements CarbonEngine {
+
+    static final String ACTIVITY_DISCORD = "discord_message";
+    static final String NOTE = "Estimates are conservative and include a green hosting factor.";
+
+    private final CarbonModel model;
+
+    public LocalCarbonEngine(CarbonModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public CarbonCalculationResponse calculateDiscord(long messageCount) {
+        double grams = model.gramsForBytes(model.discordBytes(messageCount), model.greenHosting());
+        double kilograms = grams / 1000;
+
+        return new CarbonCalculationResponse(
+            ACTIVITY_DISCORD,
+            messageCount,
+            new CarbonMetrics(grams, kilograms),
+            new PhysicalEquivalents(model.carMiles(kilograms), model.treeDays(kilograms)),
+            Instant.now(),
+            model.label(),
+            NOTE
+        );
+    }
+
+    @Override
+    public String name() {
+        return "local(" + model.label() + ")";
+    }
+
+    public CarbonModel model() {
+        return model;
+    }
+}
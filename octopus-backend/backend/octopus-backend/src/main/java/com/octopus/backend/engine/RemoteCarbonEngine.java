@@ -0,0 +1,36 @@
+package com.octopus.backend.engine;
+
+import com.octopus.backend.client.Co2MicroserviceClient;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import org.springframework.web.client.RestClientException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delegates every calculation to the Node CO2 microservice ({@code POST /calculate/discord}).
+ * Transport errors surface as {@link RestClientException} subtypes so that
+ * {@code CarbonService} can keep translating them into domain exceptions.
+ */
+public class RemoteCarbonEngine implements CarbonEngine {
+
+    private final Co2MicroserviceClient client;
+
+    public RemoteCarbonEngine(Co2MicroserviceClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CarbonCalculationResponse calculateDiscord(long messageCount) {
+        return client.calculateDiscord(messageCount);
+    }
+
+    @Override
+    public CompletableFuture<CarbonCalculationResponse> calculateDiscordAsync(long messageCount) {
+        return client.calculateDiscordAsync(messageCount);
+    }
+
+    @Override
+    public String name() {
+        return "remote(" + client.baseUrl() + ")";
+    }
+}
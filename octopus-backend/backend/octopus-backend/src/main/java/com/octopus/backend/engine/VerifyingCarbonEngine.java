@@ -0,0 +1,76 @@
+package com.octopus.backend.engine;
+
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers from the local engine and cross-checks against the remote engine in the
+ * background. Verification never adds latency: when too many checks are in flight,
+ * further ones are dropped rather than queued.
+ */
+public class VerifyingCarbonEngine implements CarbonEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(VerifyingCarbonEngine.class);
+    private static final double RELATIVE_TOLERANCE = 1e-9;
+    private static final int MAX_IN_FLIGHT = 64;
+
+    private final CarbonEngine primary;
+    private final CarbonEngine reference;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final AtomicLong mismatches = new AtomicLong();
+
+    public VerifyingCarbonEngine(CarbonEngine primary, CarbonEngine reference) {
+        this.primary = primary;
+        this.reference = reference;
+    }
+
+    @Override
+    public CarbonCalculationResponse calculateDiscord(long messageCount) {
+        CarbonCalculationResponse result = primary.calculateDiscord(messageCount);
+        if (inFlight.tryAcquire()) {
+            reference.calculateDiscordAsync(messageCount).whenComplete((remote, error) -> {
+                inFlight.release();
+                if (error != null) {
+                    log.debug("Verification call failed for {} messages: {}", messageCount, error.getMessage());
+                } else {
+                    verify(messageCount, result, remote);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return primary.name() + " verified-by " + reference.name();
+    }
+
+    public long mismatches() {
+        return mismatches.get();
+    }
+
+    private void verify(long messageCount, CarbonCalculationResponse local, CarbonCalculationResponse remote) {
+        if (remote == null || remote.carbon() == null) {
+            log.warn("Verification skipped for {} messages: empty remote response", messageCount);
+            return;
+        }
+        double expected = remote.carbon().grams();
+        double actual = local.carbon().grams();
+        if (!closeEnough(expected, actual)) {
+            mismatches.incrementAndGet();
+            log.warn("Carbon engine mismatch for {} messages: local={}g ({}) remote={}g ({})",
+                     messageCount, actual, local.calculationModel(), expected, remote.calculationModel());
+        } else {
+            log.debug("Carbon engine verified for {} messages", messageCount);
+        }
+    }
+
+    private static boolean closeEnough(double expected, double actual) {
+        double scale = Math.max(Math.abs(expected), Math.abs(actual));
+        return Math.abs(expected - actual) <= scale * RELATIVE_TOLERANCE;
+    }
+}
@@ -0,0 +1,11 @@
+package com.octopus.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class ForbiddenException extends ServiceException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
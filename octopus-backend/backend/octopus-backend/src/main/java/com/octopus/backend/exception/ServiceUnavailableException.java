@@ -1,5 +1,9 @@
 package com.octopus.backend.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
 public class ServiceUnavailableException extends ServiceException {
     public ServiceUnavailableException(String message) {
         super(message);
@@ -0,0 +1,22 @@
+package com.octopus.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends ServiceException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Whole seconds for the {@code Retry-After} header, at least 1.
+     */
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,5 +1,9 @@
 package com.octopus.backend.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class ValidationException extends ServiceException {
     public ValidationException(String message) {
         super(message);
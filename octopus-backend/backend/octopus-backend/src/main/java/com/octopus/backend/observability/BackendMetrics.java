@@ -0,0 +1,268 @@
+package com.octopus.backend.observability;
+
+import com.octopus.backend.admission.IngestAdmission;
+import com.octopus.backend.admission.IngestAdmission.Decision;
+import com.octopus.backend.client.CircuitBreaker;
+import com.octopus.backend.client.Co2MicroserviceClient;
+import com.octopus.backend.dedup.BatchIdWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All backend-specific meters, scraped in Prometheus format from
+ * {@code /actuator/prometheus}. Meters are registered once and reused, so recording is a
+ * map read at most. Latencies are published as percentile histograms (1ms..30s) so p99
+ * can be aggregated across instances.
+ */
+@Component
+public class BackendMetrics {
+
+    public enum Outcome {
+        SUCCESS, CLIENT_ERROR, SERVER_ERROR, IO_ERROR, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer[]> downstream = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> calculations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> retries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> circuitRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> totalsDrift = new ConcurrentHashMap<>();
+    private final Counter realMessages;
+    private final Counter simulationMessages;
+    private final Counter batches;
+    private final Counter duplicateBatches;
+    // [simulation ? 1 : 0][decision]
+    private final Counter[][] admissions = new Counter[2][];
+    private final Counter staleResponses;
+    private final DistributionSummary coalescedBatches;
+    private final Timer persistenceWritten;
+    private final Timer persistenceFailed;
+
+    public BackendMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.realMessages = ingestCounter("real");
+        this.simulationMessages = ingestCounter("simulation");
+        this.batches = Counter.builder("co2.ingest.batches")
+            .description("Batches recorded")
+            .register(registry);
+        this.duplicateBatches = Counter.builder("co2.ingest.duplicates")
+            .description("Batches acknowledged without being applied because their batch id was already seen")
+            .register(registry);
+        this.admissions[0] = admissionCounters("real");
+        this.admissions[1] = admissionCounters("simulation");
+        this.staleResponses = Counter.builder("co2.calculation.stale")
+            .description("Calculations answered from the last known good result")
+            .register(registry);
+        this.coalescedBatches = DistributionSummary.builder("co2.microservice.coalesced.requests")
+            .description("Calculation requests merged into one microservice call")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        this.persistenceWritten = persistenceTimer("success");
+        this.persistenceFailed = persistenceTimer("failure");
+    }
+
+    /**
+     * One exchange with the CO2 microservice; {@code endpoint} is the fixed path, never a URI.
+     */
+    public void recordDownstream(String endpoint, Outcome outcome, long nanos) {
+        downstream.computeIfAbsent(endpoint, this::downstreamTimers)[outcome.ordinal()]
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCalculation(String engine, long nanos) {
+        calculations.computeIfAbsent(engine, name -> latencyTimer("co2.calculation")
+                .description("Uncached carbon calculations")
+                .tag("engine", name)
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIngest(long realCount, long simulationCount, int batchCount) {
+        realMessages.increment(realCount);
+        simulationMessages.increment(simulationCount);
+        batches.increment(batchCount);
+    }
+
+    public void recordDuplicateBatch() {
+        duplicateBatches.increment();
+    }
+
+    /**
+     * One admission decision for an ingestion request (shed) or for one source in it.
+     */
+    public void recordAdmission(boolean simulation, Decision decision) {
+        admissions[simulation ? 1 : 0][decision.ordinal()].increment();
+    }
+
+    /**
+     * A failed microservice call that was retried, or that was not because the retry
+     * budget was spent.
+     */
+    public void recordRetry(String endpoint, boolean retried) {
+        retries.computeIfAbsent(endpoint, name -> new Counter[] {
+                retryCounter(name, "denied"), retryCounter(name, "retried")
+            })[retried ? 1 : 0]
+            .increment();
+    }
+
+    /**
+     * A call not attempted because the circuit breaker was open ({@code circuit}) or the
+     * health prober had the service down ({@code health}).
+     */
+    public void recordCircuitRejection(String endpoint, String reason) {
+        circuitRejections.computeIfAbsent(endpoint + " " + reason, key -> Counter.builder("co2.microservice.rejected")
+                .description("Calls not attempted because the circuit breaker was open or the service was probed down")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(registry))
+            .increment();
+    }
+
+    public void recordCoalescedBatch(int requests) {
+        coalescedBatches.record(requests);
+    }
+
+    public void recordStaleResponse() {
+        staleResponses.increment();
+    }
+
+    /**
+     * How far a running carbon total was from its full recalculation, in grams.
+     */
+    public void recordTotalsDrift(String stream, double grams) {
+        totalsDrift.computeIfAbsent(stream, name -> DistributionSummary.builder("co2.totals.drift")
+                .description("Difference between a running carbon total and its full recalculation")
+                .baseUnit("grams")
+                .tag("stream", name)
+                .register(registry))
+            .record(grams);
+    }
+
+    /**
+     * Publishes the breaker state as 0 (closed), 1 (open) or 2 (half-open).
+     */
+    public void bindCircuitBreaker(CircuitBreaker circuitBreaker) {
+        Gauge.builder("co2.microservice.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+            .register(registry);
+    }
+
+    /**
+     * Publishes the probed microservice health as 0 (operational), 1 (degraded), 2 (down)
+     * or 3 (not probed yet).
+     */
+    public void bindHealth(Co2MicroserviceClient client) {
+        Gauge.builder("co2.microservice.health", client, it -> it.lastHealth().status().ordinal())
+            .description("Probed CO2 microservice health: 0 operational, 1 degraded, 2 down, 3 unknown")
+            .register(registry);
+    }
+
+    /**
+     * Publishes how many batch ids the dedup window holds and how often it was cut short.
+     */
+    public void bindBatchIdWindow(BatchIdWindow window) {
+        Gauge.builder("co2.ingest.dedup.ids", window, BatchIdWindow::size)
+            .description("Batch ids remembered for duplicate detection")
+            .register(registry);
+        Gauge.builder("co2.ingest.dedup.early.rotations", window, BatchIdWindow::earlyRotations)
+            .description("Dedup slices that filled up before their time, shortening the window")
+            .register(registry);
+    }
+
+    /**
+     * Publishes the adaptive concurrency limits, requests in flight under them, and
+     * messages deferred by rate limiting and not applied yet.
+     */
+    public void bindIngestAdmission(IngestAdmission admission) {
+        for (boolean simulation : new boolean[] {false, true}) {
+            String kind = simulation ? "simulation" : "real";
+            Gauge.builder("co2.ingest.concurrency.limit", admission, it -> it.limit(simulation).limit())
+                .description("Adaptive limit on ingestion requests in flight")
+                .tag("kind", kind)
+                .register(registry);
+            Gauge.builder("co2.ingest.concurrency.in.flight", admission, it -> it.limit(simulation).inFlight())
+                .description("Ingestion requests in flight")
+                .tag("kind", kind)
+                .register(registry);
+        }
+        Gauge.builder("co2.ingest.deferred.messages", admission, IngestAdmission::deferredMessages)
+            .description("Messages of rate-limited batches acknowledged but not applied yet")
+            .register(registry);
+    }
+
+    public void recordPersistenceWrite(long nanos, boolean success) {
+        (success ? persistenceWritten : persistenceFailed).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private Timer[] downstreamTimers(String endpoint) {
+        Outcome[] outcomes = Outcome.values();
+        Timer[] timers = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            timers[outcome.ordinal()] = latencyTimer("co2.microservice.requests")
+                .description("Exchanges with the CO2 microservice")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome.tag)
+                .register(registry);
+        }
+        return timers;
+    }
+
+    private Counter ingestCounter(String kind) {
+        return Counter.builder("co2.ingest.messages")
+            .description("Messages recorded")
+            .tag("kind", kind)
+            .register(registry);
+    }
+
+    private Counter[] admissionCounters(String kind) {
+        Decision[] decisions = Decision.values();
+        Counter[] counters = new Counter[decisions.length];
+        for (Decision decision : decisions) {
+            counters[decision.ordinal()] = Counter.builder("co2.ingest.admission")
+                .description("Admission decisions: admitted, deferred or throttled per source, shed per request")
+                .tag("kind", kind)
+                .tag("decision", decision.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+        return counters;
+    }
+
+    private Counter retryCounter(String endpoint, String outcome) {
+        return Counter.builder("co2.microservice.retries")
+            .description("Failed calls retried or denied by the retry budget")
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private Timer persistenceTimer(String outcome) {
+        return latencyTimer("co2.persistence.write")
+            .description("Journal appends until as durable as co2.persistence.durability requires")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED)
+            .maximumExpectedValue(MAX_EXPECTED);
+    }
+}
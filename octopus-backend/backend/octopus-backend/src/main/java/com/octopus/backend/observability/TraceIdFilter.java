@@ -0,0 +1,40 @@
+package com.octopus.backend.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Binds a trace id to every request: the caller's {@code X-Request-ID} when it looks sane,
+ * otherwise a new one. The id is echoed in the response and forwarded to the CO2
+ * microservice.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceIdFilter extends OncePerRequestFilter {
+
+    private static final Pattern ACCEPTED_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String incoming = request.getHeader(TraceIds.HEADER);
+        String traceId = incoming != null && ACCEPTED_ID.matcher(incoming).matches() ? incoming : TraceIds.next();
+        MDC.put(TraceIds.MDC_KEY, traceId);
+        response.setHeader(TraceIds.HEADER, traceId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(TraceIds.MDC_KEY);
+        }
+    }
+}
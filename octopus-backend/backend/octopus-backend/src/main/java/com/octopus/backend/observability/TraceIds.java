@@ -0,0 +1,40 @@
+package com.octopus.backend.observability;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-request trace ids: 16 hex characters (64 random bits) from
+ * {@link ThreadLocalRandom}, which unlike {@code UUID.randomUUID()} never touches
+ * {@code SecureRandom}. The current id lives in the logging MDC, set by
+ * {@link TraceIdFilter} and carried across the task executor by the MDC task decorator.
+ */
+public final class TraceIds {
+
+    public static final String HEADER = "X-Request-ID";
+    public static final String MDC_KEY = "traceId";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TraceIds() {
+    }
+
+    public static String next() {
+        long bits = ThreadLocalRandom.current().nextLong();
+        char[] id = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            id[i] = HEX[(int) (bits & 0xF)];
+            bits >>>= 4;
+        }
+        return new String(id);
+    }
+
+    /**
+     * The id of the request being handled on this thread, or a fresh one outside a request.
+     */
+    public static String current() {
+        String id = MDC.get(MDC_KEY);
+        return id != null ? id : next();
+    }
+}
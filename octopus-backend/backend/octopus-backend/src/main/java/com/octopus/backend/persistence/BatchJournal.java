@@ -0,0 +1,338 @@
+package com.octopus.backend.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of message-count deltas with a compacted snapshot.
+ *
+ * <p>Appends are handed to a single background writer which drains everything queued,
+ * writes it with one {@code write} call and, depending on {@link DurabilityMode}, one
+ * {@code fsync} for the whole group. Every {@code snapshotEvery} records the running
+ * total is written to the snapshot file (atomic rename) and the journal is truncated.
+ *
+ * <p>Records are fixed 20-byte frames: {@code seq(8) delta(8) crc32(4)}. The snapshot
+ * holds the total and the last sequence it covers, so a crash between the snapshot
+ * rename and the journal truncate never double-counts. Recovery loads the snapshot,
+ * replays newer journal records and cuts off a torn tail. An unreadable snapshot fails
+ * {@link #open()} and is left untouched: the journal alone holds only what was appended
+ * since the last compaction, and compacting it would erase the rest for good.
+ */
+public class BatchJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchJournal.class);
+
+    static final int RECORD_BYTES = 20;
+    private static final int MAX_GROUP = 4096;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final DurabilityMode durability;
+    private final long fsyncIntervalNanos;
+    private final long snapshotEvery;
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread writer;
+    private FileChannel channel;
+
+    // Owned by the writer thread once started.
+    private long total;
+    private long nextSeq;
+    private long recordsSinceSnapshot;
+    private boolean unforced;
+    private long lastForceNanos;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer crcScratch = ByteBuffer.allocate(16);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * MAX_GROUP);
+
+    public BatchJournal(Path snapshotFile, Path journalFile, DurabilityMode durability,
+                        long fsyncIntervalMillis, long snapshotEvery) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.durability = durability;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Recovers the persisted total and starts the background writer.
+     *
+     * @throws IllegalStateException if the snapshot is unreadable
+     */
+    public synchronized long open() throws IOException {
+        if (running) {
+            return total;
+        }
+        long snapshotSeq = readSnapshot();
+        channel = FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long lastSeq = replay(snapshotSeq);
+        nextSeq = Math.max(snapshotSeq, lastSeq) + 1;
+        lastForceNanos = System.nanoTime();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "batch-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return total;
+    }
+
+    /**
+     * Queues a delta. The future completes once the record is durable according to the
+     * configured {@link DurabilityMode}.
+     */
+    public CompletableFuture<Void> append(long delta) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!running) {
+            done.completeExceptionally(new IllegalStateException("Journal is not open"));
+            return done;
+        }
+        PendingAppend pending = new PendingAppend(delta, done);
+        queue.add(pending);
+        // Raced with close(): whoever takes it off the queue completes it.
+        if (!running && queue.remove(pending)) {
+            done.completeExceptionally(new IllegalStateException("Journal is closed"));
+        }
+        return done;
+    }
+
+    public DurabilityMode durability() {
+        return durability;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQueued();
+        try {
+            if (recordsSinceSnapshot > 0) {
+                snapshot();
+            } else if (unforced) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.error("Failed to close journal cleanly: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Completes appends queued after the writer's last drain: written if the writer has
+     * exited, failed if it is stuck.
+     */
+    private void flushQueued() {
+        List<PendingAppend> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (left.isEmpty()) {
+            return;
+        }
+        if (writer.isAlive()) {
+            IllegalStateException closed = new IllegalStateException("Journal writer did not stop");
+            left.forEach(append -> append.done().completeExceptionally(closed));
+            return;
+        }
+        for (int from = 0; from < left.size(); from += MAX_GROUP) {
+            writeGroup(left.subList(from, Math.min(left.size(), from + MAX_GROUP)));
+        }
+    }
+
+    // ==================== WRITER THREAD ====================
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>(MAX_GROUP);
+        long pollMillis = durability == DurabilityMode.INTERVAL
+            ? Math.max(1, Math.min(IDLE_POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(fsyncIntervalNanos)))
+            : IDLE_POLL_MILLIS;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    group.add(first);
+                    queue.drainTo(group, MAX_GROUP - 1);
+                    writeGroup(group);
+                    group.clear();
+                }
+                forceIfDue();
+                if (recordsSinceSnapshot >= snapshotEvery) {
+                    snapshot();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.error("Journal maintenance failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        long groupTotal = total;
+        long groupSeq = nextSeq;
+        buffer.clear();
+        for (PendingAppend append : group) {
+            writeRecord(buffer, groupSeq++, append.delta());
+            groupTotal += append.delta();
+        }
+        buffer.flip();
+        long startPosition = -1;
+        try {
+            startPosition = channel.position();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (durability == DurabilityMode.BATCH) {
+                channel.force(false);
+                lastForceNanos = System.nanoTime();
+            } else {
+                unforced = true;
+            }
+            total = groupTotal;
+            nextSeq = groupSeq;
+            recordsSinceSnapshot += group.size();
+            for (PendingAppend append : group) {
+                append.done().complete(null);
+            }
+        } catch (IOException e) {
+            log.error("Failed to append {} journal records: {}", group.size(), e.getMessage());
+            discardPartialWrite(startPosition);
+            for (PendingAppend append : group) {
+                append.done().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void discardPartialWrite(long startPosition) {
+        if (startPosition < 0) {
+            return;
+        }
+        try {
+            channel.truncate(startPosition);
+            channel.position(startPosition);
+        } catch (IOException e) {
+            log.error("Could not roll back partial journal write: {}", e.getMessage());
+        }
+    }
+
+    private void forceIfDue() throws IOException {
+        if (durability == DurabilityMode.INTERVAL && unforced
+                && System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+            channel.force(false);
+            unforced = false;
+            lastForceNanos = System.nanoTime();
+        }
+    }
+
+    private void snapshot() throws IOException {
+        long lastSeq = nextSeq - 1;
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(StandardCharsets.UTF_8.encode(total + "\n" + lastSeq + "\n"));
+            out.force(true);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        unforced = false;
+        recordsSinceSnapshot = 0;
+        log.debug("Compacted journal into snapshot: total={} seq={}", total, lastSeq);
+    }
+
+    private void writeRecord(ByteBuffer target, long seq, long delta) {
+        crcScratch.clear();
+        crcScratch.putLong(seq).putLong(delta).flip();
+        crc.reset();
+        crc.update(crcScratch);
+        target.putLong(seq).putLong(delta).putInt((int) crc.getValue());
+    }
+
+    // ==================== RECOVERY ====================
+
+    private long readSnapshot() throws IOException {
+        total = 0;
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        try {
+            // Legacy snapshots hold only the total; they cover no journal records.
+            String[] lines = Files.readString(snapshotFile).trim().split("\\s+");
+            long snapshotTotal = Long.parseLong(lines[0]);
+            long snapshotSeq = lines.length > 1 ? Long.parseLong(lines[1]) : 0;
+            total = snapshotTotal;
+            return snapshotSeq;
+        } catch (NumberFormatException | CharacterCodingException e) {
+            throw new IllegalStateException("Unreadable snapshot " + snapshotFile + " (" + e.getMessage()
+                                            + "); restore it from a backup, or remove it to recover only the "
+                                            + "journal tail", e);
+        }
+    }
+
+    private long replay(long snapshotSeq) throws IOException {
+        long size = channel.size();
+        long lastSeq = 0;
+        long validEnd = 0;
+        int replayed = 0;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        CRC32 check = new CRC32();
+
+        while (validEnd + RECORD_BYTES <= size) {
+            record.clear();
+            channel.read(record, validEnd);
+            record.flip();
+            long seq = record.getLong();
+            long delta = record.getLong();
+            int storedCrc = record.getInt();
+            check.reset();
+            check.update(record.array(), 0, 16);
+            if ((int) check.getValue() != storedCrc || seq <= lastSeq) {
+                break;
+            }
+            if (seq > snapshotSeq) {
+                total += delta;
+                replayed++;
+            }
+            lastSeq = seq;
+            validEnd += RECORD_BYTES;
+        }
+
+        if (validEnd < size) {
+            log.warn("Discarding {} bytes of torn journal tail in {}", size - validEnd, journalFile);
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+        recordsSinceSnapshot = replayed;
+        if (replayed > 0) {
+            log.info("Replayed {} journal records on top of snapshot seq {}", replayed, snapshotSeq);
+        }
+        return lastSeq;
+    }
+
+    private record PendingAppend(long delta, CompletableFuture<Void> done) {}
+}
@@ -0,0 +1,24 @@
+package com.octopus.backend.persistence;
+
+import java.util.Locale;
+
+/**
+ * When journal appends are forced to stable storage.
+ */
+public enum DurabilityMode {
+    /** fsync before acknowledging; concurrent batches share one fsync (group commit). */
+    BATCH,
+    /** Acknowledge after the OS write; fsync at most every {@code fsync-interval}. */
+    INTERVAL,
+    /** Acknowledge after the OS write and leave flushing to the operating system. */
+    OS;
+
+    public static DurabilityMode fromProperty(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "Unknown co2.persistence.durability '" + value + "'. Use batch, interval or os", e);
+        }
+    }
+}
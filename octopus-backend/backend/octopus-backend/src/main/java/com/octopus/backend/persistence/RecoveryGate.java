@@ -0,0 +1,55 @@
+package com.octopus.backend.persistence;
+
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.replication.GossipClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the web server back until the persisted totals are restored. Recovery runs in
+ * the background while the rest of the context is created; this lifecycle starts in a
+ * phase before the web server's ({@code DEFAULT_PHASE - 2048}) and waits for it, so the
+ * first request never sees counters without the previous session's messages. Gossip
+ * starts here too, for the same reason, when replication is configured.
+ */
+@Component
+public class RecoveryGate implements SmartLifecycle {
+
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final HackathonService hackathonService;
+    private final ObjectProvider<GossipClient> gossipClient;
+    private volatile boolean running;
+    private boolean gossiping;
+
+    public RecoveryGate(HackathonService hackathonService, ObjectProvider<GossipClient> gossipClient) {
+        this.hackathonService = hackathonService;
+        this.gossipClient = gossipClient;
+    }
+
+    @Override
+    public synchronized void start() {
+        hackathonService.recovered().join();
+        if (!gossiping) {
+            gossipClient.ifAvailable(GossipClient::start);
+            gossiping = true;
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
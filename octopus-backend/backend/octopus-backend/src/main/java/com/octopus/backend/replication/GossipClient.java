@@ -0,0 +1,168 @@
+package com.octopus.backend.replication;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.octopus.backend.config.ReplicationConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchanges {@link ReplicatedCounters} deltas with every peer in
+ * {@code co2.replication.peers} (base URLs of the other instances) every
+ * {@code co2.replication.gossip-interval.ms}. Each exchange is one push-pull POST to the
+ * peer's {@code /api/internal/replication/gossip}, carrying the shared
+ * {@code co2.replication.secret}; a failed one is simply retried with a larger delta next
+ * round. Only created when peers are configured.
+ */
+@Component
+@ConditionalOnExpression(ReplicationConfig.ENABLED)
+public class GossipClient {
+
+    private static final Logger log = LoggerFactory.getLogger(GossipClient.class);
+    static final String GOSSIP_PATH = "/api/internal/replication/gossip";
+    public static final String SECRET_HEADER = "X-Replication-Secret";
+
+    private final ReplicatedCounters counters;
+    private final ObjectMapper objectMapper;
+    private final List<String> peers;
+    private final String secret;
+    private final long intervalMs;
+    private final Duration timeout;
+    private final Set<String> unreachable = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "co2-gossip");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpClient httpClient;
+
+    public GossipClient(ReplicatedCounters counters, ObjectMapper objectMapper,
+                        @Value("${co2.replication.peers:}") String peers,
+                        @Value("${co2.replication.secret:}") String secret,
+                        @Value("${co2.replication.gossip-interval.ms:500}") long intervalMs,
+                        @Value("${co2.replication.timeout.ms:2000}") long timeoutMs) {
+        this.counters = counters;
+        this.objectMapper = objectMapper;
+        this.peers = Arrays.stream(peers.split(","))
+            .map(String::trim)
+            .filter(peer -> !peer.isEmpty())
+            .map(peer -> peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer)
+            .toList();
+        if (secret.isBlank()) {
+            throw new IllegalStateException("co2.replication.secret is required when co2.replication.peers is set");
+        }
+        this.secret = secret;
+        this.intervalMs = intervalMs;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    /**
+     * Starts gossiping; called by {@link com.octopus.backend.persistence.RecoveryGate} once
+     * this node's own persisted total is restored, so that peers echoing it back are not
+     * mistaken for messages this node lost.
+     */
+    public void start() {
+        log.info("Replicating counters as node {} with {} peer(s): {}", counters.nodeId(), peers.size(), peers);
+        ticker.scheduleWithFixedDelay(this::round, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        counters.save();
+    }
+
+    public List<String> peers() {
+        return peers;
+    }
+
+    /**
+     * Whether {@code presented} is the shared secret; compared in constant time.
+     */
+    public boolean authorizes(String presented) {
+        return presented != null && MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                                                          presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void round() {
+        try {
+            CompletableFuture.allOf(peers.stream().map(this::exchange).toArray(CompletableFuture[]::new))
+                .get(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Individual failures are logged by exchange().
+        }
+        counters.save();
+    }
+
+    private CompletableFuture<Void> exchange(String peer) {
+        GossipMessage request = counters.prepare(peer);
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(peer + GOSSIP_PATH))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header(SECRET_HEADER, secret)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(write(request)))
+            .build();
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+            .thenAccept(response -> {
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                counters.acknowledge(peer, request, read(response.body()));
+                if (unreachable.remove(peer)) {
+                    log.info("Gossip peer {} reachable again", peer);
+                }
+            })
+            .exceptionally(error -> {
+                if (unreachable.add(peer)) {
+                    log.warn("Gossip with {} failed, will keep retrying: {}", peer, error.getMessage());
+                }
+                return null;
+            });
+    }
+
+    private byte[] write(GossipMessage message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize gossip message", e);
+        }
+    }
+
+    private GossipMessage read(byte[] body) {
+        try {
+            return objectMapper.readValue(body, GossipMessage.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.octopus.backend.replication;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * One half of a push-pull gossip exchange: the node entries the sender changed since the
+ * receiver last heard from it.
+ *
+ * <p>{@code seq} is the sender's change sequence at the time of sending; the receiver
+ * echoes it back as {@code since} next time, and gets only entries changed after it.
+ * {@code incarnation} is new on every process start, so a restarted node, whose sequence
+ * starts again from zero, is recognised and sent everything.
+ *
+ * @param peerIncarnation the receiver incarnation that {@code since} refers to; null in
+ *                        responses
+ */
+public record GossipMessage(
+    @JsonProperty("node") String node,
+    @JsonProperty("incarnation") String incarnation,
+    @JsonProperty("seq") long seq,
+    @JsonProperty("since") long since,
+    @JsonProperty("peerIncarnation") String peerIncarnation,
+    @JsonProperty("entries") Map<String, NodeCounts> entries
+) {
+}
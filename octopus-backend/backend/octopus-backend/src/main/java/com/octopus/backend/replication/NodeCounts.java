@@ -0,0 +1,32 @@
+package com.octopus.backend.replication;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One node's share of the replicated counters. Every component only ever grows: real
+ * messages are a G-counter, simulation messages a PN-counter (added minus removed), so two
+ * views of the same node merge by taking the larger value of each component.
+ */
+public record NodeCounts(
+    @JsonProperty("real") long real,
+    @JsonProperty("simulationAdded") long simulationAdded,
+    @JsonProperty("simulationRemoved") long simulationRemoved
+) {
+    static final NodeCounts ZERO = new NodeCounts(0, 0, 0);
+
+    NodeCounts merge(NodeCounts other) {
+        return new NodeCounts(Math.max(real, other.real),
+                              Math.max(simulationAdded, other.simulationAdded),
+                              Math.max(simulationRemoved, other.simulationRemoved));
+    }
+
+    NodeCounts plus(NodeCounts other) {
+        return new NodeCounts(real + other.real,
+                              simulationAdded + other.simulationAdded,
+                              simulationRemoved + other.simulationRemoved);
+    }
+
+    long simulation() {
+        return simulationAdded - simulationRemoved;
+    }
+}
@@ -0,0 +1,422 @@
+package com.octopus.backend.replication;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Real and simulation message totals replicated across backend instances without
+ * coordination. Each node counts into its own {@link NodeCounts} slot (striped adders, so
+ * the write path is the same as on a single node) and learns the other nodes' slots by
+ * gossip; because every component only grows, merging two views is a per-component
+ * maximum, and all nodes converge on the same totals whatever order updates arrive in.
+ *
+ * <p>Gossip is delta-based: every change to a slot is stamped with the next value of a
+ * local sequence, and each exchange carries only slots changed since the peer's last
+ * acknowledged sequence. Losing a message just means the next exchange sends more.
+ *
+ * <p>Other nodes' slots are saved to {@code stateFile} so that a node restarting while a
+ * peer is down still counts that peer's messages. This node's own slot is not: its real
+ * count comes back from the persistence journal, and if a peer has seen a higher count for
+ * this node than the journal recovered, the difference is added back and reported to the
+ * {@link #onRealRestored restored listener}, up to {@code maxRestore} messages at a time.
+ *
+ * <p>Incoming entries are validated as a whole before any is merged: a message with a
+ * negative or implausibly large component, a malformed node id or too many nodes is
+ * rejected with {@link IllegalArgumentException} and changes nothing.
+ */
+public class ReplicatedCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicatedCounters.class);
+
+    static final long MAX_COUNT = 1_000_000_000_000L;
+    static final int MAX_NODES = 1024;
+    static final int MAX_NODE_ID_LENGTH = 64;
+    static final long DEFAULT_MAX_RESTORE = 1_000_000L;
+
+    private final String nodeId;
+    private final String incarnation = UUID.randomUUID().toString();
+    private final Path stateFile;
+    private final long maxRestore;
+    private final LongAdder real = new LongAdder();
+    private final LongAdder simulationAdded = new LongAdder();
+    private final LongAdder simulationRemoved = new LongAdder();
+    private final List<Runnable> remoteChangeListeners = new CopyOnWriteArrayList<>();
+    private volatile LongConsumer realRestored = delta -> { };
+    // Sum over every other node, so reads stay two adder sums and a volatile read.
+    private volatile NodeCounts remote = NodeCounts.ZERO;
+
+    // Guarded by this.
+    private final Map<String, Stamped> slots = new HashMap<>();
+    private final Map<String, Peer> peers = new HashMap<>();
+    private long seq;
+    private boolean unsaved;
+    private long refusedRestore;
+
+    /**
+     * @param stateFile where other nodes' slots are kept across restarts; null for none
+     */
+    public ReplicatedCounters(String nodeId, Path stateFile) {
+        this(nodeId, stateFile, DEFAULT_MAX_RESTORE);
+    }
+
+    /**
+     * @param stateFile  where other nodes' slots are kept across restarts; null for none
+     * @param maxRestore most real messages of this node taken back from a peer's view at
+     *                   once; a larger gap is left alone and logged
+     */
+    public ReplicatedCounters(String nodeId, Path stateFile, long maxRestore) {
+        this.nodeId = nodeId;
+        this.stateFile = stateFile;
+        this.maxRestore = maxRestore;
+        load();
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code count} is negative: components only grow,
+     *                                  and a lowered one would be undone by the next merge
+     */
+    public void addReal(long count) {
+        real.add(requireNonNegative(count));
+    }
+
+    public void addSimulation(long count) {
+        simulationAdded.add(requireNonNegative(count));
+    }
+
+    /**
+     * Takes simulation messages away through the separate removed component.
+     */
+    public void removeSimulation(long count) {
+        simulationRemoved.add(requireNonNegative(count));
+    }
+
+    /**
+     * Removes every simulation message counted so far, on any node, and returns how many.
+     * Concurrent resets each remove only what the one before left.
+     */
+    public synchronized long resetSimulation() {
+        long previous = simulation();
+        if (previous > 0) {
+            simulationRemoved.add(previous);
+        }
+        return Math.max(0, previous);
+    }
+
+    /**
+     * Real messages counted by every node known to this one.
+     */
+    public long real() {
+        return real.sum() + remote.real();
+    }
+
+    public long simulation() {
+        return simulationAdded.sum() - simulationRemoved.sum() + remote.simulation();
+    }
+
+    /**
+     * Called, on the gossip thread, whenever another node's counts change the totals.
+     */
+    public void onRemoteChange(Runnable listener) {
+        remoteChangeListeners.add(listener);
+    }
+
+    /**
+     * Called with the real messages added back to this node's own slot from a peer's view.
+     */
+    public void onRealRestored(LongConsumer listener) {
+        this.realRestored = listener;
+    }
+
+    /**
+     * Every known node's counts, this one included.
+     */
+    public synchronized Map<String, NodeCounts> nodes() {
+        refreshOwn();
+        Map<String, NodeCounts> nodes = new LinkedHashMap<>();
+        slots.forEach((node, slot) -> nodes.put(node, slot.counts()));
+        return nodes;
+    }
+
+    /**
+     * The request to send to {@code peer}, identified by its address.
+     */
+    public synchronized GossipMessage prepare(String peer) {
+        refreshOwn();
+        Peer state = peers.computeIfAbsent(peer, key -> new Peer());
+        return new GossipMessage(nodeId, incarnation, seq, state.seen, state.incarnation,
+                                 changedSince(state.sent, Map.of()));
+    }
+
+    /**
+     * Handles a peer's request and returns the slots it has not seen yet.
+     *
+     * @throws IllegalArgumentException if the request's entries are invalid
+     */
+    public GossipMessage receive(GossipMessage request) {
+        GossipMessage response;
+        boolean changed;
+        synchronized (this) {
+            changed = merge(request.entries());
+            refreshOwn();
+            // A since from before our last restart means nothing; send everything.
+            long since = incarnation.equals(request.peerIncarnation()) ? request.since() : 0;
+            response = new GossipMessage(nodeId, incarnation, seq, 0, null,
+                                         changedSince(since, request.entries()));
+        }
+        if (changed) {
+            notifyRemoteChange();
+        }
+        return response;
+    }
+
+    /**
+     * Records a successful exchange: {@code peer} now has everything in {@code sent},
+     * and this node everything in {@code response}.
+     */
+    public void acknowledge(String peer, GossipMessage sent, GossipMessage response) {
+        boolean changed;
+        synchronized (this) {
+            Peer state = peers.computeIfAbsent(peer, key -> new Peer());
+            boolean unchangedSinceSent = seq == sent.seq();
+            changed = merge(response.entries());
+            if (state.incarnation != null && !state.incarnation.equals(response.incarnation())) {
+                // The peer restarted and may have lost what we sent: push everything next round.
+                state.sent = 0;
+            } else {
+                // If nothing changed here in between, the only newer slots are the ones the
+                // peer just sent, which it need not get back.
+                state.sent = Math.max(state.sent, unchangedSinceSent ? seq : sent.seq());
+            }
+            state.incarnation = response.incarnation();
+            state.seen = response.seq();
+        }
+        if (changed) {
+            notifyRemoteChange();
+        }
+    }
+
+    /**
+     * Writes other nodes' slots to the state file if they changed since the last save.
+     */
+    public void save() {
+        if (stateFile == null) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        synchronized (this) {
+            if (!unsaved) {
+                return;
+            }
+            slots.forEach((node, slot) -> {
+                if (!node.equals(nodeId)) {
+                    NodeCounts counts = slot.counts();
+                    lines.add(node + " " + counts.real() + " " + counts.simulationAdded()
+                                  + " " + counts.simulationRemoved());
+                }
+            });
+            unsaved = false;
+        }
+        try {
+            Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            synchronized (this) {
+                unsaved = true;
+            }
+            log.warn("Could not save replicated counters to {}: {}", stateFile, e.getMessage());
+        }
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void load() {
+        if (stateFile == null || !Files.exists(stateFile)) {
+            return;
+        }
+        Map<String, NodeCounts> saved = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(stateFile, StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length == 4) {
+                    saved.put(fields[0], new NodeCounts(Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                                                        Long.parseLong(fields[3])));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read replicated counters from " + stateFile, e);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring corrupt replicated counters in {}: {}", stateFile, e.getMessage());
+            return;
+        }
+        // Our own slot is rebuilt from the journal, not from here.
+        saved.remove(nodeId);
+        synchronized (this) {
+            try {
+                merge(saved);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring corrupt replicated counters in {}: {}", stateFile, e.getMessage());
+                return;
+            }
+            unsaved = false;
+        }
+        log.info("Restored counts of {} other node(s) from {}", saved.size(), stateFile);
+    }
+
+    /**
+     * Merges {@code entries} into the slots. Returns whether another node's counts changed.
+     */
+    private boolean merge(Map<String, NodeCounts> entries) {
+        if (entries == null) {
+            return false;
+        }
+        validate(entries);
+        boolean changed = false;
+        for (Map.Entry<String, NodeCounts> entry : entries.entrySet()) {
+            if (entry.getKey().equals(nodeId)) {
+                restoreOwn(entry.getValue());
+                continue;
+            }
+            Stamped current = slots.get(entry.getKey());
+            NodeCounts merged = current == null ? entry.getValue() : current.counts().merge(entry.getValue());
+            if (current == null || !merged.equals(current.counts())) {
+                slots.put(entry.getKey(), new Stamped(merged, ++seq));
+                changed = true;
+            }
+        }
+        if (changed) {
+            NodeCounts sum = NodeCounts.ZERO;
+            for (Map.Entry<String, Stamped> slot : slots.entrySet()) {
+                if (!slot.getKey().equals(nodeId)) {
+                    sum = sum.plus(slot.getValue().counts());
+                }
+            }
+            remote = sum;
+            unsaved = true;
+        }
+        return changed;
+    }
+
+    /**
+     * A peer knows more of our own counts than we do, because we lost unsynced writes in a
+     * crash; take its view so that our later increments are not hidden under it.
+     */
+    private void restoreOwn(NodeCounts seen) {
+        long realMissing = seen.real() - real.sum();
+        if (realMissing > maxRestore) {
+            if (realMissing != refusedRestore) {
+                refusedRestore = realMissing;
+                log.warn("Not restoring {} real messages of this node ({}) from a peer: more than co2.replication"
+                             + ".max-restore={}", realMissing, nodeId, maxRestore);
+            }
+        } else if (realMissing > 0) {
+            try {
+                realRestored.accept(realMissing);
+                real.add(realMissing);
+                log.warn("Restored {} real messages of this node ({}) from a peer", realMissing, nodeId);
+            } catch (RuntimeException e) {
+                // Not persisted, so not counted; the peer still has them next exchange.
+                log.warn("Could not restore {} real messages of this node ({}) from a peer: {}", realMissing,
+                         nodeId, e.getMessage());
+            }
+        }
+        long addedMissing = seen.simulationAdded() - simulationAdded.sum();
+        if (addedMissing > 0) {
+            simulationAdded.add(addedMissing);
+        }
+        long removedMissing = seen.simulationRemoved() - simulationRemoved.sum();
+        if (removedMissing > 0) {
+            simulationRemoved.add(removedMissing);
+        }
+    }
+
+    /**
+     * Stamps this node's slot if it has counted anything since it was last stamped.
+     */
+    private void refreshOwn() {
+        NodeCounts now = new NodeCounts(real.sum(), simulationAdded.sum(), simulationRemoved.sum());
+        Stamped own = slots.get(nodeId);
+        if (own == null || !own.counts().equals(now)) {
+            slots.put(nodeId, new Stamped(now, ++seq));
+        }
+    }
+
+    /**
+     * Slots changed after {@code since}, except those the peer just told us it has.
+     */
+    private Map<String, NodeCounts> changedSince(long since, Map<String, NodeCounts> peerHas) {
+        Map<String, NodeCounts> changed = new HashMap<>();
+        slots.forEach((node, slot) -> {
+            if (slot.changedAt() > since && (peerHas == null || !slot.counts().equals(peerHas.get(node)))) {
+                changed.put(node, slot.counts());
+            }
+        });
+        return changed;
+    }
+
+    private static void validate(Map<String, NodeCounts> entries) {
+        if (entries.size() > MAX_NODES) {
+            throw new IllegalArgumentException("Too many nodes: " + entries.size());
+        }
+        for (Map.Entry<String, NodeCounts> entry : entries.entrySet()) {
+            String node = entry.getKey();
+            NodeCounts counts = entry.getValue();
+            if (node == null || node.isBlank() || node.length() > MAX_NODE_ID_LENGTH || node.contains(" ")) {
+                throw new IllegalArgumentException("Invalid node id: " + node);
+            }
+            if (counts == null || !inRange(counts.real()) || !inRange(counts.simulationAdded())
+                || !inRange(counts.simulationRemoved())) {
+                throw new IllegalArgumentException("Invalid counts for node " + node + ": " + counts);
+            }
+        }
+    }
+
+    private static boolean inRange(long count) {
+        return count >= 0 && count <= MAX_COUNT;
+    }
+
+    private static long requireNonNegative(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be negative: " + count);
+        }
+        return count;
+    }
+
+    private void notifyRemoteChange() {
+        for (Runnable listener : remoteChangeListeners) {
+            listener.run();
+        }
+    }
+
+    private record Stamped(NodeCounts counts, long changedAt) {
+    }
+
+    /**
+     * What a peer has been sent and what we have seen of it, in our and its sequence.
+     */
+    private static final class Peer {
+        long sent;
+        long seen;
+        String incarnation;
+    }
+}
@@ -0,0 +1,101 @@
+package com.octopus.backend.scenario;
+
+import com.octopus.backend.IngestionService;
+import com.octopus.backend.dto.ScenarioSweepRequest.ActivityMix;
+import com.octopus.backend.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Validated scenarios in columnar form: one primitive array per activity, indexed by
+ * scenario, so that evaluation streams through flat arrays instead of request objects.
+ */
+public final class ScenarioBatch {
+
+    // Caps keep every scenario's carbon, and the sums over a sweep, finite.
+    static final long MAX_MESSAGES = IngestionService.MAX_BATCH_COUNT;
+    static final double MAX_CALL_MINUTES = 525_600; // a year
+    static final long MAX_PARTICIPANTS = 100_000;
+    static final double MAX_DATA_BYTES = 1e15;      // a petabyte
+
+    final int size;
+    final long[] messages;
+    final double[] callMinutes;
+    final long[] participants;
+    final double[] dataBytes;
+    final boolean[] greenHosting;
+    final String[] labels;
+
+    private ScenarioBatch(int size) {
+        this.size = size;
+        this.messages = new long[size];
+        this.callMinutes = new double[size];
+        this.participants = new long[size];
+        this.dataBytes = new double[size];
+        this.greenHosting = new boolean[size];
+        this.labels = new String[size];
+    }
+
+    /**
+     * Copies {@code scenarios} into arrays, rejecting the whole sweep if any scenario has
+     * a negative, non-finite or over-the-cap quantity.
+     */
+    public static ScenarioBatch of(List<ActivityMix> scenarios, boolean defaultGreenHosting, int maxScenarios) {
+        if (scenarios == null || scenarios.isEmpty()) {
+            throw new ValidationException("At least one scenario is required");
+        }
+        if (scenarios.size() > maxScenarios) {
+            throw new ValidationException(String.format("Too many scenarios: %d (max %d)",
+                                                        scenarios.size(), maxScenarios));
+        }
+        ScenarioBatch batch = new ScenarioBatch(scenarios.size());
+        for (int i = 0; i < batch.size; i++) {
+            ActivityMix mix = scenarios.get(i);
+            if (mix == null) {
+                throw new ValidationException("scenarios[" + i + "] is null");
+            }
+            batch.labels[i] = mix.label();
+            batch.messages[i] = bounded(i, "messages", mix.messages(), MAX_MESSAGES);
+            batch.callMinutes[i] = bounded(i, "callMinutes", mix.callMinutes(), MAX_CALL_MINUTES);
+            batch.participants[i] = bounded(i, "participants", mix.participants(), MAX_PARTICIPANTS);
+            batch.dataBytes[i] = bounded(i, "dataBytes", mix.dataBytes(), MAX_DATA_BYTES);
+            batch.greenHosting[i] = mix.greenHosting() == null ? defaultGreenHosting : mix.greenHosting();
+        }
+        return batch;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private static long bounded(int index, String field, Long value, long max) {
+        if (value == null) {
+            return 0;
+        }
+        if (value < 0) {
+            throw new ValidationException(String.format("scenarios[%d].%s cannot be negative: %d", index, field, value));
+        }
+        if (value > max) {
+            throw new ValidationException(String.format("scenarios[%d].%s %d exceeds the limit of %d",
+                                                        index, field, value, max));
+        }
+        return value;
+    }
+
+    private static double bounded(int index, String field, Double value, double max) {
+        if (value == null) {
+            return 0;
+        }
+        if (!(value >= 0) || value.isInfinite()) {
+            throw new ValidationException(String.format("scenarios[%d].%s must be a non-negative number: %s",
+                                                        index, field, value));
+        }
+        if (value > max) {
+            throw new ValidationException(String.format("scenarios[%d].%s %s exceeds the limit of %s",
+                                                        index, field, value, max));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,199 @@
+package com.octopus.backend.scenario;
+
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+import com.octopus.backend.dto.ScenarioSweepResponse;
+import com.octopus.backend.dto.ScenarioSweepResponse.ActivityShare;
+import com.octopus.backend.dto.ScenarioSweepResponse.Bin;
+import com.octopus.backend.dto.ScenarioSweepResponse.Distribution;
+import com.octopus.backend.dto.ScenarioSweepResponse.ScenarioRef;
+import com.octopus.backend.engine.CarbonModel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates {@link ScenarioBatch}es in-process with the {@link CarbonModel}, splitting
+ * the arrays across a fork-join pool of {@code co2.scenario.parallelism} workers (all
+ * cores by default). Each activity goes through the model on its own, as
+ * {@code calculator.js} does per activity, and a scenario's carbon is their sum.
+ */
+@Component
+public class ScenarioEngine {
+
+    // Scenarios per leaf task: enough work to amortize a fork, small enough to balance.
+    static final int LEAF_SIZE = 512;
+
+    private final CarbonModel model;
+    private final ForkJoinPool pool;
+
+    public ScenarioEngine(CarbonModel model, @Value("${co2.scenario.parallelism:0}") int parallelism) {
+        this.model = model;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                                     ScenarioEngine::newWorker, null, false);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public CarbonModel model() {
+        return model;
+    }
+
+    /**
+     * Carbon of every scenario in {@code batch}, summarized into a distribution and a
+     * histogram of {@code histogramBins} equal-width bins.
+     */
+    public ScenarioSweepResponse evaluate(ScenarioBatch batch, int histogramBins) {
+        long started = System.nanoTime();
+        double[] grams = new double[batch.size];
+        Partial totals = pool.invoke(new Evaluate(batch, grams, 0, batch.size));
+
+        double[] sorted = grams.clone();
+        Arrays.parallelSort(sorted);
+        double total = totals.discordGrams + totals.videoGrams + totals.transferGrams;
+        double mean = total / batch.size;
+        double meanKilograms = mean / 1000;
+
+        return new ScenarioSweepResponse(
+            batch.size,
+            new Distribution(sorted[0], mean, percentile(sorted, 0.50), percentile(sorted, 0.90),
+                             percentile(sorted, 0.99), sorted[sorted.length - 1]),
+            new PhysicalEquivalents(model.carMiles(meanKilograms), model.treeDays(meanKilograms)),
+            total == 0
+                ? new ActivityShare(0, 0, 0)
+                : new ActivityShare(totals.discordGrams / total, totals.videoGrams / total,
+                                    totals.transferGrams / total),
+            histogram(sorted, histogramBins),
+            new ScenarioRef(totals.minIndex, batch.labels[totals.minIndex], grams[totals.minIndex]),
+            new ScenarioRef(totals.maxIndex, batch.labels[totals.maxIndex], grams[totals.maxIndex]),
+            model.label(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+        );
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("co2-scenario-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * Nearest-rank percentile of an ascending array.
+     */
+    private static double percentile(double[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static List<Bin> histogram(double[] sorted, int bins) {
+        double min = sorted[0];
+        double max = sorted[sorted.length - 1];
+        if (max == min) {
+            return List.of(new Bin(min, max, sorted.length));
+        }
+        double width = (max - min) / bins;
+        int[] counts = new int[bins];
+        for (double value : sorted) {
+            counts[Math.min(bins - 1, (int) ((value - min) / width))]++;
+        }
+        List<Bin> histogram = new ArrayList<>(bins);
+        for (int i = 0; i < bins; i++) {
+            histogram.add(new Bin(min + i * width, i == bins - 1 ? max : min + (i + 1) * width, counts[i]));
+        }
+        return histogram;
+    }
+
+    /**
+     * Per-activity sums and the extremes of one range of scenarios. Ties go to the lower
+     * index, so results do not depend on how the range was split.
+     */
+    private static final class Partial {
+        double discordGrams;
+        double videoGrams;
+        double transferGrams;
+        int minIndex = -1;
+        int maxIndex = -1;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void merge(Partial right) {
+            discordGrams += right.discordGrams;
+            videoGrams += right.videoGrams;
+            transferGrams += right.transferGrams;
+            if (right.min < min) {
+                min = right.min;
+                minIndex = right.minIndex;
+            }
+            if (right.max > max) {
+                max = right.max;
+                maxIndex = right.maxIndex;
+            }
+        }
+    }
+
+    private final class Evaluate extends RecursiveTask<Partial> {
+        private final ScenarioBatch batch;
+        private final double[] grams;
+        private final int from;
+        private final int to;
+
+        Evaluate(ScenarioBatch batch, double[] grams, int from, int to) {
+            this.batch = batch;
+            this.grams = grams;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= LEAF_SIZE) {
+                return evaluateRange();
+            }
+            int middle = (from + to) >>> 1;
+            Evaluate left = new Evaluate(batch, grams, from, middle);
+            left.fork();
+            Partial right = new Evaluate(batch, grams, middle, to).compute();
+            Partial result = left.join();
+            result.merge(right);
+            return result;
+        }
+
+        private Partial evaluateRange() {
+            Partial partial = new Partial();
+            for (int i = from; i < to; i++) {
+                boolean green = batch.greenHosting[i];
+                double discord = model.gramsForBytes(model.discordBytes(batch.messages[i]), green);
+                double video = model.gramsForBytes(model.videoCallBytes(batch.callMinutes[i], batch.participants[i]),
+                                                   green);
+                double transfer = model.gramsForBytes(batch.dataBytes[i], green);
+                double scenario = discord + video + transfer;
+                grams[i] = scenario;
+
+                partial.discordGrams += discord;
+                partial.videoGrams += video;
+                partial.transferGrams += transfer;
+                if (scenario < partial.min) {
+                    partial.min = scenario;
+                    partial.minIndex = i;
+                }
+                if (scenario > partial.max) {
+                    partial.max = scenario;
+                    partial.maxIndex = i;
+                }
+            }
+            return partial;
+        }
+    }
+}
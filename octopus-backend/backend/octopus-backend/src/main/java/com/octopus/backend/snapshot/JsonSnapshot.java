@@ -0,0 +1,59 @@
+package com.octopus.backend.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.exception.ServiceException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable response body, serialized once and shared by every request until the data
+ * behind it changes. {@code gzip} is the pre-compressed variant, or {@code null} for
+ * bodies too small to be worth it. Both variants share one weak ETag.
+ */
+public record JsonSnapshot(long version, String etag, byte[] json, byte[] gzip) {
+
+    static JsonSnapshot of(ObjectMapper objectMapper, Object body, long version, String etag, int gzipMinBytes) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("Could not serialize snapshot " + etag, e);
+        }
+        byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+        return new JsonSnapshot(version, etag, json, gzip);
+    }
+
+    /**
+     * The snapshot as a response, gzip-encoded when the client accepts it. GET requests
+     * whose {@code If-None-Match} matches get a 304 from Spring's entity handling.
+     */
+    public ResponseEntity<byte[]> toResponse(String acceptEncoding) {
+        boolean compressed = gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compressed) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(compressed ? gzip : json);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
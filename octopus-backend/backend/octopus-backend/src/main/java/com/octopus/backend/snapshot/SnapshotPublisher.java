@@ -0,0 +1,171 @@
+package com.octopus.backend.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.totals.CarbonTotals;
+import com.octopus.backend.totals.CarbonTotals.Carbon;
+import com.octopus.backend.totals.CarbonTotals.Totals;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Serialized snapshots of the read endpoints. A snapshot is built at most once per
+ * {@link HackathonService#version()} (and {@link CarbonTotals#corrections()}), on the
+ * first read after a change, and then served as the same bytes (and ETag) to every
+ * reader. Carbon figures come from the running {@link CarbonTotals}, never from a
+ * calculation of their own.
+ */
+@Component
+public class SnapshotPublisher {
+
+    private final HackathonService hackathonService;
+    private final CarbonTotals carbonTotals;
+    private final ObjectMapper objectMapper;
+    private final int gzipMinBytes;
+    // Versions restart at 0 with the process; the epoch keeps ETags from colliding across restarts.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Versioned live = new Versioned("live", this::liveBody);
+    private final Versioned publicSummary = new Versioned("public", this::publicBody);
+
+    public SnapshotPublisher(HackathonService hackathonService, CarbonTotals carbonTotals,
+                             ObjectMapper objectMapper,
+                             @Value("${co2.snapshot.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.hackathonService = hackathonService;
+        this.carbonTotals = carbonTotals;
+        this.objectMapper = objectMapper;
+        this.gzipMinBytes = gzipMinBytes;
+    }
+
+    /**
+     * The payload of {@code GET /api/carbon/hackathon/live}, also pushed by the live stream.
+     */
+    public JsonSnapshot live() {
+        return live.current();
+    }
+
+    /**
+     * The payload of {@code GET /api/carbon/hackathon/public}.
+     */
+    public JsonSnapshot publicSummary() {
+        return publicSummary.current();
+    }
+
+    /**
+     * A snapshot of content that never changes while the process runs.
+     */
+    public JsonSnapshot fixed(String name, Object body) {
+        return JsonSnapshot.of(objectMapper, body, 0, etag(name, 0, 0), gzipMinBytes);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private String etag(String name, long version, long build) {
+        return "W/\"" + epoch + "-" + name + "-" + version + "." + build + "\"";
+    }
+
+    private Object liveBody() {
+        Totals totals = carbonTotals.current();
+
+        if (totals.totalMessages() == 0) {
+            return Map.of(
+                "hackathon", "Octopus Hackathon",
+                "totalMessages", 0,
+                "realBotMessages", 0,
+                "simulationMessages", 0,
+                "carbonImpact", Map.of("kilograms", 0, "grams", 0),
+                "equivalents", Map.of("carMiles", 0, "treeDays", 0),
+                "lastUpdated", Instant.now().toString(),
+                "message", "No data yet. Send your first batch!"
+            );
+        }
+
+        return Map.of(
+            "hackathon", "Octopus Hackathon",
+            "totalMessages", totals.totalMessages(),
+            "realBotMessages", totals.real().messages(),
+            "simulationMessages", totals.simulation().messages(),
+            "carbonImpact", totals.combined().carbon(),
+            "equivalents", totals.combined().equivalents(),
+            "lastUpdated", Instant.now().toString()
+        );
+    }
+
+    private Object publicBody() {
+        Carbon combined = carbonTotals.current().combined();
+
+        return Map.of(
+            "event", "Octopus Hackathon",
+            "description", "Live digital carbon footprint of our hackathon",
+            "metrics", Map.of(
+                "discordMessages", combined.messages(),
+                "carbonKg", combined.carbon().kilograms(),
+                "equivalentCarMiles", combined.equivalents().carMiles()
+            ),
+            "impactStatement", formatImpactStatement(combined),
+            "viewLiveDashboard", "https://your-dashboard-url.here",
+            "generatedAt", Instant.now().toString()
+        );
+    }
+
+    private static String formatImpactStatement(Carbon combined) {
+        double kgCO2 = combined.carbon().kilograms();
+        double miles = combined.equivalents().carMiles();
+
+        return String.format(
+            "Our %d Discord messages generated %.3f kg CO₂, equivalent to driving %.1f miles.",
+            combined.messages(), kgCO2, miles
+        );
+    }
+
+    /**
+     * Counter changes and corrections of the running carbon totals both change the payloads.
+     */
+    private long version() {
+        return hackathonService.version() + carbonTotals.corrections();
+    }
+
+    /**
+     * Holder for one endpoint's latest snapshot. Readers take the volatile field; only a
+     * reader that finds it outdated takes the lock, and concurrent ones wait for its build
+     * instead of repeating it.
+     */
+    private final class Versioned {
+        private final String name;
+        private final Supplier<Object> builder;
+        private volatile JsonSnapshot snapshot;
+        private long builds;
+
+        Versioned(String name, Supplier<Object> builder) {
+            this.name = name;
+            this.builder = builder;
+        }
+
+        JsonSnapshot current() {
+            // Read the version before the data, so a snapshot never claims to be newer
+            // than what it contains.
+            long version = version();
+            JsonSnapshot current = snapshot;
+            if (reusable(current, version)) {
+                return current;
+            }
+            synchronized (this) {
+                current = snapshot;
+                if (reusable(current, version)) {
+                    return current;
+                }
+                current = JsonSnapshot.of(objectMapper, builder.get(), version, etag(name, version, ++builds),
+                                          gzipMinBytes);
+                snapshot = current;
+                return current;
+            }
+        }
+
+        private boolean reusable(JsonSnapshot current, long version) {
+            return current != null && current.version() >= version;
+        }
+    }
+}
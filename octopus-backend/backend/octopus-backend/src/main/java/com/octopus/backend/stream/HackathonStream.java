@@ -0,0 +1,267 @@
+package com.octopus.backend.stream;
+
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.exception.ServiceUnavailableException;
+import com.octopus.backend.snapshot.JsonSnapshot;
+import com.octopus.backend.snapshot.SnapshotPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events fan-out of the live hackathon snapshot.
+ *
+ * <p>Counter changes only mark the stream dirty; a single ticker thread turns them into
+ * at most {@code co2.stream.max-updates-per-second} frames, each wrapping the JSON bytes of
+ * the {@link SnapshotPublisher#live()} snapshot that {@code /hackathon/live} serves. Every
+ * subscriber is sent those same bytes.
+ *
+ * <p>Each subscriber has a bounded queue drained by at most one send task at a time.
+ * A subscriber whose queue is full has fallen {@code co2.stream.subscriber-buffer}
+ * frames behind and is disconnected; {@code EventSource} clients reconnect on their own
+ * and receive the current snapshot straight away.
+ *
+ * <p>Send tasks run on the stream's own {@code co2.stream.send-threads} workers, not the
+ * shared application executor, so dashboard viewers cannot starve request handling. Its
+ * queue holds one task per subscriber up to {@code co2.stream.max-subscribers}, which is
+ * all there can ever be.
+ */
+@Component
+public class HackathonStream {
+
+    private static final Logger log = LoggerFactory.getLogger(HackathonStream.class);
+    private static final String EVENT_NAME = "hackathon";
+    private static final Frame HEARTBEAT = new Frame(null, Set.of(
+        new DataWithMediaType(":heartbeat\n\n".getBytes(StandardCharsets.UTF_8), MediaType.TEXT_EVENT_STREAM)));
+
+    private final HackathonService hackathonService;
+    private final SnapshotPublisher snapshots;
+    private final ThreadPoolExecutor sendExecutor;
+    private final long minTickIntervalNanos;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final long heartbeatSeconds;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean tickScheduled = new AtomicBoolean();
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hackathon-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Frame latest;
+    private volatile long lastTickNanos;
+
+    public HackathonStream(
+            HackathonService hackathonService,
+            SnapshotPublisher snapshots,
+            @Value("${co2.stream.max-updates-per-second:4}") int maxUpdatesPerSecond,
+            @Value("${co2.stream.subscriber-buffer:16}") int subscriberBuffer,
+            @Value("${co2.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${co2.stream.timeout.minutes:30}") long timeoutMinutes,
+            @Value("${co2.stream.heartbeat.seconds:15}") long heartbeatSeconds,
+            @Value("${co2.stream.send-threads:8}") int sendThreads) {
+        this.hackathonService = hackathonService;
+        this.snapshots = snapshots;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, maxSubscribers)), runnable -> {
+                Thread thread = new Thread(runnable, "hackathon-stream-send-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.minTickIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxUpdatesPerSecond);
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        hackathonService.onChange(this::markDirty);
+        ticker.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * Registers a new subscriber and queues the current snapshot for it.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Live stream is at capacity (" + maxSubscribers + " subscribers)");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.offer(currentFrame());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long droppedSubscribers() {
+        return droppedSubscribers.get();
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void markDirty() {
+        if (subscribers.isEmpty() || !tickScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(0, lastTickNanos + minTickIntervalNanos - System.nanoTime());
+        try {
+            ticker.schedule(this::tick, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            tickScheduled.set(false);
+        }
+    }
+
+    private void tick() {
+        // Cleared before building, so changes made while we calculate schedule the next tick.
+        tickScheduled.set(false);
+        lastTickNanos = System.nanoTime();
+        try {
+            Frame frame = currentFrame();
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(frame);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not build live hackathon snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    /**
+     * Returns the frame for the current live snapshot, building it only if the snapshot
+     * changed since the last one.
+     */
+    private Frame currentFrame() {
+        Frame frame = latest;
+        JsonSnapshot snapshot = snapshots.live();
+        if (frame != null && frame.snapshot() == snapshot) {
+            return frame;
+        }
+        frame = encode(snapshot);
+        latest = frame;
+        return frame;
+    }
+
+    private static Frame encode(JsonSnapshot snapshot) {
+        byte[] header = ("id:" + snapshot.version() + "\nevent:" + EVENT_NAME + "\ndata:")
+            .getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream event = new ByteArrayOutputStream(header.length + snapshot.json().length + 2);
+        event.writeBytes(header);
+        // Serialized JSON never contains a raw newline, so it is a single data line.
+        event.writeBytes(snapshot.json());
+        event.write('\n');
+        event.write('\n');
+        return new Frame(snapshot, Set.of(new DataWithMediaType(event.toByteArray(), MediaType.TEXT_EVENT_STREAM)));
+    }
+
+    /**
+     * One pre-encoded SSE frame; {@code payload} is shared by all subscribers.
+     */
+    private record Frame(JsonSnapshot snapshot, Set<DataWithMediaType> payload) {
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> pending = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(frame)) {
+                droppedSubscribers.incrementAndGet();
+                log.debug("Dropping live stream subscriber that fell {} frames behind", subscriberBuffer);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Frame frame;
+                while (!closed && (frame = pending.poll()) != null) {
+                    emitter.send(frame.payload());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the emitter's completion callback unregisters us.
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // A frame offered between the last poll and clearing the flag would otherwise wait
+            // for the next tick.
+            if (!closed && !pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
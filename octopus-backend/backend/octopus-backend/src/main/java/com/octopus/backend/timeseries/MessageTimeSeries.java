@@ -0,0 +1,149 @@
+package com.octopus.backend.timeseries;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * In-memory message-rate history at 1s, 1m and 1h resolution.
+ *
+ * <p>Each resolution is a fixed ring ({@code co2.timeseries.*-retained} buckets), so
+ * memory is constant however long the server runs. Every recorded batch is added to the
+ * current bucket of all three rings, i.e. coarser resolutions are downsampled on write
+ * and keep their history long after the finer buckets have been overwritten. Recording
+ * is three O(1) bucket updates with no allocation.
+ */
+@Component
+public class MessageTimeSeries {
+
+    private final RingSeries seconds;
+    private final RingSeries minutes;
+    private final RingSeries hours;
+
+    public MessageTimeSeries(
+            @Value("${co2.timeseries.seconds-retained:3600}") int secondsRetained,
+            @Value("${co2.timeseries.minutes-retained:1440}") int minutesRetained,
+            @Value("${co2.timeseries.hours-retained:720}") int hoursRetained) {
+        this.seconds = new RingSeries(Resolution.SECOND.width().toMillis(), secondsRetained);
+        this.minutes = new RingSeries(Resolution.MINUTE.width().toMillis(), minutesRetained);
+        this.hours = new RingSeries(Resolution.HOUR.width().toMillis(), hoursRetained);
+    }
+
+    public void record(long realMessages, long simulationMessages, int batches) {
+        record(System.currentTimeMillis(), realMessages, simulationMessages, batches);
+    }
+
+    void record(long timestampMillis, long realMessages, long simulationMessages, int batches) {
+        seconds.add(timestampMillis, realMessages, simulationMessages, batches);
+        minutes.add(timestampMillis, realMessages, simulationMessages, batches);
+        hours.add(timestampMillis, realMessages, simulationMessages, batches);
+    }
+
+    /**
+     * How far back {@code resolution} reaches.
+     */
+    public Duration retention(Resolution resolution) {
+        RingSeries ring = ring(resolution);
+        return Duration.ofMillis(ring.widthMillis() * ring.capacity());
+    }
+
+    /**
+     * Buckets overlapping {@code [from, to]}, oldest first. A {@code to} in the future is
+     * cut off at the current bucket, so the window never holds more than the ring.
+     *
+     * @throws IllegalArgumentException if the range is empty, starts in the future or
+     *                                  reaches past the retention
+     */
+    public Window query(Resolution resolution, Instant from, Instant to) {
+        RingSeries ring = ring(resolution);
+        long firstBucket;
+        long lastBucket;
+        try {
+            firstBucket = ring.bucketOf(from.toEpochMilli());
+            lastBucket = ring.bucketOf(to.toEpochMilli());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Range is out of bounds", e);
+        }
+        long newestBucket = ring.bucketOf(System.currentTimeMillis());
+        if (lastBucket < firstBucket) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (firstBucket > newestBucket) {
+            throw new IllegalArgumentException("'from' must not be in the future");
+        }
+        lastBucket = Math.min(lastBucket, newestBucket);
+        if (firstBucket <= newestBucket - ring.capacity() || lastBucket - firstBucket >= ring.capacity()) {
+            throw new IllegalArgumentException("Range reaches past the " + retention(resolution)
+                + " kept at " + resolution.label() + " resolution");
+        }
+        int count = (int) (lastBucket - firstBucket + 1);
+        long[] values = new long[3 * count];
+        ring.read(firstBucket, count, values);
+        return new Window(resolution, Instant.ofEpochMilli(firstBucket * ring.widthMillis()), count, values);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private RingSeries ring(Resolution resolution) {
+        return switch (resolution) {
+            case SECOND -> seconds;
+            case MINUTE -> minutes;
+            case HOUR -> hours;
+        };
+    }
+
+    /**
+     * A contiguous run of buckets. {@code values} holds {real, simulation, batches}
+     * triples, one per bucket.
+     */
+    public record Window(Resolution resolution, Instant start, int buckets, long[] values) {
+
+        public Instant bucketStart(int index) {
+            return start.plus(resolution.width().multipliedBy(index));
+        }
+
+        public long realMessages(int index) {
+            return values[3 * index];
+        }
+
+        public long simulationMessages(int index) {
+            return values[3 * index + 1];
+        }
+
+        public long messages(int index) {
+            return values[3 * index] + values[3 * index + 1];
+        }
+
+        public long batches(int index) {
+            return values[3 * index + 2];
+        }
+
+        public long totalMessages() {
+            long total = 0;
+            for (int i = 0; i < buckets; i++) {
+                total += messages(i);
+            }
+            return total;
+        }
+
+        /**
+         * Nearest-rank percentiles of messages per bucket, empty buckets included.
+         */
+        public long[] percentiles(double... quantiles) {
+            long[] perBucket = new long[buckets];
+            for (int i = 0; i < buckets; i++) {
+                perBucket[i] = messages(i);
+            }
+            Arrays.sort(perBucket);
+            long[] result = new long[quantiles.length];
+            for (int q = 0; q < quantiles.length; q++) {
+                int rank = (int) Math.ceil(quantiles[q] * buckets);
+                result[q] = perBucket[Math.min(buckets - 1, Math.max(0, rank - 1))];
+            }
+            return result;
+        }
+    }
+}
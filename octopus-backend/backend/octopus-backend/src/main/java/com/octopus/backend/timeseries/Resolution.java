@@ -0,0 +1,38 @@
+package com.octopus.backend.timeseries;
+
+import java.time.Duration;
+
+/**
+ * Bucket widths kept by {@link MessageTimeSeries}.
+ */
+public enum Resolution {
+    SECOND("1s", Duration.ofSeconds(1)),
+    MINUTE("1m", Duration.ofMinutes(1)),
+    HOUR("1h", Duration.ofHours(1));
+
+    private final String label;
+    private final Duration width;
+
+    Resolution(String label, Duration width) {
+        this.label = label;
+        this.width = width;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public Duration width() {
+        return width;
+    }
+
+    public static Resolution fromProperty(String value) {
+        String trimmed = value.trim();
+        for (Resolution resolution : values()) {
+            if (resolution.label.equalsIgnoreCase(trimmed) || resolution.name().equalsIgnoreCase(trimmed)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution '" + value + "'. Use 1s, 1m or 1h");
+    }
+}
@@ -0,0 +1,76 @@
+package com.octopus.backend.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of time buckets at one resolution. Slot {@code bucket % capacity} holds
+ * the bucket with epoch index {@code bucketIds[slot]}; a slot is cleared when a later
+ * bucket claims it, so memory never grows and stale data is overwritten in place.
+ */
+final class RingSeries {
+
+    private final long widthMillis;
+    private final long[] bucketIds;
+    private final long[] realMessages;
+    private final long[] simulationMessages;
+    private final long[] batches;
+
+    RingSeries(long widthMillis, int capacity) {
+        this.widthMillis = widthMillis;
+        this.bucketIds = new long[capacity];
+        this.realMessages = new long[capacity];
+        this.simulationMessages = new long[capacity];
+        this.batches = new long[capacity];
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    int capacity() {
+        return bucketIds.length;
+    }
+
+    long bucketOf(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, widthMillis);
+    }
+
+    long widthMillis() {
+        return widthMillis;
+    }
+
+    synchronized void add(long timestampMillis, long real, long simulation, long batchCount) {
+        long bucket = bucketOf(timestampMillis);
+        int slot = slot(bucket);
+        if (bucketIds[slot] != bucket) {
+            if (bucketIds[slot] > bucket) {
+                // The wall clock stepped back past the retention window; nothing to add to.
+                return;
+            }
+            bucketIds[slot] = bucket;
+            realMessages[slot] = 0;
+            simulationMessages[slot] = 0;
+            batches[slot] = 0;
+        }
+        realMessages[slot] += real;
+        simulationMessages[slot] += simulation;
+        batches[slot] += batchCount;
+    }
+
+    /**
+     * Copies {@code count} buckets starting at {@code firstBucket} into {@code out} as
+     * consecutive {real, simulation, batches} triples; buckets never written read as zero.
+     */
+    synchronized void read(long firstBucket, int count, long[] out) {
+        for (int i = 0; i < count; i++) {
+            long bucket = firstBucket + i;
+            int slot = slot(bucket);
+            if (bucketIds[slot] == bucket) {
+                out[3 * i] = realMessages[slot];
+                out[3 * i + 1] = simulationMessages[slot];
+                out[3 * i + 2] = batches[slot];
+            }
+        }
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketIds.length);
+    }
+}
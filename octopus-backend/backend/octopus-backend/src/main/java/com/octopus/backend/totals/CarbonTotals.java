@@ -0,0 +1,342 @@
+package com.octopus.backend.totals;
+
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.dto.CarbonCalculationResponse.CarbonMetrics;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+import com.octopus.backend.engine.CarbonEngine;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.observability.BackendMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Running carbon and equivalence totals of the real and simulation streams, so that
+ * reading the hackathon totals is a memory read rather than a calculation over the whole
+ * history. On every {@link HackathonService} change each stream advances by its message
+ * delta, converted with the in-process {@link CarbonModel} (linear in message count) and
+ * added to {@link CompensatedSum}s; resets and remote counts arrive as negative and
+ * positive deltas like any batch.
+ *
+ * <p>The ingest path never waits for this: a change folds the new counts in only if no
+ * other thread is doing so, and otherwise leaves them to the next fold. Readers take the
+ * last published values and add the few messages counted since, converted on the spot,
+ * so they are exact without taking a lock either.
+ *
+ * <p>Every {@code co2.totals.reconcile.interval.ms} both streams are recalculated in full
+ * by the configured {@link CarbonEngine} (possibly the microservice) and the running
+ * values corrected to the result, keeping whatever was added meanwhile. This goes to the
+ * engine directly rather than through {@code CarbonService}, whose per-request limit the
+ * totals outgrow, and whose cache and stale fallback are of no use here. Failed
+ * recalculations are logged and skipped until the next round.
+ */
+@Component
+public class CarbonTotals {
+
+    private static final Logger log = LoggerFactory.getLogger(CarbonTotals.class);
+    private static final double REPORTED_DRIFT = 1e-9;
+
+    public record Carbon(long messages, CarbonMetrics carbon, PhysicalEquivalents equivalents) {
+    }
+
+    public record Totals(Carbon real, Carbon simulation, Carbon combined, Instant reconciledAt) {
+
+        public long totalMessages() {
+            return combined.messages();
+        }
+    }
+
+    private final HackathonService hackathonService;
+    private final CarbonEngine carbonEngine;
+    private final CarbonModel model;
+    private final BackendMetrics metrics;
+    private final long reconcileIntervalMs;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "co2-totals");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The streams are only touched by the thread holding writer.
+    private final ReentrantLock writer = new ReentrantLock();
+    private final Stream real = new Stream("real");
+    private final Stream simulation = new Stream("simulation");
+    private volatile Published published;
+    private volatile Instant reconciledAt;
+    private volatile long corrections;
+
+    public CarbonTotals(HackathonService hackathonService, CarbonEngine carbonEngine, CarbonModel model,
+                        BackendMetrics metrics,
+                        @Value("${co2.totals.reconcile.interval.ms:60000}") long reconcileIntervalMs) {
+        this.hackathonService = hackathonService;
+        this.carbonEngine = carbonEngine;
+        this.model = model;
+        this.metrics = metrics;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+        this.published = new Published(real.snapshot(), simulation.snapshot());
+        hackathonService.onChange(this::catchUp);
+        catchUp();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (reconcileIntervalMs > 0) {
+            ticker.scheduleWithFixedDelay(this::reconcileQuietly, reconcileIntervalMs, reconcileIntervalMs,
+                                          TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Both streams and their sum, as of the latest counts.
+     */
+    public Totals current() {
+        Published base = published;
+        Carbon realCarbon = advance(base.real(), hackathonService.realMessages());
+        Carbon simulationCarbon = advance(base.simulation(), hackathonService.simulationMessages());
+        return new Totals(realCarbon, simulationCarbon, sum(realCarbon, simulationCarbon), reconciledAt);
+    }
+
+    /**
+     * Folds the counts since the last fold into the running values, unless another thread
+     * is already at it. Runs on every counter change; never blocks.
+     */
+    public void catchUp() {
+        if (behind() && writer.tryLock()) {
+            try {
+                fold();
+            } finally {
+                writer.unlock();
+            }
+        }
+    }
+
+    /**
+     * Recalculates both streams in full and corrects the running values to the results.
+     * The recalculation runs outside the lock, so ingestion is not held up by it.
+     */
+    public void reconcile() {
+        Carbon realBefore;
+        Carbon simulationBefore;
+        writer.lock();
+        try {
+            fold();
+            realBefore = real.snapshot();
+            simulationBefore = simulation.snapshot();
+        } finally {
+            writer.unlock();
+        }
+        Carbon realTarget = recalculate(realBefore.messages());
+        Carbon simulationTarget = recalculate(simulationBefore.messages());
+
+        writer.lock();
+        try {
+            fold();
+            boolean changed = correct(real, realBefore, realTarget);
+            changed |= correct(simulation, simulationBefore, simulationTarget);
+            published = new Published(real.snapshot(), simulation.snapshot());
+            reconciledAt = Instant.now();
+            if (changed) {
+                corrections++;
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Reconciliations that changed a value; readers caching derived output compare it
+     * alongside {@link HackathonService#version()}.
+     */
+    public long corrections() {
+        return corrections;
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private boolean behind() {
+        Published base = published;
+        return base.real().messages() != hackathonService.realMessages()
+            || base.simulation().messages() != hackathonService.simulationMessages();
+    }
+
+    /**
+     * Advances both streams to the current counts and publishes them. Holds writer.
+     */
+    private void fold() {
+        real.advanceTo(hackathonService.realMessages(), model);
+        simulation.advanceTo(hackathonService.simulationMessages(), model);
+        published = new Published(real.snapshot(), simulation.snapshot());
+    }
+
+    /**
+     * {@code base} moved on to {@code count} messages, without touching the streams.
+     */
+    private Carbon advance(Carbon base, long count) {
+        long delta = count - base.messages();
+        if (delta == 0) {
+            return base;
+        }
+        if (count == 0) {
+            return new Carbon(0, new CarbonMetrics(0.0, 0.0), new PhysicalEquivalents(0.0, 0.0));
+        }
+        Increment increment = Increment.of(delta, model);
+        return new Carbon(count,
+                          new CarbonMetrics(base.carbon().grams() + increment.grams(),
+                                            base.carbon().kilograms() + increment.kilograms()),
+                          new PhysicalEquivalents(base.equivalents().carMiles() + increment.carMiles(),
+                                                  base.equivalents().treeDays() + increment.treeDays()));
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Carbon totals reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The engine's answer for {@code messages}, or {@code null} when it cannot give a
+     * fresh one.
+     */
+    private Carbon recalculate(long messages) {
+        if (messages == 0) {
+            return new Carbon(0, new CarbonMetrics(0.0, 0.0), new PhysicalEquivalents(0.0, 0.0));
+        }
+        try {
+            CarbonCalculationResponse calculation = carbonEngine.calculateDiscord(messages);
+            if (calculation.stale() || calculation.carbon() == null) {
+                return null;
+            }
+            double kilograms = calculation.carbon().kilograms();
+            PhysicalEquivalents equivalents = calculation.equivalents() != null
+                ? calculation.equivalents()
+                : new PhysicalEquivalents(model.carMiles(kilograms), model.treeDays(kilograms));
+            return new Carbon(messages, calculation.carbon(), equivalents);
+        } catch (RuntimeException e) {
+            log.warn("Skipping reconciliation of {} messages: {}", messages, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean correct(Stream stream, Carbon before, Carbon target) {
+        if (target == null) {
+            return false;
+        }
+        double drift = target.carbon().grams() - before.carbon().grams();
+        metrics.recordTotalsDrift(stream.name, Math.abs(drift));
+        if (Math.abs(drift) > REPORTED_DRIFT * Math.abs(target.carbon().grams())) {
+            log.info("Reconciled {} carbon total for {} messages: {} g off", stream.name, before.messages(), drift);
+        }
+        return stream.correct(before, target);
+    }
+
+    private static Carbon sum(Carbon a, Carbon b) {
+        return new Carbon(
+            a.messages() + b.messages(),
+            new CarbonMetrics(a.carbon().grams() + b.carbon().grams(),
+                              a.carbon().kilograms() + b.carbon().kilograms()),
+            new PhysicalEquivalents(a.equivalents().carMiles() + b.equivalents().carMiles(),
+                                    a.equivalents().treeDays() + b.equivalents().treeDays())
+        );
+    }
+
+    private record Published(Carbon real, Carbon simulation) {
+    }
+
+    /**
+     * What {@code delta} messages add to a stream, in the in-process model.
+     */
+    private record Increment(double grams, double kilograms, double carMiles, double treeDays) {
+
+        static Increment of(long delta, CarbonModel model) {
+            // gramsForBytes clamps below one byte, so removals are converted by magnitude.
+            double sign = Math.signum(delta);
+            double deltaGrams = model.gramsForBytes(model.discordBytes(Math.abs(delta)), model.greenHosting());
+            double deltaKilograms = deltaGrams / 1000;
+            return new Increment(sign * deltaGrams, sign * deltaKilograms,
+                                 sign * model.carMiles(deltaKilograms), sign * model.treeDays(deltaKilograms));
+        }
+    }
+
+    /**
+     * One stream's running values.
+     */
+    private static final class Stream {
+        private final String name;
+        private final CompensatedSum grams = new CompensatedSum();
+        private final CompensatedSum kilograms = new CompensatedSum();
+        private final CompensatedSum carMiles = new CompensatedSum();
+        private final CompensatedSum treeDays = new CompensatedSum();
+        private long messages;
+
+        Stream(String name) {
+            this.name = name;
+        }
+
+        void advanceTo(long count, CarbonModel model) {
+            long delta = count - messages;
+            if (delta == 0) {
+                return;
+            }
+            if (count == 0) {
+                // An emptied stream is exactly zero, not what the removal's rounding leaves.
+                for (CompensatedSum sum : new CompensatedSum[] {grams, kilograms, carMiles, treeDays}) {
+                    sum.set(0);
+                }
+                messages = 0;
+                return;
+            }
+            Increment increment = Increment.of(delta, model);
+            grams.add(increment.grams());
+            kilograms.add(increment.kilograms());
+            carMiles.add(increment.carMiles());
+            treeDays.add(increment.treeDays());
+            messages = count;
+        }
+
+        Carbon snapshot() {
+            return new Carbon(messages,
+                              new CarbonMetrics(grams.value(), kilograms.value()),
+                              new PhysicalEquivalents(carMiles.value(), treeDays.value()));
+        }
+
+        /**
+         * Moves the values to {@code target} plus whatever was added since {@code before}.
+         */
+        boolean correct(Carbon before, Carbon target) {
+            Carbon now = snapshot();
+            boolean changed = move(grams, now.carbon().grams(), before.carbon().grams(), target.carbon().grams());
+            changed |= move(kilograms, now.carbon().kilograms(), before.carbon().kilograms(),
+                            target.carbon().kilograms());
+            changed |= move(carMiles, now.equivalents().carMiles(), before.equivalents().carMiles(),
+                            target.equivalents().carMiles());
+            changed |= move(treeDays, now.equivalents().treeDays(), before.equivalents().treeDays(),
+                            target.equivalents().treeDays());
+            return changed;
+        }
+
+        private static boolean move(CompensatedSum sum, double now, double before, double target) {
+            if (target == before) {
+                return false;
+            }
+            sum.set(target + (now - before));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.octopus.backend.totals;
+
+/**
+ * Running sum of doubles with Neumaier's compensated summation: the low-order bits lost
+ * by each addition are carried in a separate term, so the error stays at a few ulps of
+ * the total however many terms are added, instead of growing with their number.
+ *
+ * <p>Not thread-safe.
+ */
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    public void add(double value) {
+        double next = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - next) + value;
+        } else {
+            compensation += (value - next) + sum;
+        }
+        sum = next;
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+
+    /**
+     * Replaces the sum, e.g. with a recalculated total, dropping the compensation.
+     */
+    public void set(double value) {
+        sum = value;
+        compensation = 0;
+    }
+}
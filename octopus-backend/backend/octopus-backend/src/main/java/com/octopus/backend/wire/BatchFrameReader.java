@@ -0,0 +1,108 @@
+package com.octopus.backend.wire;
+
+import com.octopus.backend.dto.BatchRecord;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the compact binary alternative to JSON batch records,
+ * {@value #MEDIA_TYPE}, straight into {@link BatchRecord}s. All integers are big-endian:
+ *
+ * <pre>
+ * stream  := "CO2B" version:u8 record*
+ * record  := flags:u8 count:i64 [source] [guild] [channel] [batchId]
+ * string  := length:u16 utf8-bytes
+ * flags   := bit 0 simulation, bits 1-4 source/guild/channel/batchId present
+ * </pre>
+ *
+ * The stream ends after the last complete record; a record cut short is malformed.
+ * Encoded by {@code discord-listener-bot/batch-frame.js}.
+ */
+public class BatchFrameReader {
+
+    public static final String MEDIA_TYPE = "application/x-co2-batch";
+    static final byte[] MAGIC = {'C', 'O', '2', 'B'};
+    static final int VERSION = 1;
+
+    static final int SIMULATION = 1;
+    static final int HAS_SOURCE = 1 << 1;
+    static final int HAS_GUILD = 1 << 2;
+    static final int HAS_CHANNEL = 1 << 3;
+    static final int HAS_BATCH_ID = 1 << 4;
+    private static final int KNOWN_FLAGS = SIMULATION | HAS_SOURCE | HAS_GUILD | HAS_CHANNEL | HAS_BATCH_ID;
+
+    private final DataInputStream in;
+    private final byte[] scratch = new byte[256];
+    private boolean headerRead;
+
+    public BatchFrameReader(InputStream body) {
+        this.in = new DataInputStream(new BufferedInputStream(body));
+    }
+
+    /**
+     * The next record, or {@code null} at the end of the stream.
+     *
+     * @throws MalformedFrameException if the stream is not a valid frame stream
+     */
+    public BatchRecord next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+            headerRead = true;
+        }
+        int flags = in.read();
+        if (flags < 0) {
+            return null;
+        }
+        if ((flags & ~KNOWN_FLAGS) != 0) {
+            throw new MalformedFrameException("Unknown flags 0x" + Integer.toHexString(flags));
+        }
+        try {
+            long count = in.readLong();
+            String source = (flags & HAS_SOURCE) != 0 ? readString() : null;
+            String guild = (flags & HAS_GUILD) != 0 ? readString() : null;
+            String channel = (flags & HAS_CHANNEL) != 0 ? readString() : null;
+            String batchId = (flags & HAS_BATCH_ID) != 0 ? readString() : null;
+            return new BatchRecord(source, guild, channel, count, (flags & SIMULATION) != 0, batchId);
+        } catch (EOFException e) {
+            throw new MalformedFrameException("Record cut short");
+        }
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void readHeader() throws IOException {
+        byte[] header = new byte[MAGIC.length + 1];
+        int read = in.readNBytes(header, 0, header.length);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (read <= i || header[i] != MAGIC[i]) {
+                throw new MalformedFrameException("Missing CO2B header");
+            }
+        }
+        if (read < header.length || header[MAGIC.length] != VERSION) {
+            throw new MalformedFrameException("Unsupported frame version "
+                                              + (read < header.length ? "(none)" : header[MAGIC.length]));
+        }
+    }
+
+    private String readString() throws IOException {
+        int length = in.readUnsignedShort();
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        in.readFully(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The body is not a well-formed frame stream.
+     */
+    public static class MalformedFrameException extends IOException {
+
+        public MalformedFrameException(String message) {
+            super(message);
+        }
+    }
+}
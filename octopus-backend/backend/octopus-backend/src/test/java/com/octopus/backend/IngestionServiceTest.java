@@ -0,0 +1,249 @@
+package com.octopus.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.IngestionService.Delivery;
+import com.octopus.backend.admission.AdaptiveLimit;
+import com.octopus.backend.admission.IngestAdmission;
+import com.octopus.backend.admission.IngestAdmission.Rate;
+import com.octopus.backend.admission.OverLimit;
+import com.octopus.backend.counters.CounterRegistry;
+import com.octopus.backend.counters.Dimension;
+import com.octopus.backend.dedup.BatchIdWindow;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.dto.BulkIngestResponse;
+import com.octopus.backend.dto.BulkIngestResponse.Status;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import com.octopus.backend.exception.ServiceUnavailableException;
+import com.octopus.backend.exception.ValidationException;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.replication.ReplicatedCounters;
+import com.octopus.backend.timeseries.MessageTimeSeries;
+import com.octopus.backend.totals.CarbonTotals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private PersistenceService persistenceService;
+    private boolean failNextWrite;
+    private CounterRegistry counters;
+    private HackathonService hackathonService;
+    private IngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+        persistenceService = new PersistenceService(dataDir.toString(), "os", 50, 10_000, metrics) {
+            @Override
+            public void recordBatch(long messageCount) {
+                if (failNextWrite) {
+                    failNextWrite = false;
+                    throw new ServiceUnavailableException("Could not persist the batch, retry later");
+                }
+                super.recordBatch(messageCount);
+            }
+        };
+        counters = new CounterRegistry(100, 100);
+        hackathonService = new HackathonService(persistenceService, counters,
+                                                new MessageTimeSeries(60, 60, 24), metrics,
+                                                new ReplicatedCounters("test", null));
+        ingestionService = new IngestionService(hackathonService,
+                                                new CarbonTotals(hackathonService, new LocalCarbonEngine(CarbonModel.SWD_V3), CarbonModel.SWD_V3, metrics, 0),
+                                                new BatchIdWindow(60_000_000_000L, 2, 16, System::nanoTime),
+                                                new IngestAdmission(true, OverLimit.REJECT, new Rate(1, 2), new Rate(1, 2), 10,
+                                                                    new AdaptiveLimit(4, Long.MAX_VALUE, 0.5, System::nanoTime),
+                                                                    new AdaptiveLimit(4, Long.MAX_VALUE, 0.5, System::nanoTime),
+                                                                    System::nanoTime, metrics),
+                                                metrics, objectMapper, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceService.close();
+    }
+
+    @Test
+    void appliesNdjsonAsOneUpdateAndAcknowledgesEachRecord() {
+        BulkIngestResponse response = ingestionService.ingest(body("""
+            {"source":"listener","channel":"general","count":10,"batchId":"a"}
+            {"channel":"random","count":-1,"batchId":"b"}
+            {"count":5,"simulation":true,"batchId":"c"}
+            """));
+
+        assertEquals(2, response.accepted());
+        assertEquals(1, response.rejected());
+        assertEquals(Status.ACCEPTED, response.batches().get(0).status());
+        assertEquals(Status.REJECTED, response.batches().get(1).status());
+        assertEquals("b", response.batches().get(1).batchId());
+        assertEquals(15, response.hackathon().totalMessages());
+        assertEquals(10, hackathonService.realMessages());
+        assertEquals(5, hackathonService.simulationMessages());
+        assertEquals(1, hackathonService.version(), "one aggregate update per request");
+    }
+
+    @Test
+    void acceptsJsonArrayAndLegacyFlag() {
+        BulkIngestResponse response = ingestionService.ingest(body(
+            "[{\"count\":3},{\"count\":4,\"isSimulation\":true},{\"channel\":\"no-count\"}]"));
+
+        assertEquals(2, response.accepted());
+        assertEquals("Missing required field: count", response.batches().get(2).error());
+        assertEquals(3, hackathonService.realMessages());
+        assertEquals(4, hackathonService.simulationMessages());
+    }
+
+    @Test
+    void retriedBatchIsAcknowledgedButNotAppliedAgain() {
+        ingestionService.ingest(body("{\"count\":10,\"batchId\":\"a\"}\n{\"count\":2}"));
+        BulkIngestResponse retry = ingestionService.ingest(body("""
+            {"count":10,"batchId":"a"}
+            {"count":2}
+            {"count":7,"batchId":"b"}
+            """));
+
+        assertEquals(2, retry.accepted(), "the batch without an id, and b");
+        assertEquals(1, retry.duplicates());
+        assertEquals(0, retry.rejected());
+        assertEquals(Status.DUPLICATE, retry.batches().get(0).status());
+        assertEquals(21, hackathonService.realMessages());
+    }
+
+    @Test
+    void batchThatFailedToApplyIsCountedOnRetry() {
+        failNextWrite = true;
+        assertThrows(ServiceUnavailableException.class,
+                     () -> ingestionService.deliver(new BatchRecord("bot", null, null, 10L, false, "a")));
+        assertEquals(Delivery.APPLIED, ingestionService.deliver(new BatchRecord("bot", null, null, 10L, false, "a")));
+
+        failNextWrite = true;
+        assertThrows(ServiceUnavailableException.class,
+                     () -> ingestionService.ingest(body("{\"count\":7,\"batchId\":\"b\"}")));
+        BulkIngestResponse retry = ingestionService.ingest(body("{\"count\":7,\"batchId\":\"b\"}"));
+
+        assertEquals(1, retry.accepted());
+        assertEquals(0, retry.duplicates());
+        assertEquals(17, hackathonService.realMessages());
+    }
+
+    @Test
+    void sourceOverItsRateIsThrottledWithoutClaimingBatchIds() {
+        ingestionService.ingest(body("{\"source\":\"gen\",\"count\":1}"));
+        ingestionService.ingest(body("{\"source\":\"gen\",\"count\":1}"));
+        BulkIngestResponse response = ingestionService.ingest(body("""
+            {"source":"gen","count":5,"batchId":"x"}
+            {"source":"listener","count":7,"batchId":"y"}
+            """));
+
+        assertEquals(1, response.throttled());
+        assertEquals(Status.THROTTLED, response.batches().get(0).status());
+        assertEquals(Status.ACCEPTED, response.batches().get(1).status(), "other sources are unaffected");
+        assertNotNull(response.retryAfterSeconds());
+        assertEquals(9, hackathonService.realMessages());
+        assertTrue(ingestionService.firstDelivery(new BatchRecord("gen", null, null, 5L, false, "x")),
+                   "a throttled batch can be resent under the same id");
+    }
+
+    @Test
+    void rejectedSingleBatchLeavesCountersUntouched() {
+        assertThrows(ValidationException.class,
+                     () -> ingestionService.deliver(new BatchRecord("bot", null, null, -5L, false, "neg")));
+        assertThrows(ValidationException.class,
+                     () -> ingestionService.deliver(new BatchRecord("bot", null, null, 10_000_001L, false, null)));
+        assertThrows(ValidationException.class,
+                     () -> ingestionService.deliver(new BatchRecord("bot", null, null, null, false, null)));
+
+        assertEquals(0, hackathonService.totalMessages());
+        assertEquals(0, hackathonService.version());
+        assertTrue(ingestionService.firstDelivery(new BatchRecord("bot", null, null, 5L, false, "neg")),
+                   "a rejected batch does not claim its id");
+        assertEquals(Delivery.APPLIED, ingestionService.deliver(new BatchRecord("bot", null, null, 5L, false, null)));
+        assertEquals(5, hackathonService.realMessages());
+    }
+
+    @Test
+    void malformedBodyAppliesNothing() {
+        assertThrows(ValidationException.class,
+                     () -> ingestionService.ingest(body("{\"count\":1}\n{\"count\":")));
+        assertThrows(ValidationException.class, () -> ingestionService.ingest(body(
+            "{\"count\":1}\n{\"count\":1}\n{\"count\":1}\n{\"count\":1}")), "over max-records");
+
+        assertEquals(0, hackathonService.totalMessages());
+        assertEquals(0, hackathonService.version());
+    }
+
+    @Test
+    void binaryFramesAreAcknowledgedLikeJson() throws IOException {
+        BulkIngestResponse response = ingestionService.ingestFrames(frames(out -> {
+            out.writeByte(0b1_1010);        // source, channel, batchId
+            out.writeLong(10);
+            writeString(out, "listener");
+            writeString(out, "général");
+            writeString(out, "a");
+            out.writeByte(0);
+            out.writeLong(-1);
+            out.writeByte(0b1_0001);        // simulation, batchId
+            out.writeLong(5);
+            writeString(out, "a");
+        }));
+
+        assertEquals(1, response.accepted());
+        assertEquals(1, response.rejected());
+        assertEquals(1, response.duplicates(), "batch ids are shared with the JSON path");
+        assertEquals(10, hackathonService.realMessages());
+        assertEquals(1, counters.top(Dimension.CHANNEL, 5, false).stream()
+            .filter(entry -> entry.name().equals("général")).count());
+
+        assertThrows(ValidationException.class, () -> ingestionService.ingestFrames(frames(out -> {
+            out.writeByte(0);
+            out.writeLong(1);
+            out.writeByte(0b10);
+            out.writeLong(1);
+            out.writeShort(8);              // source cut short
+            out.writeBytes("gen");
+        })));
+        assertThrows(ValidationException.class,
+                     () -> ingestionService.ingestFrames(body("[{\"count\":1}]")), "JSON is not a frame");
+        assertEquals(10, hackathonService.totalMessages());
+    }
+
+    private static InputStream frames(FrameWriter records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBytes("CO2B");
+        out.writeByte(1);
+        records.write(out);
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,7 +3,7 @@ package com.octopus.backend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "co2.persistence.dir=target")
 class OctopusBackendApplicationTests {
 
 	@Test
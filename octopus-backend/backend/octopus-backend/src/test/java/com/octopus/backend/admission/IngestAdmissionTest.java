@@ -0,0 +1,119 @@
+package com.octopus.backend.admission;
+
+import com.octopus.backend.admission.IngestAdmission.Decision;
+import com.octopus.backend.admission.IngestAdmission.Permit;
+import com.octopus.backend.admission.IngestAdmission.Rate;
+import com.octopus.backend.admission.IngestAdmission.Ticket;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.exception.TooManyRequestsException;
+import com.octopus.backend.observability.BackendMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestAdmissionTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000 * MS);
+    private final BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+
+    @Test
+    void bucketAllowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        assertEquals(0, bucket.tryTake());
+        assertEquals(0, bucket.tryTake());
+        assertEquals(0, bucket.tryTake());
+        assertEquals(100 * MS, bucket.tryTake(), "next token in one interval");
+
+        clock.addAndGet(100 * MS);
+        assertEquals(0, bucket.tryTake());
+        clock.addAndGet(10_000 * MS);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(), "an idle bucket holds at most burst tokens");
+        }
+        assertTrue(bucket.tryTake() > 0);
+    }
+
+    @Test
+    void limitBacksOffOnSlowRequestsAndGrowsBackOnFastOnes() {
+        AdaptiveLimit limit = new AdaptiveLimit(8, 100 * MS, 0.5, clock::get);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        for (int i = 0; i < 8; i++) {
+            limit.release(500 * MS);
+        }
+        assertEquals(4, limit.limit(), "one cut for the whole slow round, not one per request");
+
+        for (int i = 0; i < 40; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(10 * MS);
+        }
+        assertEquals(8, limit.limit());
+    }
+
+    @Test
+    void overRateSourcesAreThrottledIndependently() {
+        IngestAdmission admission = admission(OverLimit.REJECT);
+
+        assertEquals(Decision.ADMITTED, admission.admit("gen", false).decision());
+        Ticket throttled = admission.admit("gen", false);
+        assertEquals(Decision.THROTTLED, throttled.decision());
+        assertEquals(1, throttled.retryAfterSeconds());
+        assertEquals(Decision.ADMITTED, admission.admit("listener", false).decision());
+        assertEquals(Decision.ADMITTED, admission.admit("gen", true).decision(), "simulation has its own bucket");
+    }
+
+    @Test
+    void simulationIsShedWhileRealRequestsAreSlow() {
+        IngestAdmission admission = admission(OverLimit.REJECT);
+        admission.enter(true).close();
+
+        Permit real = admission.enter(false);
+        clock.addAndGet(200 * MS);
+        real.close();
+
+        assertThrows(TooManyRequestsException.class, () -> admission.enter(true));
+        admission.enter(false).close();
+        clock.addAndGet(2_000 * MS);
+        admission.enter(true).close();
+    }
+
+    @Test
+    void coalescedCountsRideOnTheNextAdmittedBatch() {
+        IngestAdmission admission = admission(OverLimit.COALESCE);
+        List<BatchRecord> flushed = new ArrayList<>();
+        admission.onDeferredDue(flushed::add);
+
+        admission.admit("gen", false);
+        assertEquals(Decision.DEFERRED, admission.admit("gen", false).decision());
+        admission.defer("gen", false, 5);
+        admission.defer("gen", false, 2);
+        assertEquals(7, admission.deferredMessages());
+
+        clock.addAndGet(1_000 * MS);
+        assertEquals(7, admission.admit("gen", false).deferred());
+        assertEquals(0, admission.deferredMessages());
+
+        admission.defer("gen", false, 3);
+        admission.close();
+        assertEquals(List.of(new BatchRecord("gen", null, null, 3L, false, null)), flushed);
+    }
+
+    private IngestAdmission admission(OverLimit overLimit) {
+        return new IngestAdmission(true, overLimit, new Rate(1, 1), new Rate(1, 1), 10,
+                                   new AdaptiveLimit(4, 100 * MS, 0.5, clock::get),
+                                   new AdaptiveLimit(2, 100 * MS, 0.5, clock::get),
+                                   clock::get, metrics);
+    }
+}
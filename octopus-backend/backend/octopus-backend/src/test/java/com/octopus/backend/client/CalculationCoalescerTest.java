@@ -0,0 +1,104 @@
+package com.octopus.backend.client;
+
+import com.octopus.backend.client.CalculationCoalescer.Item;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationCoalescerTest {
+
+    private final LocalCarbonEngine engine = new LocalCarbonEngine(CarbonModel.SWD_V3);
+    private final List<long[]> calls = new CopyOnWriteArrayList<>();
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private CalculationCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        coalescer.close();
+    }
+
+    @Test
+    void mergesRequestsInOneWindowAndSendsEachCountOnce() throws Exception {
+        coalescer = new CalculationCoalescer(this::bulk, batches::add, 50_000, 64);
+
+        CompletableFuture<CarbonCalculationResponse> first = coalescer.submit(10);
+        CompletableFuture<CarbonCalculationResponse> second = coalescer.submit(20);
+        CompletableFuture<CarbonCalculationResponse> repeat = coalescer.submit(10);
+
+        assertEquals(20, get(second).count());
+        assertEquals(10, get(first).count());
+        assertSame(get(first), get(repeat));
+        assertEquals(1, calls.size());
+        assertArrayEquals(new long[] {10, 20}, calls.get(0));
+        assertEquals(List.of(3), batches);
+    }
+
+    @Test
+    void fullBatchGoesOutWithoutWaitingForTheWindow() throws Exception {
+        coalescer = new CalculationCoalescer(this::bulk, batches::add, TimeUnit.SECONDS.toMicros(60), 2);
+
+        CompletableFuture<CarbonCalculationResponse> first = coalescer.submit(1);
+        CompletableFuture<CarbonCalculationResponse> second = coalescer.submit(2);
+
+        assertEquals(1, get(first).count());
+        assertEquals(2, get(second).count());
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void failsOnlyTheCountsThatFailed() throws Exception {
+        coalescer = new CalculationCoalescer(counts -> {
+            List<Item> items = new ArrayList<>();
+            for (long count : counts) {
+                items.add(count < 0
+                    ? new Item(null, new IllegalArgumentException("negative"))
+                    : new Item(engine.calculateDiscord(count), null));
+            }
+            return CompletableFuture.completedFuture(items);
+        }, batches::add, 1_000, 2);
+
+        CompletableFuture<CarbonCalculationResponse> bad = coalescer.submit(-1);
+        CompletableFuture<CarbonCalculationResponse> good = coalescer.submit(5);
+
+        assertEquals(5, get(good).count());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> get(bad));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+    }
+
+    @Test
+    void failedBulkCallFailsEveryCaller() {
+        IllegalStateException down = new IllegalStateException("down");
+        coalescer = new CalculationCoalescer(counts -> CompletableFuture.failedFuture(down), batches::add, 1_000, 64);
+
+        CompletableFuture<CarbonCalculationResponse> first = coalescer.submit(1);
+        CompletableFuture<CarbonCalculationResponse> second = coalescer.submit(2);
+
+        assertSame(down, assertThrows(ExecutionException.class, () -> get(first)).getCause());
+        assertSame(down, assertThrows(ExecutionException.class, () -> get(second)).getCause());
+    }
+
+    private CompletableFuture<List<Item>> bulk(long[] counts) {
+        calls.add(counts);
+        List<Item> items = new ArrayList<>();
+        for (long count : counts) {
+            items.add(new Item(engine.calculateDiscord(count), null));
+        }
+        return CompletableFuture.completedFuture(items);
+    }
+
+    private static CarbonCalculationResponse get(CompletableFuture<CarbonCalculationResponse> future)
+        throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.octopus.backend.client;
+
+import com.octopus.backend.client.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long SLOW = 1_000;
+    private static final long OPEN_FOR = 10_000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(0.5, 0.8, SLOW, 10, 4, OPEN_FOR, 2, clock::get);
+
+    @Test
+    void opensOnFailureRateAndRecoversThroughHalfOpen() {
+        call(false, 1);
+        call(true, 1);
+        call(false, 1);
+        assertEquals(State.CLOSED, breaker.state(), "below minimum calls");
+        call(true, 1);
+        assertEquals(State.OPEN, breaker.state(), "2 of 4 failed");
+        assertFalse(breaker.tryAcquire());
+
+        clock.addAndGet(OPEN_FOR);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only two trial calls");
+        assertEquals(State.HALF_OPEN, breaker.state());
+
+        breaker.record(false, 1);
+        breaker.record(false, 1);
+        assertEquals(State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void opensOnSlowCallsAndReopensOnFailedTrial() {
+        for (int i = 0; i < 4; i++) {
+            call(false, SLOW);
+        }
+        assertEquals(State.OPEN, breaker.state());
+
+        clock.addAndGet(OPEN_FOR);
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.record(true, 1);
+        breaker.record(false, 1);
+        assertEquals(State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void failuresAgeOutOfTheWindow() {
+        call(true, 1);
+        for (int i = 0; i < 10; i++) {
+            call(false, 1);
+        }
+        call(true, 1);
+        call(true, 1);
+        call(true, 1);
+        assertEquals(State.CLOSED, breaker.state(), "3 of the last 10 failed");
+    }
+
+    @Test
+    void retryBudgetCapsRetriesAtRatioOfRequests() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    private void call(boolean failed, long elapsed) {
+        assertTrue(breaker.tryAcquire());
+        breaker.record(failed, elapsed);
+    }
+}
@@ -0,0 +1,107 @@
+package com.octopus.backend.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.dto.HealthStatus;
+import com.octopus.backend.dto.ServiceHealthResponse;
+import com.octopus.backend.observability.BackendMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthProberTest {
+
+    private final AtomicInteger calculations = new AtomicInteger();
+    private volatile String healthBody = "{\"status\":\"operational\"}";
+    private volatile long healthDelayMs;
+    private HttpServer server;
+    private Co2MicroserviceClient client;
+    private HealthProber prober;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/health", this::health);
+        server.createContext("/api/v1/calculate/discord", exchange -> {
+            calculations.incrementAndGet();
+            respond(exchange, "{\"count\":1}");
+        });
+        server.start();
+        BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+        client = new Co2MicroserviceClient("http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1",
+                                           1, 500, 1, 1, 0, 0, 1, new ObjectMapper(), metrics,
+                                           new CircuitBreaker(0.5, 0.8, Long.MAX_VALUE, 10, 10, 0, 1, System::nanoTime),
+                                           new RetryBudget(0, 0));
+        prober = new HealthProber(client, false, 60_000, 60_000, 400, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void classifiesByReportedStatusAndLatency() throws Exception {
+        assertEquals(HealthStatus.UNKNOWN, client.lastHealth().status());
+        assertEquals(HealthStatus.OPERATIONAL, prober.probe().get().status());
+
+        healthDelayMs = 700;
+        ServiceHealthResponse slow = prober.probe().get();
+        assertEquals(HealthStatus.DEGRADED, slow.status());
+        assertTrue(slow.detail().startsWith("answered in"), slow.detail());
+
+        healthDelayMs = 0;
+        healthBody = "{\"status\":\"maintenance\"}";
+        assertEquals(HealthStatus.DEGRADED, prober.probe().get().status());
+        assertSame(client.lastHealth(), client.lastHealth(), "reads do not probe");
+    }
+
+    @Test
+    void goesDownAfterRepeatedFailuresAndFailsCalculationsFast() throws Exception {
+        prober.probe().get();
+        server.stop(0);
+
+        assertEquals(HealthStatus.DEGRADED, prober.probe().get().status(), "one failure is not down yet");
+        ServiceHealthResponse down = prober.probe().get();
+        assertEquals(HealthStatus.DOWN, down.status());
+        assertEquals(HealthStatus.DOWN, client.lastHealth().status());
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                                                  () -> client.calculateDiscordAsync(5).get());
+        assertInstanceOf(CircuitOpenException.class, failure.getCause());
+        assertEquals(0, calculations.get());
+
+        assertEquals(HealthStatus.UNKNOWN, down.transitions().get(0).from());
+        assertEquals(HealthStatus.DOWN, down.transitions().get(down.transitions().size() - 1).to());
+        assertEquals(down.transitions(), client.lastHealth().transitions());
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(healthDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        respond(exchange, healthBody);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
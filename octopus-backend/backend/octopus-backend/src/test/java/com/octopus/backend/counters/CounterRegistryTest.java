@@ -0,0 +1,73 @@
+package com.octopus.backend.counters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CounterRegistryTest {
+
+    @Test
+    void concurrentAddsAcrossResizesAreNotLost() throws Exception {
+        CounterRegistry registry = new CounterRegistry(10_000, 10_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = IntStream.range(0, 8)
+                .<Future<?>>mapToObj(thread -> pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        // 500 channels per guild: the cell table grows while everyone writes.
+                        registry.add("guild-" + (i % 4), "channel-" + (i % 500), "bot", false, 1);
+                    }
+                }))
+                .toList();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(160_000, registry.totals(null, null, null).totalMessages());
+        assertEquals(40_000, registry.totals("guild-1", null, null).realMessages());
+        assertEquals(500, registry.cardinality());
+    }
+
+    @Test
+    void foldsCombinationsBeyondTheCapIntoOther() {
+        CounterRegistry registry = new CounterRegistry(2, 100);
+        registry.add("g", "a", "bot", false, 1);
+        registry.add("g", "b", "bot", false, 2);
+        registry.add("g", "c", "bot", false, 3);
+        registry.add("g", "d", "bot", true, 4);
+
+        assertEquals(10, registry.totals(null, null, null).totalMessages());
+        assertEquals(2, registry.overflowedBatches());
+        assertEquals(List.of(new CounterRegistry.Entry("other", 7), new CounterRegistry.Entry("b", 2)),
+                     registry.top(Dimension.CHANNEL, 2, null));
+    }
+
+    @Test
+    void ranksFiltersAndResetsSimulation() {
+        CounterRegistry registry = new CounterRegistry(100, 100);
+        registry.add("alpha", "general", "listener", false, 30);
+        registry.add("beta", "general", "listener", false, 10);
+        registry.add("beta", "random", "simulator", true, 50);
+        registry.add(null, null, null, false, 5);
+
+        assertEquals("beta", registry.top(Dimension.GUILD, 1, null).get(0).name());
+        assertEquals("alpha", registry.top(Dimension.GUILD, 1, false).get(0).name());
+        assertEquals(new CounterRegistry.Totals(40, 0), registry.totals(null, "general", null));
+        assertEquals(new CounterRegistry.Totals(5, 0), registry.totals("unknown", null, null));
+        assertEquals(new CounterRegistry.Totals(0, 0), registry.totals("never-seen", null, null));
+
+        registry.resetSimulation();
+        assertEquals(new CounterRegistry.Totals(10, 0), registry.totals("beta", null, null));
+        assertTrue(registry.top(Dimension.SOURCE, 10, null).stream().noneMatch(e -> e.name().equals("simulator")));
+    }
+}
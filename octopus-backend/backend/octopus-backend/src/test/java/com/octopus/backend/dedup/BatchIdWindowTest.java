@@ -0,0 +1,80 @@
+package com.octopus.backend.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchIdWindowTest {
+
+    private static final long WINDOW = 3_000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void remembersIdsForAtLeastTheWindow() {
+        // Slices of 1000: an id is kept for between 3000 and 4000.
+        BatchIdWindow window = new BatchIdWindow(WINDOW, 4, 100, clock::get);
+
+        assertTrue(window.firstSeen("a"));
+        assertFalse(window.firstSeen("a"));
+        clock.set(999);
+        assertTrue(window.firstSeen("b"));
+
+        clock.set(3_999);
+        assertFalse(window.firstSeen("a"), "a and b share the first slice");
+        assertFalse(window.firstSeen("b"));
+
+        clock.set(4_000);
+        assertTrue(window.firstSeen("a"), "first slice reused");
+        assertTrue(window.firstSeen("b"));
+        assertEquals(2, window.size());
+    }
+
+    @Test
+    void forgottenIdsAreNewAgainAndTheRestStay() {
+        BatchIdWindow window = new BatchIdWindow(WINDOW, 2, 1_000, clock::get);
+        for (int i = 0; i < 1_000; i++) {
+            window.firstSeen("id-" + i);
+        }
+
+        for (int i = 0; i < 1_000; i += 3) {
+            window.forget("id-" + i);
+        }
+        window.forget("never-seen");
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i % 3 == 0, window.firstSeen("id-" + i), "id-" + i);
+        }
+        assertEquals(1_000, window.size());
+    }
+
+    @Test
+    void longIdleClearsEverything() {
+        BatchIdWindow window = new BatchIdWindow(WINDOW, 4, 100, clock::get);
+        for (int i = 0; i < 50; i++) {
+            window.firstSeen("id-" + i);
+        }
+
+        clock.set(1_000_000);
+        assertTrue(window.firstSeen("id-7"));
+        assertEquals(1, window.size());
+    }
+
+    @Test
+    void fullSliceShortensTheWindowInsteadOfGrowing() {
+        BatchIdWindow window = new BatchIdWindow(WINDOW, 2, 10, clock::get);
+        long footprint = window.footprintBytes();
+
+        for (int i = 0; i < 25; i++) {
+            assertTrue(window.firstSeen("id-" + i));
+        }
+
+        assertEquals(2, window.earlyRotations());
+        assertEquals(15, window.size(), "one full slice and the current one");
+        assertFalse(window.firstSeen("id-24"));
+        assertTrue(window.firstSeen("id-0"), "evicted by the second early rotation");
+        assertEquals(footprint, window.footprintBytes());
+    }
+}
@@ -0,0 +1,65 @@
+package com.octopus.backend.engine;
+
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden values produced by the JavaScript engine (src/calculator.js, @tgwf/co2 0.17.0):
+ *
+ * <pre>
+ * node -e 'const {calculateDiscordCarbon}=require("./src/calculator.js");
+ *   for (const n of [0,1,10,313,1500,12345,1000000,10000000]) {
+ *     const r=calculateDiscordCarbon(n);
+ *     console.log([n,r.carbon.grams,r.carbon.kilograms,r.equivalents.carMiles,r.equivalents.treeDays].join(","));
+ *   }'
+ * </pre>
+ *
+ * The Java port must match bit for bit, so the comparisons use no tolerance.
+ */
+class LocalCarbonEngineGoldenTest {
+
+    private final LocalCarbonEngine engine = new LocalCarbonEngine(CarbonModel.SWD_V3);
+
+    @ParameterizedTest
+    @CsvSource({
+        "0,        0,                    0,                     0,                     0",
+        "1,        0.0006793097011200001, 6.7930970112e-7,      0.0000016982742528,    0.00000135861940224",
+        "10,       0.006793097011200001, 0.000006793097011200001, 0.000016982742528,   0.000013586194022400002",
+        "313,      0.21262393645056002,  0.00021262393645056003, 0.0005315598411264,   0.00042524787290112005",
+        "1500,     1.01896455168,        0.00101896455168,      0.0025474113792000003, 0.00203792910336",
+        "12345,    8.386078260326402,    0.008386078260326401,  0.020965195650816,     0.016772156520652802",
+        "1000000,  679.3097011200001,    0.6793097011200001,    1.6982742528,          1.3586194022400002",
+        "10000000, 6793.097011200001,    6.793097011200001,     16.982742528000003,    13.586194022400003"
+    })
+    void matchesJavaScriptEngine(long messages, double grams, double kilograms, double carMiles, double treeDays) {
+        CarbonCalculationResponse result = engine.calculateDiscord(messages);
+
+        assertEquals(grams, result.carbon().grams(), 0.0);
+        assertEquals(kilograms, result.carbon().kilograms(), 0.0);
+        assertEquals(carMiles, result.equivalents().carMiles(), 0.0);
+        assertEquals(treeDays, result.equivalents().treeDays(), 0.0);
+    }
+
+    @Test
+    void reportsVersionedModelAndActivity() {
+        CarbonCalculationResponse result = engine.calculateDiscord(1500);
+
+        assertEquals("discord_message", result.activity());
+        assertEquals(1500L, result.count());
+        assertEquals("swd@v3-co2js-0.17.0", result.calculationModel());
+        assertNotNull(result.timestamp());
+    }
+
+    @Test
+    void parsesEngineModes() {
+        assertEquals(CarbonEngineMode.LOCAL, CarbonEngineMode.fromProperty("local"));
+        assertEquals(CarbonEngineMode.REMOTE, CarbonEngineMode.fromProperty("REMOTE"));
+        assertEquals(CarbonEngineMode.LOCAL_WITH_REMOTE_VERIFICATION,
+                     CarbonEngineMode.fromProperty("local-with-remote-verification"));
+        assertThrows(IllegalArgumentException.class, () -> CarbonEngineMode.fromProperty("quantum"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.octopus.backend.load;
+
+import com.octopus.backend.OctopusBackendApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The real backend on a random port in remote mode against a {@link StubCo2Microservice},
+ * with the backend's own meters readable so a load test can report what happened behind
+ * the HTTP responses (retries, stale answers, breaker rejections).
+ */
+final class BackendUnderLoad implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+    private final MeterRegistry registry;
+
+    private BackendUnderLoad(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+        this.registry = context.getBean(MeterRegistry.class);
+    }
+
+    /**
+     * @param properties {@code name=value} overrides applied after the defaults here. They
+     *                   are passed as command-line arguments, because builder properties are
+     *                   only defaults and lose to {@code application.properties}.
+     */
+    static BackendUnderLoad start(StubCo2Microservice stub, Path dataDir, String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+            "server.port=0",
+            "co2.engine.mode=remote",
+            "co2.microservice.url=" + stub.baseUrl(),
+            "co2.persistence.dir=" + dataDir,
+            "co2.persistence.durability=os",
+            // The load is deliberately one source far over any sane rate.
+            "co2.admission.enabled=false",
+            "logging.level.com.octopus.backend=WARN"));
+        all.addAll(List.of(properties));
+        return new BackendUnderLoad(new SpringApplicationBuilder(OctopusBackendApplication.class)
+            .run(all.stream().map(property -> "--" + property).toArray(String[]::new)));
+    }
+
+    String url(String path) {
+        return baseUrl + path;
+    }
+
+    /**
+     * Sum of the counters named {@code name} whose tags include {@code tags} (key, value, ...).
+     */
+    double count(String name, String... tags) {
+        return registry.find(name).tags(tags).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    /**
+     * Sum of the event counts of the timers named {@code name} whose tags include {@code tags}.
+     */
+    long timed(String name, String... tags) {
+        return registry.find(name).tags(tags).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
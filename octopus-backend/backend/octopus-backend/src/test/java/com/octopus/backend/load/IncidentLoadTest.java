@@ -0,0 +1,188 @@
+package com.octopus.backend.load;
+
+import com.octopus.backend.load.LoadGenerator.Mix;
+import com.octopus.backend.load.LoadGenerator.MixReport;
+import com.octopus.backend.load.StubCo2Microservice.Behavior;
+import com.octopus.backend.load.StubCo2Microservice.Latency;
+import com.octopus.backend.load.StubCo2Microservice.Stats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays microservice incidents against the full backend under a production-like mix:
+ * bots posting batches, and dashboards polling the live totals (with ETags), the public
+ * summary and the rate history. Load is open loop at {@code load.rate} requests per
+ * second, so a degraded backend shows up as queueing in the percentiles. Each scenario
+ * prints per-class throughput and latency plus what the stub and the backend's meters
+ * saw. Opt-in because each scenario takes {@code load.seconds} plus startup:
+ *
+ * <pre>
+ * mvn test -Dtest=IncidentLoadTest -Dload.test=true [-Dload.rate=300 -Dload.seconds=15]
+ * mvn test -Dtest=IncidentLoadTest#retryStorm -Dload.test=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+class IncidentLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("load.rate", "300"));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 15));
+    private static final Latency HEALTHY = Latency.logNormal(15, 60);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void healthyBaseline() throws Exception {
+        Outcome outcome = run("healthy baseline", Behavior.healthy(HEALTHY), null);
+
+        assertTrue(outcome.report().total().errorRate() < 0.001, "errors against a healthy microservice");
+    }
+
+    /**
+     * A third of the way in, the microservice slows to a median of 4s, past the 2s
+     * slow-call threshold, with a quarter of calls over the 5s client timeout. The
+     * breaker should open on slow calls and bots should keep getting (stale) answers.
+     */
+    @Test
+    void slowMicroservice() throws Exception {
+        Outcome outcome = run("slow microservice", Behavior.healthy(HEALTHY),
+                              Behavior.healthy(Latency.logNormal(4_000, 9_000)));
+
+        assertTrue(outcome.report().of("bot-batch").errorRate() < 0.01, "bot error rate above 1%");
+        assertTrue(outcome.backend().stale() > 0, "no stale answers while the microservice was slow");
+    }
+
+    /**
+     * Half of all calls fail with 503. Retries must stay within the retry budget rather
+     * than multiply the load on a struggling service.
+     */
+    @Test
+    void retryStorm() throws Exception {
+        Outcome outcome = run("retry storm", Behavior.healthy(HEALTHY),
+                              Behavior.healthy(HEALTHY).withErrors(0.5, 503));
+
+        BackendSide backend = outcome.backend();
+        long firstAttempts = backend.exchanges() - (long) backend.retried();
+        // co2.microservice.retry.budget-ratio=0.1 and budget-reserve=10, plus a little
+        // slack for retries already granted when a measurement is taken.
+        assertTrue(backend.retried() <= 0.1 * firstAttempts + 10 + 5,
+                   "retries " + backend.retried() + " exceed the budget for " + firstAttempts + " calls");
+        assertTrue(outcome.report().of("bot-batch").errorRate() < 0.01, "bot error rate above 1%");
+    }
+
+    /**
+     * 5% of connections are accepted but never answered until after the client timeout.
+     */
+    @Test
+    void connectionStalls() throws Exception {
+        Outcome outcome = run("connection stalls", Behavior.healthy(HEALTHY),
+                              Behavior.healthy(HEALTHY).withStalls(0.05, 8_000));
+
+        assertTrue(outcome.stub().stalls() > 0, "no stalls injected");
+        assertTrue(outcome.report().of("bot-batch").errorRate() < 0.01, "bot error rate above 1%");
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    /**
+     * Runs the mix for {@link #DURATION}, switching the stub to {@code incident} (if any)
+     * a third of the way in.
+     */
+    private Outcome run(String scenario, Behavior initial, Behavior incident) throws Exception {
+        ScheduledExecutorService switcher = Executors.newSingleThreadScheduledExecutor();
+        try (StubCo2Microservice stub = new StubCo2Microservice(initial);
+             BackendUnderLoad backend = BackendUnderLoad.start(stub, dataDir)) {
+            LoadGenerator generator = new LoadGenerator();
+            Mix mix = mix(backend);
+            // Warm-up so JIT and connection setup don't dominate the measurement.
+            generator.runAtRate(RATE, Duration.ofSeconds(3), mix);
+
+            Stats before = stub.stats();
+            BackendSide backendBefore = BackendSide.of(backend);
+            if (incident != null) {
+                switcher.schedule(() -> stub.behave(incident), DURATION.toMillis() / 3, TimeUnit.MILLISECONDS);
+            }
+            MixReport report = generator.runAtRate(RATE, DURATION, mix);
+            Outcome outcome = new Outcome(report, stub.stats().since(before),
+                                          BackendSide.of(backend).since(backendBefore));
+            System.out.println("[load] " + scenario + ": " + outcome);
+            return outcome;
+        } finally {
+            switcher.shutdownNow();
+        }
+    }
+
+    private static Mix mix(BackendUnderLoad backend) {
+        String batch = backend.url("/api/carbon/discord/batch");
+        String live = backend.url("/api/carbon/hackathon/live");
+        String publicSummary = backend.url("/api/carbon/hackathon/public");
+        String timeSeries = backend.url("/api/carbon/timeseries?resolution=1s&window=60s");
+        AtomicReference<String> liveEtag = new AtomicReference<>();
+        return new Mix()
+            .with("bot-batch", 20, () -> botBatch(batch))
+            .with("dashboard-live", 60, () -> {
+                String etag = liveEtag.get();
+                HttpRequest.Builder request = HttpRequest.newBuilder(LoadGenerator.get(live), (name, value) -> true);
+                return etag == null ? request.build() : request.header("If-None-Match", etag).build();
+            }, response -> response.headers().firstValue("ETag").ifPresent(liveEtag::set))
+            .with("dashboard-public", 15, () -> LoadGenerator.get(publicSummary))
+            .with("timeseries", 5, () -> LoadGenerator.get(timeSeries));
+    }
+
+    /**
+     * What the listener bot sends: a small per-channel count under a fresh batch id.
+     */
+    private static HttpRequest botBatch(String url) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return LoadGenerator.postJson(url, String.format(
+            "{\"source\":\"load-bot\",\"guild\":\"guild-%d\",\"channel\":\"channel-%d\",\"count\":%d,\"batchId\":\"%s\"}",
+            random.nextInt(5), random.nextInt(50), random.nextInt(1, 50), UUID.randomUUID()));
+    }
+
+    /**
+     * The backend's own view of its microservice calls during a run.
+     */
+    private record BackendSide(long exchanges, double retried, double budgetDenied, double rejected, double stale) {
+
+        static BackendSide of(BackendUnderLoad backend) {
+            return new BackendSide(
+                backend.timed("co2.microservice.requests") - backend.timed("co2.microservice.requests", "endpoint", "/health"),
+                backend.count("co2.microservice.retries", "outcome", "retried"),
+                backend.count("co2.microservice.retries", "outcome", "denied"),
+                backend.count("co2.microservice.rejected"),
+                backend.count("co2.calculation.stale"));
+        }
+
+        BackendSide since(BackendSide earlier) {
+            return new BackendSide(exchanges - earlier.exchanges, retried - earlier.retried,
+                                   budgetDenied - earlier.budgetDenied, rejected - earlier.rejected,
+                                   stale - earlier.stale);
+        }
+    }
+
+    private record Outcome(MixReport report, Stats stub, BackendSide backend) {
+
+        @Override
+        public String toString() {
+            return String.format("%s%n  stub: %d requests, %d errors, %d stalls%n"
+                                 + "  backend: %d microservice calls, %.0f retried, %.0f denied by budget, "
+                                 + "%.0f rejected by breaker, %.0f stale answers",
+                                 report, stub.requests(), stub.errors(), stub.stalls(),
+                                 backend.exchanges(), backend.retried(), backend.budgetDenied(),
+                                 backend.rejected(), backend.stale());
+        }
+    }
+}
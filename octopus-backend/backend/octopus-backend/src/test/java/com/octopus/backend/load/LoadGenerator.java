@@ -0,0 +1,263 @@
+package com.octopus.backend.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * HTTP load generator for a {@link Mix} of request classes, reporting throughput and
+ * latency percentiles per class.
+ *
+ * <p>{@link #run(int, Duration, Mix) Closed loop}: {@code connections} virtual clients
+ * each keep exactly one request in flight for the whole run, like long-lived bot
+ * connections. A slow server slows the clients down with it, so this measures capacity.
+ *
+ * <p>{@link #runAtRate(double, Duration, Mix) Open loop}: requests start on a fixed
+ * schedule whether or not earlier ones have finished, like independent users, and latency
+ * is measured from the scheduled start. A slow server shows up as queueing in the
+ * percentiles instead of being hidden by clients that politely wait.
+ */
+class LoadGenerator {
+
+    private static final int LATENCIES_PER_CLASS = 1 << 20;
+    private static final int MAX_IN_FLIGHT = 20_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newFixedThreadPool(8))
+        .build();
+
+    Report run(int connections, Duration duration, Supplier<HttpRequest> requests) throws InterruptedException {
+        return run(connections, duration, new Mix().with("requests", 1, requests)).total();
+    }
+
+    MixReport run(int connections, Duration duration, Mix mix) throws InterruptedException {
+        Recorders recorders = new Recorders(mix);
+        long endNanos = System.nanoTime() + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(connections);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            loop(mix, recorders, endNanos, finished);
+        }
+        finished.await(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        return recorders.report(connections + " connections", (System.nanoTime() - start) / 1e9);
+    }
+
+    MixReport runAtRate(double requestsPerSecond, Duration duration, Mix mix) throws InterruptedException {
+        Recorders recorders = new Recorders(mix);
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (1e9 / requestsPerSecond);
+        long start = System.nanoTime();
+        long endNanos = start + duration.toNanos();
+
+        for (long scheduled = start; scheduled < endNanos; scheduled += intervalNanos) {
+            long now;
+            while ((now = System.nanoTime()) < scheduled) {
+                LockSupport.parkNanos(scheduled - now);
+            }
+            Mix.Entry entry = mix.pick();
+            Recorder recorder = recorders.of(entry);
+            if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+                // The server has stopped keeping up; count it rather than run out of memory.
+                inFlight.decrementAndGet();
+                recorder.errors.incrementAndGet();
+                continue;
+            }
+            send(entry, recorder, scheduled, () -> inFlight.decrementAndGet());
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return recorders.report(String.format("%.0f req/s offered", requestsPerSecond),
+                                (System.nanoTime() - start) / 1e9);
+    }
+
+    private void loop(Mix mix, Recorders recorders, long endNanos, CountDownLatch finished) {
+        if (System.nanoTime() >= endNanos) {
+            finished.countDown();
+            return;
+        }
+        Mix.Entry entry = mix.pick();
+        send(entry, recorders.of(entry), System.nanoTime(), () -> loop(mix, recorders, endNanos, finished));
+    }
+
+    private void send(Mix.Entry entry, Recorder recorder, long startedAt, Runnable then) {
+        HttpRequest request;
+        try {
+            request = entry.requests().get();
+        } catch (RuntimeException e) {
+            recorder.errors.incrementAndGet();
+            then.run();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                if (error != null || response.statusCode() >= 400) {
+                    recorder.errors.incrementAndGet();
+                } else {
+                    recorder.record(System.nanoTime() - startedAt);
+                    entry.onResponse().accept(response);
+                }
+                then.run();
+            });
+    }
+
+    static HttpRequest postJson(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Weighted request classes; each request picks its class at random by weight.
+     */
+    static final class Mix {
+
+        record Entry(String name, int weight, Supplier<HttpRequest> requests,
+                     Consumer<HttpResponse<?>> onResponse) {
+        }
+
+        private final List<Entry> entries = new ArrayList<>();
+        private int totalWeight;
+
+        Mix with(String name, int weight, Supplier<HttpRequest> requests) {
+            return with(name, weight, requests, response -> { });
+        }
+
+        /**
+         * @param onResponse sees every successful response, e.g. to remember an ETag
+         */
+        Mix with(String name, int weight, Supplier<HttpRequest> requests, Consumer<HttpResponse<?>> onResponse) {
+            entries.add(new Entry(name, weight, requests, onResponse));
+            totalWeight += weight;
+            return this;
+        }
+
+        Entry pick() {
+            int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Entry entry : entries) {
+                ticket -= entry.weight();
+                if (ticket < 0) {
+                    return entry;
+                }
+            }
+            throw new IllegalStateException("Empty mix");
+        }
+    }
+
+    private static final class Recorder {
+        final long[] latencies = new long[LATENCIES_PER_CLASS];
+        final AtomicInteger recorded = new AtomicInteger();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos) {
+            int slot = recorded.getAndIncrement();
+            if (slot < latencies.length) {
+                latencies[slot] = nanos;
+            }
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(recorded.get(), latencies.length));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static final class Recorders {
+        private final Map<Mix.Entry, Recorder> byEntry = new LinkedHashMap<>();
+
+        Recorders(Mix mix) {
+            for (Mix.Entry entry : mix.entries) {
+                byEntry.put(entry, new Recorder());
+            }
+        }
+
+        Recorder of(Mix.Entry entry) {
+            return byEntry.get(entry);
+        }
+
+        MixReport report(String load, double elapsedSeconds) {
+            Map<String, Report> classes = new LinkedHashMap<>();
+            List<long[]> all = new ArrayList<>();
+            long errors = 0;
+            for (Map.Entry<Mix.Entry, Recorder> entry : byEntry.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                long classErrors = entry.getValue().errors.get();
+                classes.put(entry.getKey().name(), Report.of(load, sorted, classErrors, elapsedSeconds));
+                all.add(sorted);
+                errors += classErrors;
+            }
+            long[] merged = all.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new MixReport(Report.of(load, merged, errors, elapsedSeconds), classes);
+        }
+    }
+
+    record Report(String load, long requests, long errors, double throughput,
+                  double p50Millis, double p99Millis, double p999Millis) {
+
+        static Report of(String load, long[] sorted, long errors, double elapsedSeconds) {
+            return new Report(load, sorted.length, errors, sorted.length / elapsedSeconds,
+                              percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+        }
+
+        double errorRate() {
+            return errors == 0 ? 0 : errors / (double) (requests + errors);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s requests=%d errors=%d throughput=%.0f req/s "
+                                 + "p50=%.1fms p99=%.1fms p99.9=%.1fms",
+                                 load, requests, errors, throughput, p50Millis, p99Millis, p999Millis);
+        }
+    }
+
+    record MixReport(Report total, Map<String, Report> classes) {
+
+        Report of(String name) {
+            return classes.get(name);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("total ").append(total);
+            classes.forEach((name, report) -> text.append(System.lineSeparator())
+                .append("  ").append(name).append(": ").append(report));
+            return text.toString();
+        }
+    }
+}
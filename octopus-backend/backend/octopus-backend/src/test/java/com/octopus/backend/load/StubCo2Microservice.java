@@ -0,0 +1,231 @@
+package com.octopus.backend.load;
+
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-JVM stand-in for the Node CO2 microservice ({@code /calculate/discord}, its bulk
+ * variant and {@code /health}), so that backend threads genuinely block on downstream
+ * I/O during load tests. How it answers is a {@link Behavior}, which can be swapped while
+ * a test runs to reproduce an incident: a latency distribution, a share of error
+ * responses and a share of connections that stall without answering.
+ */
+class StubCo2Microservice implements AutoCloseable {
+
+    private static final Pattern COUNT = Pattern.compile("\"count\"\\s*:\\s*(\\d+)");
+    private static final Pattern COUNTS = Pattern.compile("\"counts\"\\s*:\\s*\\[([\\d,\\s]*)]");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final LocalCarbonEngine engine = new LocalCarbonEngine(CarbonModel.SWD_V3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private volatile Behavior behavior;
+
+    StubCo2Microservice(long latencyMillis) throws IOException {
+        this(Behavior.healthy(Latency.fixed(latencyMillis)));
+    }
+
+    StubCo2Microservice(Behavior behavior) throws IOException {
+        this.behavior = behavior;
+        // Without TCP_NODELAY the separate header and body writes hit delayed ACK (~40ms each).
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/api/v1/calculate/discord", this::calculate);
+        server.createContext("/api/v1/calculate/discord/bulk", this::calculateBulk);
+        server.createContext("/api/v1/health", this::health);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1";
+    }
+
+    /**
+     * Applies to requests arriving from now on; requests already waiting keep the old one.
+     */
+    void behave(Behavior behavior) {
+        this.behavior = behavior;
+    }
+
+    Stats stats() {
+        return new Stats(requests.sum(), errors.sum(), stalls.sum());
+    }
+
+    /**
+     * How the stub answers each request, drawn independently per request: a stall (no
+     * response for {@code stallMillis}, then the connection is dropped) with probability
+     * {@code stallRate}, otherwise a {@code latency} sample followed by {@code errorStatus}
+     * with probability {@code errorRate} or a normal answer.
+     */
+    record Behavior(Latency latency, double errorRate, int errorStatus, double stallRate, long stallMillis) {
+
+        static Behavior healthy(Latency latency) {
+            return new Behavior(latency, 0, 503, 0, 0);
+        }
+
+        Behavior withErrors(double rate, int status) {
+            return new Behavior(latency, rate, status, stallRate, stallMillis);
+        }
+
+        Behavior withStalls(double rate, long millis) {
+            return new Behavior(latency, errorRate, errorStatus, rate, millis);
+        }
+
+        Behavior withLatency(Latency latency) {
+            return new Behavior(latency, errorRate, errorStatus, stallRate, stallMillis);
+        }
+    }
+
+    /**
+     * Response latency distribution, sampled in microseconds.
+     */
+    @FunctionalInterface
+    interface Latency {
+
+        long sampleMicros(ThreadLocalRandom random);
+
+        static Latency fixed(long millis) {
+            long micros = millis * 1_000;
+            return random -> micros;
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return random -> random.nextLong(minMillis * 1_000, maxMillis * 1_000 + 1);
+        }
+
+        /**
+         * Log-normal with the given median and 99th percentile, the usual shape of service
+         * latency: most calls near the median and a long right tail.
+         */
+        static Latency logNormal(double medianMillis, double p99Millis) {
+            double mu = Math.log(medianMillis * 1_000);
+            double sigma = (Math.log(p99Millis * 1_000) - mu) / 2.326;
+            return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+        }
+    }
+
+    /**
+     * Requests received (stalled and failed ones included), errors answered and stalls.
+     */
+    record Stats(long requests, long errors, long stalls) {
+
+        Stats since(Stats earlier) {
+            return new Stats(requests - earlier.requests, errors - earlier.errors, stalls - earlier.stalls);
+        }
+    }
+
+    private void calculate(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Matcher matcher = COUNT.matcher(body);
+        if (!matcher.find()) {
+            respond(exchange, 400, "{\"error\":\"Missing required parameter: count\"}");
+            return;
+        }
+        if (misbehave(exchange)) {
+            return;
+        }
+        respond(exchange, 200, calculation(Long.parseLong(matcher.group(1))));
+    }
+
+    /**
+     * {@code {"counts":[...]}} in, {@code {"results":[...]}} out, one latency for the batch.
+     */
+    private void calculateBulk(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Matcher matcher = COUNTS.matcher(body);
+        if (!matcher.find() || matcher.group(1).isBlank()) {
+            respond(exchange, 400, "{\"error\":\"Missing required parameter: counts (non-empty array)\"}");
+            return;
+        }
+        if (misbehave(exchange)) {
+            return;
+        }
+        StringJoiner results = new StringJoiner(",", "{\"results\":[", "]}");
+        for (String count : matcher.group(1).split(",")) {
+            results.add(calculation(Long.parseLong(count.trim())));
+        }
+        respond(exchange, 200, results.toString());
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        if (misbehave(exchange)) {
+            return;
+        }
+        respond(exchange, 200, "{\"status\":\"operational\",\"service\":\"stub\"}");
+    }
+
+    /**
+     * Waits out the sampled latency, then answers with an error or drops a stalled
+     * connection. Returns whether the exchange has been dealt with.
+     */
+    private boolean misbehave(HttpExchange exchange) throws IOException {
+        requests.increment();
+        Behavior current = behavior;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (current.stallRate() > 0 && random.nextDouble() < current.stallRate()) {
+            stalls.increment();
+            sleepMicros(current.stallMillis() * 1_000);
+            exchange.close();
+            return true;
+        }
+        sleepMicros(current.latency().sampleMicros(random));
+        if (current.errorRate() > 0 && random.nextDouble() < current.errorRate()) {
+            errors.increment();
+            respond(exchange, current.errorStatus(), "{\"error\":\"Injected failure\"}");
+            return true;
+        }
+        return false;
+    }
+
+    private String calculation(long count) {
+        CarbonCalculationResponse result = engine.calculateDiscord(count);
+        return String.format(
+            "{\"activity\":\"discord_message\",\"count\":%d,\"carbon\":{\"grams\":%s,\"kilograms\":%s},"
+                + "\"equivalents\":{\"carMiles\":%s,\"treeDays\":%s},\"calculationModel\":\"swd\"}",
+            result.count(), result.carbon().grams(), result.carbon().kilograms(),
+            result.equivalents().carMiles(), result.equivalents().treeDays());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static void sleepMicros(long micros) {
+        if (micros <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(micros / 1_000, (int) (micros % 1_000) * 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,68 @@
+package com.octopus.backend.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares {@code POST /api/carbon/discord/batch} under 1k concurrent bot connections
+ * with platform threads against virtual threads, against a stub microservice that answers
+ * in 25ms. Opt-in because it takes about a minute:
+ *
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadTest -Dload.test=true [-Dload.connections=2000 -Dload.seconds=20]
+ * </pre>
+ *
+ * The virtual-thread run is skipped on JDKs older than 21.
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("load.connections", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.seconds", 15));
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void comparesPlatformAndVirtualThreads() throws Exception {
+        try (StubCo2Microservice stub = new StubCo2Microservice(25)) {
+            LoadGenerator.Report platform = run(stub, false);
+            System.out.println("[load] platform threads: " + platform);
+            assertTrue(platform.errors() <= platform.requests() / 100, "platform error rate above 1%");
+
+            if (Runtime.version().feature() >= 21) {
+                LoadGenerator.Report virtual = run(stub, true);
+                System.out.println("[load] virtual threads:  " + virtual);
+                System.out.printf("[load] throughput x%.2f, p99 %.1fms -> %.1fms%n",
+                                  virtual.throughput() / platform.throughput(),
+                                  platform.p99Millis(), virtual.p99Millis());
+                assertTrue(virtual.errors() <= virtual.requests() / 100, "virtual error rate above 1%");
+            } else {
+                System.out.println("[load] virtual threads: skipped, requires Java 21+");
+            }
+        }
+    }
+
+    private LoadGenerator.Report run(StubCo2Microservice stub, boolean virtualThreads) throws Exception {
+        try (BackendUnderLoad backend = BackendUnderLoad.start(
+                stub, dataDir, "spring.threads.virtual.enabled=" + virtualThreads)) {
+            String url = backend.url("/api/carbon/discord/batch");
+            LoadGenerator generator = new LoadGenerator();
+            // Short warm-up so JIT and connection setup don't dominate the measurement.
+            generator.run(CONNECTIONS / 10, Duration.ofSeconds(3), () -> batchRequest(url));
+            return generator.run(CONNECTIONS, DURATION, () -> batchRequest(url));
+        }
+    }
+
+    private static java.net.http.HttpRequest batchRequest(String url) {
+        int count = ThreadLocalRandom.current().nextInt(1, 1_000);
+        return LoadGenerator.postJson(url, "{\"count\":" + count + "}");
+    }
+}
@@ -0,0 +1,146 @@
+package com.octopus.backend.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void groupCommitsConcurrentAppendsAndCompactsOnClose() throws Exception {
+        Files.writeString(snapshotFile(), "313");
+
+        BatchJournal journal = journal(DurabilityMode.BATCH);
+        assertEquals(313, journal.open());
+        CompletableFuture.allOf(IntStream.range(0, 100)
+            .parallel()
+            .mapToObj(i -> journal.append(10))
+            .toArray(CompletableFuture[]::new)).join();
+        journal.close();
+
+        assertEquals(0, Files.size(journalFile()));
+        assertEquals("1313\n100", Files.readString(snapshotFile()).trim());
+
+        BatchJournal reopened = journal(DurabilityMode.OS);
+        assertEquals(1_313, reopened.open());
+        reopened.close();
+    }
+
+    @Test
+    void replaysJournalTailAfterCrash() throws Exception {
+        Files.writeString(snapshotFile(), "313");
+        writeJournal(record(1, 10), record(2, 20), record(3, 30));
+
+        BatchJournal journal = journal(DurabilityMode.INTERVAL);
+        assertEquals(373, journal.open());
+        journal.append(7).join();
+        journal.close();
+
+        BatchJournal reopened = journal(DurabilityMode.INTERVAL);
+        assertEquals(380, reopened.open());
+        reopened.close();
+    }
+
+    @Test
+    void skipsRecordsCoveredBySnapshotAndDropsTornTail() throws Exception {
+        // Crash between snapshot rename and journal truncate, with a half-written record.
+        Files.writeString(snapshotFile(), "30\n2\n");
+        byte[] torn = new byte[BatchJournal.RECORD_BYTES - 3];
+        writeJournal(record(1, 10), record(2, 20), record(3, 5), torn);
+
+        BatchJournal journal = journal(DurabilityMode.BATCH);
+        assertEquals(35, journal.open());
+        assertEquals(3L * BatchJournal.RECORD_BYTES, Files.size(journalFile()));
+        journal.append(1).join();
+        journal.close();
+
+        BatchJournal reopened = journal(DurabilityMode.BATCH);
+        assertEquals(36, reopened.open());
+        reopened.close();
+    }
+
+    @Test
+    void corruptSnapshotFailsOpenAndKeepsTheHistory() throws Exception {
+        // Records 1..100 were compacted into the snapshot before it got corrupted.
+        byte[] snapshot = {'3', '1', (byte) 0xFF};
+        Files.write(snapshotFile(), snapshot);
+        writeJournal(record(101, 10), record(102, 20), record(103, 30));
+        byte[] journalBytes = Files.readAllBytes(journalFile());
+
+        BatchJournal journal = new BatchJournal(snapshotFile(), journalFile(), DurabilityMode.BATCH, 10, 1);
+        assertThrows(IllegalStateException.class, journal::open);
+        assertThrows(IllegalStateException.class, journal::open);
+        assertTrue(journal.append(5).isCompletedExceptionally());
+        journal.close();
+
+        assertArrayEquals(snapshot, Files.readAllBytes(snapshotFile()));
+        assertArrayEquals(journalBytes, Files.readAllBytes(journalFile()));
+    }
+
+    @Test
+    void appendsRacingCloseAllComplete() throws Exception {
+        BatchJournal journal = journal(DurabilityMode.BATCH);
+        journal.open();
+        CompletableFuture<?>[] appends = new CompletableFuture<?>[20_000];
+        Thread appender = new Thread(() -> {
+            for (int i = 0; i < appends.length; i++) {
+                appends[i] = journal.append(1);
+            }
+        });
+        appender.start();
+        journal.close();
+        appender.join();
+
+        long written = 0;
+        for (CompletableFuture<?> append : appends) {
+            try {
+                append.get(5, java.util.concurrent.TimeUnit.SECONDS);
+                written++;
+            } catch (java.util.concurrent.ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        BatchJournal reopened = journal(DurabilityMode.BATCH);
+        assertEquals(written, reopened.open());
+        reopened.close();
+    }
+
+    private BatchJournal journal(DurabilityMode mode) {
+        return new BatchJournal(snapshotFile(), journalFile(), mode, 10, 1_000);
+    }
+
+    private Path snapshotFile() {
+        return dir.resolve("carbon-data.txt");
+    }
+
+    private Path journalFile() {
+        return dir.resolve("carbon-data.journal");
+    }
+
+    private void writeJournal(byte[]... chunks) throws Exception {
+        ByteBuffer out = ByteBuffer.allocate(chunks.length * BatchJournal.RECORD_BYTES);
+        for (byte[] chunk : chunks) {
+            out.put(chunk);
+        }
+        Files.write(journalFile(), java.util.Arrays.copyOf(out.array(), out.position()));
+    }
+
+    private static byte[] record(long seq, long delta) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(16).putLong(seq).putLong(delta).array());
+        return ByteBuffer.allocate(BatchJournal.RECORD_BYTES)
+            .putLong(seq).putLong(delta).putInt((int) crc.getValue())
+            .array();
+    }
+}
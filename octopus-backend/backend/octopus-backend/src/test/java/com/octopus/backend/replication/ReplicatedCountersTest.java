@@ -0,0 +1,164 @@
+package com.octopus.backend.replication;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicatedCountersTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final ReplicatedCounters a = new ReplicatedCounters("a", null);
+    private final ReplicatedCounters b = new ReplicatedCounters("b", null);
+    private final ReplicatedCounters c = new ReplicatedCounters("c", null);
+
+    @Test
+    void convergesWhateverTheGossipOrder() {
+        a.addReal(10);
+        b.addReal(5);
+        c.addSimulation(7);
+        b.removeSimulation(2);
+
+        gossip(a, b);
+        gossip(c, b);
+        gossip(a, c);
+
+        for (ReplicatedCounters node : List.of(a, b, c)) {
+            assertEquals(15, node.real(), node.nodeId());
+            assertEquals(5, node.simulation(), node.nodeId());
+        }
+    }
+
+    @Test
+    void sendsOnlyDeltasAndToleratesRedelivery() {
+        a.addReal(10);
+        b.addReal(5);
+        gossip(a, b);
+
+        a.addReal(1);
+        GossipMessage delta = a.prepare("b");
+        assertEquals(Map.of("a", new NodeCounts(11, 0, 0)), delta.entries());
+
+        GossipMessage response = b.receive(delta);
+        assertTrue(response.entries().isEmpty(), "nothing new for a");
+        b.receive(delta);
+        assertEquals(16, b.real());
+    }
+
+    @Test
+    void resetRemovesWhatEveryNodeCounted() {
+        a.addSimulation(4);
+        b.addSimulation(6);
+        gossip(a, b);
+
+        assertEquals(10, b.resetSimulation());
+        gossip(a, b);
+
+        assertEquals(0, a.simulation());
+        assertEquals(0, b.simulation());
+    }
+
+    @Test
+    void concurrentResetsRemoveTheTotalOnce() throws Exception {
+        a.addSimulation(1_000);
+        Thread[] resets = new Thread[8];
+        AtomicLong removed = new AtomicLong();
+        for (int i = 0; i < resets.length; i++) {
+            resets[i] = new Thread(() -> removed.addAndGet(a.resetSimulation()));
+            resets[i].start();
+        }
+        for (Thread reset : resets) {
+            reset.join();
+        }
+
+        assertEquals(1_000, removed.get());
+        assertEquals(0, a.simulation());
+    }
+
+    @Test
+    void rejectsNegativeCounts() {
+        a.addReal(10);
+        assertThrows(IllegalArgumentException.class, () -> a.addReal(-3));
+        assertThrows(IllegalArgumentException.class, () -> a.addSimulation(-1));
+        assertThrows(IllegalArgumentException.class, () -> a.removeSimulation(-1));
+        gossip(a, b);
+
+        assertEquals(10, a.real());
+        assertEquals(10, b.real());
+    }
+
+    @Test
+    void restartedNodeTakesBackWhatItsPeersSawOfIt() {
+        a.addReal(10);
+        gossip(a, b);
+
+        // a restarts having recovered only 8 from its journal.
+        ReplicatedCounters restarted = new ReplicatedCounters("a", null);
+        AtomicLong restored = new AtomicLong();
+        restarted.onRealRestored(restored::addAndGet);
+        restarted.addReal(8);
+        gossip(restarted, b);
+
+        assertEquals(2, restored.get());
+        assertEquals(10, restarted.real());
+        restarted.addReal(1);
+        gossip(restarted, b);
+        assertEquals(11, b.real(), "later increments are not hidden under the old count");
+    }
+
+    @Test
+    void rejectsInvalidGossipWithoutMergingAnyOfIt() {
+        for (Map<String, NodeCounts> entries : List.of(
+                Map.of("x", new NodeCounts(5, 0, 0), "y", new NodeCounts(-1, 0, 0)),
+                Map.of("x", new NodeCounts(ReplicatedCounters.MAX_COUNT + 1, 0, 0)),
+                Map.of("x".repeat(ReplicatedCounters.MAX_NODE_ID_LENGTH + 1), new NodeCounts(1, 0, 0)))) {
+            assertThrows(IllegalArgumentException.class,
+                         () -> a.receive(new GossipMessage("x", "i", 1, 0, null, entries)));
+        }
+
+        assertEquals(0, a.real());
+        assertEquals(Map.of("a", NodeCounts.ZERO), a.nodes());
+    }
+
+    @Test
+    void doesNotRestoreMoreOfItsOwnCountThanTheBound() {
+        ReplicatedCounters bounded = new ReplicatedCounters("a", null, 100);
+        AtomicLong restored = new AtomicLong();
+        bounded.onRealRestored(restored::addAndGet);
+
+        bounded.receive(new GossipMessage("b", "i", 1, 0, null, Map.of("a", new NodeCounts(5_000, 0, 0))));
+        assertEquals(0, restored.get());
+        assertEquals(0, bounded.real());
+
+        bounded.receive(new GossipMessage("b", "i", 2, 0, null, Map.of("a", new NodeCounts(40, 0, 0))));
+        assertEquals(40, restored.get());
+        assertEquals(40, bounded.real());
+    }
+
+    @Test
+    void keepsOtherNodesAcrossRestarts() {
+        Path stateFile = dataDir.resolve("replicas.txt");
+        ReplicatedCounters persisted = new ReplicatedCounters("b", stateFile);
+        a.addReal(10);
+        a.addSimulation(3);
+        gossip(a, persisted);
+        persisted.save();
+
+        ReplicatedCounters restarted = new ReplicatedCounters("b", stateFile);
+
+        assertEquals(10, restarted.real());
+        assertEquals(3, restarted.simulation());
+    }
+
+    private static void gossip(ReplicatedCounters from, ReplicatedCounters to) {
+        GossipMessage request = from.prepare(to.nodeId());
+        from.acknowledge(to.nodeId(), request, to.receive(request));
+    }
+}
@@ -0,0 +1,146 @@
+package com.octopus.backend.replication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.OctopusBackendApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three backend instances on localhost, each ingesting its own share of batches, agree on
+ * the totals once gossip has run.
+ */
+class ReplicationClusterTest {
+
+    private static final int NODES = 3;
+    private static final String SECRET = "cluster-test-secret";
+
+    @TempDir
+    Path dataDir;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void instancesConvergeOnTheSameTotals() throws Exception {
+        start();
+
+        for (int i = 0; i < NODES; i++) {
+            post(urls.get(i) + "/api/carbon/discord/batch", "{\"count\":" + (10 * (i + 1)) + "}");
+            post(urls.get(i) + "/api/carbon/discord/batch", "{\"count\":5,\"simulation\":true}");
+        }
+
+        for (String url : urls) {
+            JsonNode state = awaitState(url, 60, 15);
+            assertEquals(NODES, state.get("nodes").size());
+        }
+        JsonNode live = objectMapper.readTree(get(urls.get(2) + "/api/carbon/hackathon/live"));
+        assertEquals(60, live.get("realBotMessages").asLong());
+
+        post(urls.get(0) + "/api/carbon/simulation/reset", "");
+        for (String url : urls) {
+            awaitState(url, 60, 0);
+        }
+    }
+
+    @Test
+    void gossipNeedsTheSecretAndValidEntries() throws Exception {
+        start();
+        String gossip = urls.get(0) + GossipClient.GOSSIP_PATH;
+        String forged = "{\"node\":\"x\",\"incarnation\":\"i\",\"seq\":1,\"since\":0,"
+                        + "\"entries\":{\"x\":{\"real\":%d,\"simulationAdded\":0,\"simulationRemoved\":0}}}";
+
+        assertEquals(403, send(gossip, String.format(forged, 1000), null).statusCode());
+        assertEquals(403, send(gossip, String.format(forged, 1000), "wrong").statusCode());
+        assertEquals(400, send(gossip, String.format(forged, -5), SECRET).statusCode());
+        assertEquals(403, http.send(HttpRequest.newBuilder(URI.create(urls.get(0) + "/api/internal/replication"))
+                                        .build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+        awaitState(urls.get(0), 0, 0);
+    }
+
+    // ==================== PRIVATE HELPER METHODS ====================
+
+    private void start() throws IOException {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports.add(socket.getLocalPort());
+            }
+            urls.add("http://127.0.0.1:" + ports.get(i));
+        }
+        for (int i = 0; i < NODES; i++) {
+            int self = i;
+            String peers = urls.stream().filter(url -> !url.equals(urls.get(self))).collect(Collectors.joining(","));
+            Path dir = Files.createDirectories(dataDir.resolve("node-" + i));
+            nodes.add(new SpringApplicationBuilder(OctopusBackendApplication.class).run(
+                "--server.port=" + ports.get(i),
+                "--co2.persistence.dir=" + dir,
+                "--co2.persistence.durability=os",
+                "--co2.replication.peers=" + peers,
+                "--co2.replication.secret=" + SECRET,
+                "--co2.replication.gossip-interval.ms=100",
+                "--logging.level.com.octopus.backend=WARN"));
+        }
+    }
+
+    private JsonNode awaitState(String url, long real, long simulation) throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        JsonNode state;
+        do {
+            state = objectMapper.readTree(http.send(HttpRequest.newBuilder(URI.create(url + "/api/internal/replication"))
+                                                        .header(GossipClient.SECRET_HEADER, SECRET)
+                                                        .build(),
+                                                    HttpResponse.BodyHandlers.ofString()).body());
+            if (state.get("realBotMessages").asLong() == real
+                && state.get("simulationMessages").asLong() == simulation) {
+                return state;
+            }
+            Thread.sleep(50);
+        } while (System.nanoTime() < deadline);
+        fail(url + " did not converge on " + real + "/" + simulation + ": " + state);
+        return state;
+    }
+
+    private String get(String url) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private void post(String url, String json) throws Exception {
+        HttpResponse<String> response = send(url, json, null);
+        assertEquals(200, response.statusCode(), response.body());
+    }
+
+    private HttpResponse<String> send(String url, String json, String secret) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (secret != null) {
+            request.header(GossipClient.SECRET_HEADER, secret);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
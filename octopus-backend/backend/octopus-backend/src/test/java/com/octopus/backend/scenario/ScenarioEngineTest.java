@@ -0,0 +1,112 @@
+package com.octopus.backend.scenario;
+
+import com.octopus.backend.dto.ScenarioSweepRequest.ActivityMix;
+import com.octopus.backend.dto.ScenarioSweepResponse;
+import com.octopus.backend.dto.ScenarioSweepResponse.Bin;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioEngineTest {
+
+    private static final CarbonModel MODEL = CarbonModel.SWD_V3;
+
+    private final ScenarioEngine engine = new ScenarioEngine(MODEL, 4);
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    /**
+     * {@code node -e 'console.log(require("./src/calculator.js").calculateVideoCallCarbon(60, 10).carbon.grams)'}
+     */
+    @Test
+    void videoCallMatchesJavaScriptEngine() {
+        ScenarioSweepResponse response = engine.evaluate(
+            ScenarioBatch.of(List.of(new ActivityMix("standup", null, 60.0, 10L, null, null)), true, 10), 5);
+
+        assertEquals(626.051820552192, response.grams().p50());
+        assertEquals(1.0, response.activityShare().videoCalls());
+        assertEquals("standup", response.lowest().label());
+        assertEquals(List.of(new Bin(626.051820552192, 626.051820552192, 1)), response.histogram());
+    }
+
+    @Test
+    void parallelSweepMatchesSequentialEvaluation() {
+        Random random = new Random(42);
+        List<ActivityMix> mixes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            mixes.add(new ActivityMix(null, (long) random.nextInt(100_000), random.nextDouble() * 600,
+                                      (long) random.nextInt(50), random.nextDouble() * 1e9, random.nextBoolean()));
+        }
+
+        ScenarioSweepResponse response = engine.evaluate(ScenarioBatch.of(mixes, true, 10_000), 10);
+
+        double[] expected = new double[mixes.size()];
+        double videoTotal = 0;
+        for (int i = 0; i < expected.length; i++) {
+            ActivityMix mix = mixes.get(i);
+            double video = MODEL.gramsForBytes(MODEL.videoCallBytes(mix.callMinutes(), mix.participants()),
+                                               mix.greenHosting());
+            videoTotal += video;
+            expected[i] = MODEL.gramsForBytes(MODEL.discordBytes(mix.messages()), mix.greenHosting())
+                + video
+                + MODEL.gramsForBytes(mix.dataBytes(), mix.greenHosting());
+        }
+        double[] sorted = expected.clone();
+        Arrays.sort(sorted);
+        double total = Arrays.stream(expected).sum();
+
+        assertEquals(10_000, response.scenarios());
+        assertEquals(sorted[0], response.grams().min());
+        assertEquals(sorted[4_999], response.grams().p50());
+        assertEquals(sorted[9_899], response.grams().p99());
+        assertEquals(sorted[9_999], response.grams().max());
+        assertEquals(total / 10_000, response.grams().mean(), total * 1e-12);
+        assertEquals(videoTotal / total, response.activityShare().videoCalls(), 1e-12);
+        assertEquals(expected[response.lowest().index()], response.lowest().grams());
+        assertEquals(sorted[9_999], expected[response.highest().index()]);
+        assertEquals(10, response.histogram().size());
+        assertEquals(10_000, response.histogram().stream().mapToInt(Bin::count).sum());
+    }
+
+    @Test
+    void rejectsTheWholeSweepForOneInvalidScenario() {
+        List<ActivityMix> mixes = List.of(new ActivityMix("ok", 10L, null, null, null, null),
+                                          new ActivityMix("bad", null, -1.0, 3L, null, null));
+
+        ValidationException error = assertThrows(ValidationException.class, () -> ScenarioBatch.of(mixes, true, 10));
+        assertTrue(error.getMessage().contains("scenarios[1].callMinutes"), error.getMessage());
+        assertThrows(ValidationException.class, () -> ScenarioBatch.of(List.of(), true, 10));
+        assertThrows(ValidationException.class, () -> ScenarioBatch.of(mixes, true, 1));
+    }
+
+    @Test
+    void capsQuantitiesSoTheSweepStaysFinite() {
+        ActivityMix largest = new ActivityMix("max", ScenarioBatch.MAX_MESSAGES, ScenarioBatch.MAX_CALL_MINUTES,
+                                              ScenarioBatch.MAX_PARTICIPANTS, ScenarioBatch.MAX_DATA_BYTES, false);
+        ScenarioSweepResponse response = engine.evaluate(ScenarioBatch.of(List.of(largest, largest), true, 10), 5);
+        assertTrue(Double.isFinite(response.grams().max()));
+        assertTrue(Double.isFinite(response.activityShare().videoCalls()));
+        assertTrue(response.histogram().stream().allMatch(bin -> Double.isFinite(bin.upperGrams())));
+
+        for (ActivityMix tooLarge : List.of(
+                new ActivityMix("messages", Long.MAX_VALUE, null, null, null, null),
+                new ActivityMix("minutes", null, Double.MAX_VALUE, 2L, null, null),
+                new ActivityMix("participants", null, 60.0, ScenarioBatch.MAX_PARTICIPANTS + 1, null, null),
+                new ActivityMix("bytes", null, null, null, Double.MAX_VALUE, null))) {
+            ValidationException error = assertThrows(ValidationException.class,
+                                                     () -> ScenarioBatch.of(List.of(tooLarge), true, 10));
+            assertTrue(error.getMessage().contains("exceeds the limit"), error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.octopus.backend.snapshot;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.PersistenceService;
+import com.octopus.backend.counters.CounterRegistry;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.replication.ReplicatedCounters;
+import com.octopus.backend.timeseries.MessageTimeSeries;
+import com.octopus.backend.totals.CarbonTotals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPublisherTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PersistenceService persistenceService;
+    private HackathonService hackathonService;
+    private SnapshotPublisher snapshots;
+
+    @BeforeEach
+    void setUp() {
+        BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+        persistenceService = new PersistenceService(dataDir.toString(), "os", 50, 10_000, metrics);
+        hackathonService = new HackathonService(persistenceService, new CounterRegistry(100, 100),
+                                                new MessageTimeSeries(60, 60, 24), metrics,
+                                                new ReplicatedCounters("test", null));
+        snapshots = new SnapshotPublisher(hackathonService,
+                                          new CarbonTotals(hackathonService, new LocalCarbonEngine(CarbonModel.SWD_V3), CarbonModel.SWD_V3, metrics, 0),
+                                          objectMapper, 512);
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceService.close();
+    }
+
+    @Test
+    void rebuildsOnlyWhenCountersChange() throws Exception {
+        JsonSnapshot first = snapshots.live();
+        assertSame(first, snapshots.live());
+        assertEquals(0, objectMapper.readTree(first.json()).get("totalMessages").asLong());
+
+        hackathonService.recordBatch(new BatchRecord("bot", "g", "c", 12L, false, "b1"));
+        JsonSnapshot second = snapshots.live();
+        assertNotSame(first, second);
+        assertNotEquals(first.etag(), second.etag());
+        assertEquals(12, objectMapper.readTree(second.json()).get("totalMessages").asLong());
+        assertSame(second, snapshots.live());
+    }
+
+    @Test
+    void servesGzipOnlyWhenAcceptedAndLargeEnough() throws Exception {
+        JsonSnapshot small = snapshots.live();
+        assertNull(small.gzip());
+        assertNull(small.toResponse("gzip").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        JsonSnapshot large = snapshots.fixed("large", Map.of("items", List.of("x".repeat(300), "y".repeat(300))));
+        ResponseEntity<byte[]> plain = large.toResponse(null);
+        ResponseEntity<byte[]> compressed = large.toResponse("br, gzip");
+        assertArrayEquals(large.json(), plain.getBody());
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(large.etag(), compressed.getHeaders().getETag());
+
+        JsonNode unzipped = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(compressed.getBody())));
+        assertEquals(objectMapper.readTree(large.json()), unzipped);
+    }
+}
@@ -0,0 +1,79 @@
+package com.octopus.backend.timeseries;
+
+import com.octopus.backend.timeseries.MessageTimeSeries.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTimeSeriesTest {
+
+    @Test
+    void recordsIntoEveryResolutionAndQueriesARange() {
+        MessageTimeSeries series = new MessageTimeSeries(600, 60, 24);
+        long minute = (System.currentTimeMillis() / 60_000 - 2) * 60_000;
+        series.record(minute + 1_000, 10, 0, 1);
+        series.record(minute + 1_500, 5, 2, 2);
+        series.record(minute + 61_000, 3, 0, 1);
+
+        Window seconds = series.query(Resolution.SECOND, Instant.ofEpochMilli(minute), Instant.ofEpochMilli(minute + 2_999));
+        assertEquals(3, seconds.buckets());
+        assertEquals(0, seconds.messages(0));
+        assertEquals(17, seconds.messages(1));
+        assertEquals(2, seconds.simulationMessages(1));
+        assertEquals(3, seconds.batches(1));
+
+        Window minutes = series.query(Resolution.MINUTE, Instant.ofEpochMilli(minute), Instant.ofEpochMilli(minute + 60_000));
+        assertEquals(20, minutes.totalMessages());
+        assertEquals(Instant.ofEpochMilli(minute + 60_000), minutes.bucketStart(1));
+        assertArrayEquals(new long[] {3, 17, 17}, minutes.percentiles(0.5, 0.99, 1.0));
+    }
+
+    @Test
+    void ringOverwritesBucketsOlderThanItsCapacity() {
+        RingSeries ring = new RingSeries(1_000, 4);
+        ring.add(1_000, 1, 0, 1);
+        ring.add(5_000, 7, 0, 1);   // same slot as 1_000, one lap later
+        ring.add(1_500, 100, 0, 1); // behind the ring: dropped
+
+        long[] values = new long[3 * 5];
+        ring.read(1, 5, values);
+        assertEquals(0, values[0], "bucket 1 was overwritten");
+        assertEquals(7, values[3 * 4]);
+    }
+
+    @Test
+    void rejectsRangesBeyondRetention() {
+        MessageTimeSeries series = new MessageTimeSeries(60, 60, 24);
+        Instant now = Instant.now();
+        assertThrows(IllegalArgumentException.class,
+                     () -> series.query(Resolution.SECOND, now.minusSeconds(120), now));
+        assertThrows(IllegalArgumentException.class,
+                     () -> series.query(Resolution.MINUTE, now, now.minusSeconds(120)));
+    }
+
+    @Test
+    void clampsFutureEndToTheCurrentBucket() {
+        MessageTimeSeries series = new MessageTimeSeries(60, 60, 24);
+        Instant now = Instant.now();
+
+        Window window = series.query(Resolution.SECOND, now.minusSeconds(10), Instant.parse("+100000-01-01T00:00:00Z"));
+        assertTrue(window.buckets() >= 11 && window.buckets() <= 12, "ends at the current second: " + window.buckets());
+        assertEquals(3 * window.buckets(), window.values().length);
+        assertThrows(IllegalArgumentException.class,
+                     () -> series.query(Resolution.SECOND, now.plusSeconds(60), now.plusSeconds(120)));
+        assertThrows(IllegalArgumentException.class,
+                     () -> series.query(Resolution.SECOND, now, Instant.MAX));
+    }
+
+    @Test
+    void rejectsRangesWiderThanTheRing() {
+        MessageTimeSeries series = new MessageTimeSeries(60, 60, 24);
+        Instant now = Instant.now();
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> series.query(Resolution.SECOND, now.minusSeconds(60), now.plusSeconds(3_600)));
+        assertEquals(60, series.query(Resolution.SECOND, now.minusSeconds(59), now.plusSeconds(3_600)).buckets());
+    }
+}
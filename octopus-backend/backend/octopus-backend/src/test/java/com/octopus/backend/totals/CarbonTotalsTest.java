@@ -0,0 +1,175 @@
+package com.octopus.backend.totals;
+
+import com.octopus.backend.HackathonService;
+import com.octopus.backend.PersistenceService;
+import com.octopus.backend.counters.CounterRegistry;
+import com.octopus.backend.dto.BatchRecord;
+import com.octopus.backend.dto.CarbonCalculationResponse;
+import com.octopus.backend.dto.CarbonCalculationResponse.CarbonMetrics;
+import com.octopus.backend.dto.CarbonCalculationResponse.PhysicalEquivalents;
+import com.octopus.backend.engine.CarbonEngine;
+import com.octopus.backend.engine.CarbonModel;
+import com.octopus.backend.engine.LocalCarbonEngine;
+import com.octopus.backend.observability.BackendMetrics;
+import com.octopus.backend.replication.ReplicatedCounters;
+import com.octopus.backend.timeseries.MessageTimeSeries;
+import com.octopus.backend.totals.CarbonTotals.Totals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarbonTotalsTest {
+
+    private static final LocalCarbonEngine LOCAL = new LocalCarbonEngine(CarbonModel.SWD_V3);
+
+    @TempDir
+    Path dataDir;
+
+    private final BackendMetrics metrics = new BackendMetrics(new SimpleMeterRegistry());
+    // Stands in for a remote engine whose answers differ from the in-process model.
+    private volatile double engineFactor = 1;
+    private volatile boolean engineDown;
+    private PersistenceService persistenceService;
+    private HackathonService hackathonService;
+    private CarbonTotals totals;
+
+    @BeforeEach
+    void setUp() {
+        persistenceService = new PersistenceService(dataDir.toString(), "os", 50, 10_000, metrics);
+        hackathonService = new HackathonService(persistenceService, new CounterRegistry(100, 100),
+                                                new MessageTimeSeries(60, 60, 24), metrics,
+                                                new ReplicatedCounters("test", null));
+        totals = new CarbonTotals(hackathonService, new ScaledEngine(), CarbonModel.SWD_V3, metrics, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceService.close();
+    }
+
+    @Test
+    void manySmallBatchesAddUpToTheFullCalculation() {
+        long real = 0;
+        for (int i = 0; i < 20_000; i++) {
+            long count = 1 + i % 7;
+            hackathonService.recordBatch(new BatchRecord("bot", null, null, count, i % 5 == 0, null));
+            real += i % 5 == 0 ? 0 : count;
+        }
+
+        Totals current = totals.current();
+        assertEquals(real, current.real().messages());
+        assertClose(LOCAL.calculateDiscord(real), current.real().carbon(), current.real().equivalents());
+        assertClose(LOCAL.calculateDiscord(current.totalMessages()),
+                    current.combined().carbon(), current.combined().equivalents());
+
+        hackathonService.resetSimulations();
+        Totals reset = totals.current();
+        assertEquals(0, reset.simulation().messages());
+        assertEquals(0.0, reset.simulation().carbon().grams(), "an emptied stream is exactly zero");
+        assertEquals(reset.real(), reset.combined());
+    }
+
+    @Test
+    void concurrentBatchesAreAllAccountedFor() throws Exception {
+        Thread[] bots = new Thread[8];
+        for (int t = 0; t < bots.length; t++) {
+            bots[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    hackathonService.recordBatch(new BatchRecord("bot", null, null, 3L, false, null));
+                    totals.current();
+                }
+            });
+            bots[t].start();
+        }
+        for (Thread bot : bots) {
+            bot.join();
+        }
+
+        Totals current = totals.current();
+        assertEquals(48_000, current.real().messages());
+        assertClose(LOCAL.calculateDiscord(48_000), current.real().carbon(), current.real().equivalents());
+        totals.catchUp();
+        Totals folded = totals.current();
+        assertEquals(48_000, folded.real().messages());
+        assertClose(LOCAL.calculateDiscord(48_000), folded.real().carbon(), folded.real().equivalents());
+    }
+
+    @Test
+    void reconciliationCorrectsToTheEngineAndKeepsLaterBatches() {
+        hackathonService.recordBatch(new BatchRecord("bot", null, null, 1_000L, false, null));
+        engineFactor = 2;
+
+        totals.reconcile();
+        assertEquals(1, totals.corrections());
+        Totals reconciled = totals.current();
+        assertNotNull(reconciled.reconciledAt());
+        assertClose(scaled(LOCAL.calculateDiscord(1_000), 2),
+                    reconciled.real().carbon(), reconciled.real().equivalents());
+
+        hackathonService.recordBatch(new BatchRecord("bot", null, null, 500L, false, null));
+        double expected = 2 * LOCAL.calculateDiscord(1_000).carbon().grams()
+            + LOCAL.calculateDiscord(500).carbon().grams();
+        assertEquals(expected, totals.current().real().carbon().grams(), expected * 1e-12);
+
+        engineDown = true;
+        totals.reconcile();
+        assertEquals(1, totals.corrections(), "a failed recalculation leaves the totals alone");
+        assertEquals(expected, totals.current().real().carbon().grams(), expected * 1e-12);
+    }
+
+    @Test
+    void reconcilesTotalsBeyondTheSingleRequestLimit() {
+        hackathonService.recordBatch(new BatchRecord("bot", null, null, 8_000_000L, false, null));
+        hackathonService.recordBatch(new BatchRecord("bot", null, null, 8_000_000L, false, null));
+        engineFactor = 2;
+
+        totals.reconcile();
+
+        assertEquals(1, totals.corrections());
+        Totals reconciled = totals.current();
+        assertClose(scaled(LOCAL.calculateDiscord(16_000_000), 2),
+                    reconciled.real().carbon(), reconciled.real().equivalents());
+    }
+
+    private static void assertClose(CarbonCalculationResponse expected, CarbonMetrics carbon,
+                                    PhysicalEquivalents equivalents) {
+        assertEquals(expected.carbon().grams(), carbon.grams(), expected.carbon().grams() * 1e-12);
+        assertEquals(expected.carbon().kilograms(), carbon.kilograms(), expected.carbon().kilograms() * 1e-12);
+        assertEquals(expected.equivalents().carMiles(), equivalents.carMiles(),
+                     expected.equivalents().carMiles() * 1e-12);
+        assertEquals(expected.equivalents().treeDays(), equivalents.treeDays(),
+                     expected.equivalents().treeDays() * 1e-12);
+    }
+
+    private static CarbonCalculationResponse scaled(CarbonCalculationResponse response, double factor) {
+        return new CarbonCalculationResponse(
+            response.activity(), response.count(),
+            new CarbonMetrics(response.carbon().grams() * factor, response.carbon().kilograms() * factor),
+            new PhysicalEquivalents(response.equivalents().carMiles() * factor,
+                                    response.equivalents().treeDays() * factor),
+            response.timestamp(), response.calculationModel(), response.note());
+    }
+
+    private final class ScaledEngine implements CarbonEngine {
+
+        @Override
+        public CarbonCalculationResponse calculateDiscord(long messageCount) {
+            if (engineDown) {
+                throw new ResourceAccessException("engine down");
+            }
+            return scaled(LOCAL.calculateDiscord(messageCount), engineFactor);
+        }
+
+        @Override
+        public String name() {
+            return "scaled";
+        }
+    }
+}
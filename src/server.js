@@ -11,6 +11,7 @@ console.log('DEBUG: loaded src/server.js');
 
 const app = express();
 const PORT = process.env.PORT || 3002;
+const MAX_BULK_COUNTS = 1000;
 
 // ======================
 // 1. MIDDLEWARE
@@ -55,6 +56,37 @@ app.post('/api/v1/calculate/discord', (req, res) => {
   }
 });
 
+/**
+ * POST /api/v1/calculate/discord/bulk
+ * Calculate carbon for several Discord message counts in one request.
+ * Request body: { "counts": [1500, 20, 7] }
+ * Response: { "results": [...] } in request order. An invalid count gets
+ * { "error": "...", "type": "VALIDATION_ERROR" } in its slot instead of failing the batch.
+ */
+app.post('/api/v1/calculate/discord/bulk', (req, res) => {
+  const { counts } = req.body || {};
+
+  if (!Array.isArray(counts) || counts.length === 0) {
+    return res.status(400).json({
+      error: 'Missing required parameter: counts (non-empty array)'
+    });
+  }
+  if (counts.length > MAX_BULK_COUNTS) {
+    return res.status(400).json({
+      error: `Too many counts: ${counts.length} (max ${MAX_BULK_COUNTS})`
+    });
+  }
+
+  const results = counts.map((count) => {
+    try {
+      return calculateDiscordCarbon(Number(count));
+    } catch (error) {
+      return { error: error.message, type: 'VALIDATION_ERROR' };
+    }
+  });
+  res.json({ results });
+});
+
 /**
  * POST /api/v1/calculate/video-call
  * Calculate carbon for video calls.
@@ -106,6 +138,7 @@ app.use((req, res) => {
     error: `Route not found: ${req.originalUrl}`,
     availableEndpoints: [
       'POST /api/v1/calculate/discord',
+      'POST /api/v1/calculate/discord/bulk',
       'POST /api/v1/calculate/video-call',
       'GET /api/v1/health'
     ]
@@ -128,6 +161,7 @@ app.listen(PORT, () => {
   console.log(`✅ CO2 Microservice running on http://localhost:${PORT}`);
   console.log(`📚 Available endpoints:`);
   console.log(`   POST http://localhost:${PORT}/api/v1/calculate/discord`);
+  console.log(`   POST http://localhost:${PORT}/api/v1/calculate/discord/bulk`);
   console.log(`   POST http://localhost:${PORT}/api/v1/calculate/video-call`);
   console.log(`   GET  http://localhost:${PORT}/api/v1/health`);
 });